@@ -0,0 +1,55 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.api.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps track of cooldowns, the times before which a user cannot do something again, such as run a command or redeem
+ * a kit. Nucleus uses this for its own command and kit cooldowns, and other plugins may use it for their own.
+ *
+ * <p>Cooldowns are identified by the user and a key. Keys should be prefixed with the ID of the plugin that sets them,
+ * such as {@code myplugin:teleport}. Nucleus uses {@code nucleus:command.<command>} and {@code nucleus:kit.<kit>}.</p>
+ *
+ * <p>If the server is configured to do so, cooldowns are kept across restarts.</p>
+ */
+public interface NucleusCooldownService {
+
+    /**
+     * Starts a cooldown, replacing any cooldown that the user already has for the key.
+     *
+     * @param user The {@link UUID} of the user.
+     * @param key The key of the cooldown.
+     * @param duration How long the cooldown lasts. If this is zero or negative, any cooldown is removed.
+     */
+    void setCooldown(UUID user, String key, Duration duration);
+
+    /**
+     * Gets how long is left of a user's cooldown.
+     *
+     * @param user The {@link UUID} of the user.
+     * @param key The key of the cooldown.
+     * @return The time left, or empty if the user is not cooling down.
+     */
+    Optional<Duration> getRemainingCooldown(UUID user, String key);
+
+    /**
+     * Ends a user's cooldown.
+     *
+     * @param user The {@link UUID} of the user.
+     * @param key The key of the cooldown.
+     * @return <code>true</code> if the user was cooling down.
+     */
+    boolean removeCooldown(UUID user, String key);
+
+    /**
+     * Ends the cooldowns of every user for a key.
+     *
+     * @param key The key of the cooldowns.
+     */
+    void removeCooldowns(String key);
+}
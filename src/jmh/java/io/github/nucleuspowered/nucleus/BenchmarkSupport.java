@@ -0,0 +1,93 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus;
+
+import io.github.nucleuspowered.nucleus.internal.text.NucleusTokenServiceImpl;
+import io.github.nucleuspowered.nucleus.internal.text.TextParsingUtils;
+import io.github.nucleuspowered.nucleus.tests.TestBase;
+import org.mockito.Mockito;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.api.service.context.Context;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sets up the parts of Nucleus that the benchmarks use, with Sponge mocked in the same way that {@link TestBase} mocks
+ * it for the tests.
+ *
+ * <p>The text serialisers are the stubs from {@link TestBase}, so the benchmarks of text parsing measure the work that
+ * Nucleus does around them rather than the serialisation itself. Mocks do not record their calls, so that they do not
+ * fill the heap during a run, but calling them is still slower than calling a real implementation would be. The times
+ * are for comparing against earlier runs, not for how long a call takes on a server.</p>
+ */
+public final class BenchmarkSupport {
+
+    private static final Set<Context> contexts = Collections.emptySet();
+    private static NucleusPlugin plugin = null;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Sets up Nucleus, if it has not already been set up.
+     *
+     * @return The mocked {@link NucleusPlugin} that services were created with.
+     * @throws Exception if the Sponge mocks could not be set up.
+     */
+    public static synchronized NucleusPlugin setup() throws Exception {
+        if (plugin == null) {
+            TestBase.testSetup();
+            TestBase.NucleusTest nucleus = (TestBase.NucleusTest) Nucleus.getNucleus();
+
+            PluginContainer container = mock(PluginContainer.class);
+            Mockito.when(container.getId()).thenReturn(PluginInfo.ID);
+
+            NucleusPlugin mock = mock(NucleusPlugin.class);
+            Mockito.when(mock.getPluginContainer()).thenReturn(container);
+            Mockito.when(mock.getMessageProvider()).thenReturn(nucleus.getMessageProvider());
+            Mockito.when(mock.getPermissionRegistry()).thenReturn(nucleus.getPermissionRegistry());
+            Mockito.when(mock.getPermissionCache()).thenReturn(nucleus.getPermissionCache());
+
+            nucleus.setTextParsingUtils(new TextParsingUtils(mock));
+            nucleus.setMessageTokenService(new NucleusTokenServiceImpl(mock));
+            plugin = mock;
+        }
+
+        return plugin;
+    }
+
+    /**
+     * Creates an online {@link Player}, whose permission checks are cached by the
+     * {@link Nucleus#getPermissionCache() permission cache}.
+     *
+     * @param name The name of the player.
+     * @param hasPermissions Whether the player has every permission, or none.
+     * @param options The options that are set on the player.
+     * @return The {@link Player}.
+     */
+    public static Player mockPlayer(String name, boolean hasPermissions, Map<String, String> options) {
+        UUID uuid = UUID.randomUUID();
+        Player player = mock(Player.class);
+        Mockito.when(player.getName()).thenReturn(name);
+        Mockito.when(player.getUniqueId()).thenReturn(uuid);
+        Mockito.when(player.getActiveContexts()).thenReturn(contexts);
+        Mockito.when(player.hasPermission(Mockito.anySetOf(Context.class), Mockito.anyString())).thenReturn(hasPermissions);
+        Mockito.when(player.hasPermission(Mockito.anyString())).thenReturn(hasPermissions);
+        Mockito.when(player.getOption(Mockito.anySetOf(Context.class), Mockito.anyString()))
+                .then(x -> Optional.ofNullable(options.get((String) x.getArguments()[1])));
+
+        Nucleus.getNucleus().getPermissionCache().startSession(uuid);
+        return player;
+    }
+
+    public static <T> T mock(Class<T> clazz) {
+        return Mockito.mock(clazz, Mockito.withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Util#getKeyIgnoreCase(Map, String)}, which is used to look up homes, warps and kits by name.
+ *
+ * <p>The key that is looked up differs from the stored key in case only, and is the last one that was added.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private final Map<String, Object> map = new HashMap<>();
+    private String key;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 0; i < this.size; i++) {
+            this.map.put("Warp" + i, i);
+        }
+
+        this.key = "warp" + (this.size - 1);
+    }
+
+    @Benchmark
+    public Optional<String> getKeyIgnoreCase() {
+        return Util.getKeyIgnoreCase(this.map, this.key);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.argumentparsers;
+
+import io.github.nucleuspowered.nucleus.BenchmarkSupport;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.ArgumentParseException;
+import org.spongepowered.api.command.args.CommandArgs;
+import org.spongepowered.api.entity.living.player.User;
+import org.spongepowered.api.profile.GameProfile;
+import org.spongepowered.api.service.user.UserStorageService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the users whose names start with what was typed, as the {@link NicknameArgument} does for each
+ * command that takes a player.
+ *
+ * <p>The users are named "player0" onwards, so "player12" matches more users the more there are, and "player9999"
+ * is an exact match when there are enough users, and nothing otherwise.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NicknameArgumentBenchmark {
+
+    @Param({"100", "10000"})
+    public int users;
+
+    @Param({"player12", "player9999"})
+    public String input;
+
+    private NicknameArgument.UserParser parser;
+    private CommandSource source;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.setup();
+
+        List<GameProfile> profiles = new ArrayList<>();
+        Map<GameProfile, Optional<User>> userMap = new HashMap<>();
+        for (int i = 0; i < this.users; i++) {
+            String name = "player" + i;
+            UUID uuid = UUID.randomUUID();
+            GameProfile profile = BenchmarkSupport.mock(GameProfile.class);
+            Mockito.when(profile.getName()).thenReturn(Optional.of(name));
+            Mockito.when(profile.getUniqueId()).thenReturn(uuid);
+
+            User user = BenchmarkSupport.mock(User.class);
+            Mockito.when(user.getName()).thenReturn(name);
+            Mockito.when(user.getUniqueId()).thenReturn(uuid);
+            Mockito.when(user.getPlayer()).thenReturn(Optional.empty());
+
+            profiles.add(profile);
+            userMap.put(profile, Optional.of(user));
+        }
+
+        UserStorageService uss = BenchmarkSupport.mock(UserStorageService.class);
+        Mockito.when(uss.getAll()).thenReturn(profiles);
+        Mockito.when(uss.get(Mockito.any(GameProfile.class))).then(x -> userMap.get((GameProfile) x.getArguments()[0]));
+
+        UserNameIndex index = new UserNameIndex(() -> uss);
+        index.populate();
+        this.parser = new NicknameArgument.UserParser(false, () -> uss, () -> index);
+
+        this.source = BenchmarkSupport.mock(CommandSource.class);
+        Mockito.when(this.source.hasPermission(Mockito.anyString())).thenReturn(true);
+    }
+
+    @Benchmark
+    public List<?> accept() throws ArgumentParseException {
+        return this.parser.accept(this.input, this.source, new CommandArgs("", new ArrayList<>()));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheVersionNode;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.UserDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the {@link UserCacheService} queries, using both the {@link IndexedUserCacheStore} and the
+ * {@link CompactUserCacheStore}, against scanning every cache entry, which is what the queries did before the indexes
+ * were added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class UserCacheServiceBenchmark {
+
+    @Param({"500000"})
+    public int entries;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private UserCacheVersionNode node;
+    private UserCacheService service;
+    private String ip;
+    private String jail;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // Roughly five users per IP address, 2% of users jailed across ten jails and 1% muted.
+        Random random = new Random(1234);
+        this.node = new UserCacheVersionNode();
+        for (int i = 0; i < this.entries; i++) {
+            int address = random.nextInt(this.entries / 5);
+            String ip = "10." + ((address >> 16) & 0xFF) + "." + ((address >> 8) & 0xFF) + "." + (address & 0xFF);
+            String jail = random.nextInt(50) == 0 ? "jail" + random.nextInt(10) : null;
+            this.node.getNode().put(new UUID(random.nextLong(), random.nextLong()), new UserCacheDataNode(ip, jail, random.nextInt(100) == 0));
+        }
+
+        // The service takes the entries out of the node that it loads, so give it a copy.
+        UserCacheVersionNode copy = new UserCacheVersionNode(this.node.getVersion(), new HashMap<>(this.node.getNode()));
+        this.service = new UserCacheService(new FixedDataProvider(copy), null, new EmptyUserDataSource());
+        this.service.setCompactStore(this.compact);
+        this.ip = this.node.getNode().values().iterator().next().getIpAddress().get();
+        this.jail = "jail3";
+    }
+
+    @Benchmark
+    public List<UUID> getForIpIndexed() {
+        return this.service.getForIp(this.ip);
+    }
+
+    @Benchmark
+    public List<UUID> getForIpScan() {
+        return this.node.getNode().entrySet().stream()
+                .filter(x -> x.getValue().getIpAddress().map(y -> y.equals(this.ip)).orElse(false))
+                .map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<UUID> getJailedInIndexed() {
+        return this.service.getJailedIn(this.jail);
+    }
+
+    @Benchmark
+    public List<UUID> getJailedInScan() {
+        return this.node.getNode().entrySet().stream()
+                .filter(x -> x.getValue().getJailName().map(y -> y.equalsIgnoreCase(this.jail)).orElse(false))
+                .map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<UUID> getMutedIndexed() {
+        return this.service.getMuted();
+    }
+
+    @Benchmark
+    public List<UUID> getMutedScan() {
+        return this.node.getNode().entrySet().stream().filter(x -> x.getValue().isMuted())
+                .map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    private static final class EmptyUserDataSource implements UserDataSource {
+
+        @Override public Collection<UUID> getStoredUsers() {
+            return Collections.emptyList();
+        }
+
+        @Override public Optional<Reader> openUserData(UUID uuid) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class FixedDataProvider implements DataProvider<UserCacheVersionNode> {
+
+        private final UserCacheVersionNode node;
+
+        private FixedDataProvider(UserCacheVersionNode node) {
+            this.node = node;
+        }
+
+        @Override public boolean has() {
+            return true;
+        }
+
+        @Override public UserCacheVersionNode load() {
+            return this.node;
+        }
+
+        @Override public void save(UserCacheVersionNode info) {
+        }
+
+        @Override public void delete() {
+        }
+    }
+}
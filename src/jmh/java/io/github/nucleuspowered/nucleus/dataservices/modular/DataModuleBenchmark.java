@@ -0,0 +1,131 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.modular;
+
+import io.github.nucleuspowered.nucleus.configurate.ConfigurateHelper;
+import io.github.nucleuspowered.nucleus.modules.core.datamodules.CoreUserDataModule;
+import io.github.nucleuspowered.nucleus.modules.home.datamodules.HomeUserDataModule;
+import io.github.nucleuspowered.nucleus.modules.mail.datamodules.MailUserDataModule;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.SimpleConfigurationNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures loading and saving {@link DataModule}s, and {@link DataModule#saveToIfChanged(ConfigurationNode)} both when
+ * nothing has changed, which is the usual case on a save, and when the module has been changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataModuleBenchmark {
+
+    private static final UUID WORLD = UUID.randomUUID();
+
+    @Param({"core", "home", "mail"})
+    public String module;
+
+    private ConfigurationOptions options;
+    private ConfigurationNode source;
+    private Supplier<DataModule<?>> factory;
+    private DataModule<?> loaded;
+    private ConfigurationNode saved;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.options = ConfigurateHelper.setOptions(ConfigurationOptions.defaults());
+        this.source = SimpleConfigurationNode.root(this.options);
+
+        switch (this.module) {
+            case "core":
+                this.factory = CoreUserDataModule::new;
+                this.source.getNode("lastKnownName").setValue("dualspiral");
+                setLocation(this.source.getNode("lastLocation"), 1);
+                this.source.getNode("lastLogin").setValue(System.currentTimeMillis());
+                this.source.getNode("lastLogout").setValue(System.currentTimeMillis());
+                this.source.getNode("lastIP").setValue("/127.0.0.1");
+                this.source.getNode("firstJoin").setValue(System.currentTimeMillis() - 100000L);
+                this.source.getNode("startedFirstJoin").setValue(false);
+                break;
+            case "home":
+                this.factory = () -> new HomeUserDataModule(null);
+                for (int i = 0; i < 10; i++) {
+                    setLocation(this.source.getNode("homes", "home" + i), i);
+                }
+
+                break;
+            case "mail":
+                this.factory = MailUserDataModule::new;
+                for (int i = 0; i < 20; i++) {
+                    ConfigurationNode mail = this.source.getNode("mail").getAppendedNode();
+                    mail.getNode("uuid").setValue(UUID.randomUUID().toString());
+                    mail.getNode("date").setValue(System.currentTimeMillis());
+                    mail.getNode("message").setValue("This is mail message number " + i);
+                }
+
+                break;
+            default:
+                throw new IllegalArgumentException(this.module);
+        }
+
+        this.loaded = this.factory.get();
+        this.loaded.loadFrom(this.source);
+        this.saved = SimpleConfigurationNode.root(this.options);
+        this.loaded.saveTo(this.saved);
+    }
+
+    @Benchmark
+    public DataModule<?> load() {
+        DataModule<?> dataModule = this.factory.get();
+        dataModule.loadFrom(this.source);
+        return dataModule;
+    }
+
+    @Benchmark
+    public ConfigurationNode save() {
+        ConfigurationNode node = SimpleConfigurationNode.root(this.options);
+        this.loaded.saveTo(node);
+        return node;
+    }
+
+    @Benchmark
+    public boolean saveIfUnchanged() {
+        return this.loaded.saveToIfChanged(this.saved);
+    }
+
+    @Benchmark
+    public boolean saveIfChanged() {
+        this.loaded.markChanged();
+        return this.loaded.saveToIfChanged(this.saved);
+    }
+
+    private static void setLocation(ConfigurationNode node, int seed) {
+        node.getNode("x").setValue(seed * 10.5);
+        node.getNode("y").setValue(64.0);
+        node.getNode("z").setValue(seed * -3.25);
+        node.getNode("rotx").setValue(0.0);
+        node.getNode("roty").setValue(90.0);
+        node.getNode("rotz").setValue(0.0);
+        node.getNode("world").setValue(WORLD.toString());
+    }
+}
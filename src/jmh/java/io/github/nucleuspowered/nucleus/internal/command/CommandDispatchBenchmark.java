@@ -0,0 +1,192 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.command;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.reflect.ClassPath;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.util.Modules;
+import io.github.nucleuspowered.nucleus.BenchmarkSupport;
+import io.github.nucleuspowered.nucleus.NucleusPlugin;
+import io.github.nucleuspowered.nucleus.config.CommandsConfig;
+import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
+import io.github.nucleuspowered.nucleus.dataservices.loaders.WorldDataManager;
+import io.github.nucleuspowered.nucleus.internal.EconHelper;
+import io.github.nucleuspowered.nucleus.internal.annotations.RequireMixinPlugin;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCommand;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.Scan;
+import io.github.nucleuspowered.nucleus.modules.kit.commands.kit.KitCommand;
+import io.github.nucleuspowered.nucleus.modules.kit.config.KitConfigAdapter;
+import io.github.nucleuspowered.nucleus.modules.kit.handlers.KitHandler;
+import io.github.nucleuspowered.nucleus.modules.world.WorldHelper;
+import io.github.nucleuspowered.nucleus.modules.world.commands.WorldCommand;
+import io.github.nucleuspowered.nucleus.modules.world.config.WorldConfigAdapter;
+import io.github.nucleuspowered.nucleus.tests.util.TestModule;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spongepowered.api.command.CommandCallable;
+import org.spongepowered.api.command.CommandException;
+import org.spongepowered.api.command.args.ArgumentParseException;
+import org.spongepowered.api.command.args.CommandArgs;
+import org.spongepowered.api.command.args.parsing.InputTokenizer;
+import org.spongepowered.api.command.dispatcher.SimpleDispatcher;
+import org.spongepowered.api.util.Tuple;
+
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the walk from the entered arguments to a nested command, such as {@code /world border set}, as it was done
+ * with each command's {@link SimpleDispatcher}, against the compiled lookup that {@link StandardAbstractCommand} now
+ * uses. Splitting the arguments up is measured on its own, as both walks have to do it.
+ *
+ * <p>The kit and world commands are built by a {@link CommandBuilder} from every command in their modules, as the
+ * modules build them, so both walks go through the real children. Only the dispatch is measured, not the argument
+ * parsing or execution of the command that is found, and the root command is found by its alias, as Sponge would.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    private static final InputTokenizer tokeniser = InputTokenizer.quotedStrings(false);
+
+    @Param({"kit set starter", "world border set world 1000", "world border set world 1000 60"})
+    public String input;
+
+    private StandardAbstractCommand<?> root;
+    private String rootName;
+    private String arguments;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.setup();
+        NucleusPlugin plugin = BenchmarkSupport.mock(NucleusPlugin.class);
+        CommandsConfig commandsConfig = new CommandsConfig(Files.createTempFile("commanddispatch", "conf"));
+        Mockito.when(plugin.getCommandsConfig()).thenReturn(commandsConfig);
+        Mockito.when(plugin.getDocGenCache()).thenReturn(Optional.empty());
+
+        Injector injector = Guice.createInjector(Modules.override(new TestModule()).with(binder -> {
+            binder.bind(NucleusPlugin.class).toInstance(plugin);
+            binder.bind(UserDataManager.class).toInstance(BenchmarkSupport.mock(UserDataManager.class));
+            binder.bind(WorldDataManager.class).toInstance(BenchmarkSupport.mock(WorldDataManager.class));
+            binder.bind(EconHelper.class).toInstance(BenchmarkSupport.mock(EconHelper.class));
+            binder.bind(KitHandler.class).toInstance(BenchmarkSupport.mock(KitHandler.class));
+            binder.bind(KitConfigAdapter.class).toInstance(BenchmarkSupport.mock(KitConfigAdapter.class));
+            binder.bind(WorldHelper.class).toInstance(BenchmarkSupport.mock(WorldHelper.class));
+            binder.bind(WorldConfigAdapter.class).toInstance(BenchmarkSupport.mock(WorldConfigAdapter.class));
+        }));
+
+        Map<String, StandardAbstractCommand<?>> roots = Maps.newHashMap();
+        roots.put("kit", build(plugin, injector, KitCommand.class, "kit"));
+        roots.put("world", build(plugin, injector, WorldCommand.class, "world"));
+
+        String[] split = this.input.split(" ", 2);
+        this.root = roots.get(split[0]);
+        this.rootName = split[0];
+        this.arguments = split.length == 2 ? split[1] : "";
+    }
+
+    @Benchmark
+    public CommandCallable dispatchLegacy(Blackhole blackhole) throws ArgumentParseException {
+        CommandArgs args = new CommandArgs(this.arguments, tokeniser.tokenize(this.arguments, false));
+        CommandCallable callable = this.root;
+        String command = this.rootName;
+        while (callable instanceof StandardAbstractCommand && args.hasNext()) {
+            SimpleDispatcher dispatcher = ((StandardAbstractCommand<?>) callable).getDispatcher();
+            List<Tuple<String, CommandException>> thrown = Lists.newArrayList();
+            blackhole.consume(thrown);
+            if (!dispatcher.containsAlias(args.peek())) {
+                break;
+            }
+
+            Object state = args.getState();
+            String next = args.next();
+            blackhole.consume(state);
+            command = command + " " + next;
+            callable = dispatcher.get(next.toLowerCase()).get().getCallable();
+        }
+
+        blackhole.consume(command);
+        return callable;
+    }
+
+    @Benchmark
+    public CommandCallable dispatchCompiled(Blackhole blackhole) throws ArgumentParseException {
+        CommandArgs args = new CommandArgs(this.arguments, tokeniser.tokenize(this.arguments, false));
+        CommandCallable callable = this.root;
+        while (callable instanceof StandardAbstractCommand && args.hasNext()) {
+            CommandCallable child = ((StandardAbstractCommand<?>) callable).getChildCommand(args.peek());
+            if (child == null) {
+                break;
+            }
+
+            Object state = args.getState();
+            args.next();
+            blackhole.consume(state);
+            callable = child;
+        }
+
+        return callable;
+    }
+
+    @Benchmark
+    public Object tokenise() throws ArgumentParseException {
+        return tokeniser.tokenize(this.arguments, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StandardAbstractCommand<?> build(NucleusPlugin plugin, Injector injector, Class<? extends StandardAbstractCommand<?>> root,
+            String moduleId) throws Exception {
+        // The commands that the module would load, other than those that need the mixins.
+        String packageName = root.getPackage().getName().replaceAll("\\.commands(\\..*)?$", ".commands");
+        Set<Class<? extends StandardAbstractCommand<?>>> commands = ClassPath.from(root.getClassLoader())
+                .getTopLevelClassesRecursive(packageName).stream()
+                .map(ClassPath.ClassInfo::load)
+                .flatMap(x -> x.isAnnotationPresent(Scan.class) ? Arrays.stream(x.getDeclaredClasses()) : Stream.of(x))
+                .filter(StandardAbstractCommand.class::isAssignableFrom)
+                .filter(x -> !Modifier.isAbstract(x.getModifiers()) && x.isAnnotationPresent(RegisterCommand.class))
+                .filter(x -> !x.isAnnotationPresent(RequireMixinPlugin.class)
+                        || x.getAnnotation(RequireMixinPlugin.class).value() != RequireMixinPlugin.MixinLoad.MIXIN_ONLY)
+                .map(x -> (Class<? extends StandardAbstractCommand<?>>) x)
+                .collect(Collectors.toSet());
+
+        // Aliases that are registered as commands of their own would go to Sponge, so they are turned off.
+        for (Class<? extends StandardAbstractCommand<?>> command : commands) {
+            StandardAbstractCommand<?> c = injector.getInstance(command);
+            for (String alias : c.getRootCommandAliases()) {
+                plugin.getCommandsConfig().getCommandNode(c.getCommandConfigAlias()).getNode("aliases", alias).setValue(false);
+            }
+        }
+
+        return new CommandBuilder(plugin, injector, commands, moduleId, moduleId).buildCommand(root, false)
+                .orElseThrow(() -> new IllegalStateException(root.getName() + " was not built"));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.text;
+
+import io.github.nucleuspowered.nucleus.BenchmarkSupport;
+import io.github.nucleuspowered.nucleus.Nucleus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.text.Text;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the URL and command link parsing in {@link TextParsingUtils}, which runs on every chat message and every
+ * text template that is loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextParsingBenchmark {
+
+    @Param({
+        "hello everyone, how is it going today?",
+        "&cplease &lvisit http://nucleuspowered.org/docs for the &adocs",
+        "[click here](/spawn) or visit https://nucleuspowered.org and [our site](https://nucleuspowered.org/docs)"
+    })
+    public String message;
+
+    private TextParsingUtils textParsingUtils;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.setup();
+        this.textParsingUtils = Nucleus.getNucleus().getTextParsingUtils();
+    }
+
+    @Benchmark
+    public Text addUrls() {
+        return TextParsingUtils.addUrls(this.message);
+    }
+
+    @Benchmark
+    public Object createTextTemplateFragmentWithLinks() {
+        return this.textParsingUtils.createTextTemplateFragmentWithLinks(this.message);
+    }
+}
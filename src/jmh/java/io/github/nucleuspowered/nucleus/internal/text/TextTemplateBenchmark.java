@@ -0,0 +1,61 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.text;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.nucleuspowered.nucleus.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.text.Text;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling in a {@link NucleusTextTemplateImpl} for a player, as is done for chat and join messages.
+ *
+ * <p>The player's prefix and suffix come from the permission cache after the first run, as they would on a
+ * server.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextTemplateBenchmark {
+
+    @Param({
+        "&a{{subject}}&f has joined",
+        "{{prefix:s}}&f{{subject}}{{suffix:p}}&7: [click here](/spawn) to go to spawn"
+    })
+    public String template;
+
+    private NucleusTextTemplateImpl textTemplate;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.setup();
+        this.textTemplate = NucleusTextTemplateFactory.createFromAmpersandString(this.template);
+        this.player = BenchmarkSupport.mockPlayer("dualspiral", true,
+                ImmutableMap.of("prefix", "&c[Admin]", "suffix", "&7(staff)", "chatcolour", "e"));
+    }
+
+    @Benchmark
+    public Text getForCommandSource() {
+        return this.textTemplate.getForCommandSource(this.player, null, null);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.text;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.nucleuspowered.nucleus.BenchmarkSupport;
+import io.github.nucleuspowered.nucleus.Nucleus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.text.Text;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a single token with the {@link NucleusTokenServiceImpl}, which is done for each token in a text
+ * template each time it is filled in.
+ *
+ * <p>Options such as the player's prefix come from the permission cache after the first run, as they would on a
+ * server.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final Map<String, Object> variables = ImmutableMap.of();
+
+    @Param({"{{subject}}", "{{prefix:s}}", "{{o:chatcolour}}", "{{pl:nucleus:subject}}"})
+    public String token;
+
+    private NucleusTokenServiceImpl tokenService;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.setup();
+        this.tokenService = (NucleusTokenServiceImpl) Nucleus.getNucleus().getMessageTokenService();
+        this.player = BenchmarkSupport.mockPlayer("dualspiral", true,
+                ImmutableMap.of("prefix", "&c[Admin]", "suffix", "&7(staff)", "chatcolour", "e"));
+    }
+
+    @Benchmark
+    public Optional<Text> getTextFromToken() {
+        return this.tokenService.getTextFromToken(this.token, this.player, variables);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.chat.listeners;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.nucleuspowered.nucleus.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.entity.living.player.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures removing the formatting codes that a player may not use from a chat message, which is done for every
+ * message that is sent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatListenerBenchmark {
+
+    @Param({
+        "hello everyone, how is it going today?",
+        "&chello &leveryone&r, &khow&r is it &agoing &otoday&r?"
+    })
+    public String message;
+
+    @Param({"true", "false"})
+    public boolean hasPermissions;
+
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.setup();
+        this.player = BenchmarkSupport.mockPlayer("dualspiral", this.hasPermissions, ImmutableMap.of());
+    }
+
+    @Benchmark
+    public String stripPermissionless() {
+        return ChatListener.stripPermissionless(this.player, this.message);
+    }
+}
@@ -8,6 +8,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import io.github.nucleuspowered.nucleus.dataservices.modular.ModularUserService;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
 import io.github.nucleuspowered.nucleus.modules.chat.config.ChatTemplateConfig;
 import io.github.nucleuspowered.nucleus.modules.chat.util.TemplateUtil;
 import io.github.nucleuspowered.nucleus.modules.nickname.NicknameModule;
@@ -41,6 +42,8 @@ public class NameUtil {
     }
 
     private final NucleusPlugin plugin;
+    private final OptionParser<TextColor> colourOption = OptionParser.of(this::getColourFromString);
+    private final OptionParser<TextStyle> styleOption = OptionParser.of(this::getTextStyleFromString);
 
     private final static Map<Character, TextColor> colourMap = Maps.newHashMap();
     private final static Map<Character, TextStyle> styleMap;
@@ -159,6 +162,24 @@ public class NameUtil {
         }
     }
 
+    /**
+     * Gets the {@link OptionParser} that parses colour options, such as {@code namecolour}.
+     *
+     * @return The {@link OptionParser}.
+     */
+    public OptionParser<TextColor> getColourOption() {
+        return colourOption;
+    }
+
+    /**
+     * Gets the {@link OptionParser} that parses style options, such as {@code namestyle}.
+     *
+     * @return The {@link OptionParser}.
+     */
+    public OptionParser<TextStyle> getStyleOption() {
+        return styleOption;
+    }
+
     public TextStyle getTextStyleFromString(@Nullable String s) {
         if (s == null || s.length() == 0) {
             return TextStyles.NONE;
@@ -177,20 +198,20 @@ public class NameUtil {
     }
 
     private TextColor getNameColour(User player) {
-        return getStyle(player, this::getColourFromString, x -> getColourFromString(x.getNamecolour()), TextColors.NONE,
+        return getStyle(player, colourOption, x -> getColourFromString(x.getNamecolour()), TextColors.NONE,
                 "namecolor", "namecolour");
     }
 
     private TextStyle getNameStyle(User player) {
-        return getStyle(player, this::getTextStyleFromString, x -> getTextStyleFromString(x.getNamestyle()), TextStyles.NONE,
+        return getStyle(player, styleOption, x -> getTextStyleFromString(x.getNamestyle()), TextStyles.NONE,
                 "namestyle");
     }
 
-    private <T extends TextElement> T getStyle(User player, Function<String, T> returnIfAvailable,
+    private <T extends TextElement> T getStyle(User player, OptionParser<T> parser,
             Function<ChatTemplateConfig, T> fromTemplate, T def, String... options) {
-        Optional<String> os = Util.getOptionFromSubject(player, options);
+        Optional<T> os = plugin.getPermissionCache().getOption(player, parser, options);
         if (os.isPresent()) {
-            return returnIfAvailable.apply(os.get());
+            return os.get();
         }
 
         Optional<TemplateUtil> optionalTemplateUtil = plugin.getInternalServiceManager().getService(TemplateUtil.class);
@@ -7,10 +7,13 @@ package io.github.nucleuspowered.nucleus;
 import com.google.inject.Injector;
 import io.github.nucleuspowered.nucleus.api.service.NucleusMessageTokenService;
 import io.github.nucleuspowered.nucleus.config.CommandsConfig;
+import io.github.nucleuspowered.nucleus.dataservices.BackupService;
 import io.github.nucleuspowered.nucleus.dataservices.ItemDataService;
 import io.github.nucleuspowered.nucleus.dataservices.KitService;
 import io.github.nucleuspowered.nucleus.dataservices.NameBanService;
 import io.github.nucleuspowered.nucleus.dataservices.UserCacheService;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
+import io.github.nucleuspowered.nucleus.dataservices.UserQueryService;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.WorldDataManager;
 import io.github.nucleuspowered.nucleus.dataservices.modular.ModularGeneralService;
@@ -19,9 +22,13 @@ import io.github.nucleuspowered.nucleus.internal.InternalServiceManager;
 import io.github.nucleuspowered.nucleus.internal.MixinConfigProxy;
 import io.github.nucleuspowered.nucleus.internal.PermissionRegistry;
 import io.github.nucleuspowered.nucleus.internal.TextFileController;
+import io.github.nucleuspowered.nucleus.internal.command.AsyncCommandExecutor;
+import io.github.nucleuspowered.nucleus.internal.command.CommandMetrics;
 import io.github.nucleuspowered.nucleus.internal.docgen.DocGenCache;
 import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.internal.qsml.NucleusConfigAdapter;
+import io.github.nucleuspowered.nucleus.internal.services.CooldownService;
 import io.github.nucleuspowered.nucleus.internal.services.WarmupManager;
 import io.github.nucleuspowered.nucleus.internal.teleport.NucleusTeleportHandler;
 import io.github.nucleuspowered.nucleus.internal.text.TextParsingUtils;
@@ -68,12 +75,35 @@ public abstract class Nucleus {
 
     public abstract UserCacheService getUserCacheService();
 
+    public abstract UserNameIndex getUserNameIndex();
+
+    public abstract UserQueryService getUserQueryService();
+
+    public abstract BackupService getBackupService();
+
     public abstract void saveSystemConfig() throws IOException;
 
     public abstract boolean reload();
 
     public abstract WarmupManager getWarmupManager();
 
+    public abstract CooldownService getCooldownService();
+
+    public abstract AsyncCommandExecutor getAsyncCommandExecutor();
+
+    public abstract CommandMetrics getCommandMetrics();
+
+    public abstract SessionPermissionCache getPermissionCache();
+
+    /**
+     * Gets the directory that command statistics are exported to.
+     *
+     * @return The directory.
+     */
+    public Path getCommandStatisticsPath() {
+        return getDataPath().resolve("command-stats");
+    }
+
     public abstract WarmupConfig getWarmupConfig();
 
     public abstract EconHelper getEconHelper();
@@ -16,15 +16,19 @@ import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.typesafe.config.ConfigException;
 import io.github.nucleuspowered.nucleus.api.NucleusAPITokens;
+import io.github.nucleuspowered.nucleus.api.service.NucleusCooldownService;
 import io.github.nucleuspowered.nucleus.api.service.NucleusMessageTokenService;
 import io.github.nucleuspowered.nucleus.api.service.NucleusModuleService;
 import io.github.nucleuspowered.nucleus.api.service.NucleusWarmupManagerService;
 import io.github.nucleuspowered.nucleus.config.CommandsConfig;
 import io.github.nucleuspowered.nucleus.configurate.ConfigurateHelper;
+import io.github.nucleuspowered.nucleus.dataservices.BackupService;
 import io.github.nucleuspowered.nucleus.dataservices.ItemDataService;
 import io.github.nucleuspowered.nucleus.dataservices.KitService;
 import io.github.nucleuspowered.nucleus.dataservices.NameBanService;
 import io.github.nucleuspowered.nucleus.dataservices.UserCacheService;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
+import io.github.nucleuspowered.nucleus.dataservices.UserQueryService;
 import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProviders;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.WorldDataManager;
@@ -36,6 +40,8 @@ import io.github.nucleuspowered.nucleus.internal.MixinConfigProxy;
 import io.github.nucleuspowered.nucleus.internal.PermissionRegistry;
 import io.github.nucleuspowered.nucleus.internal.PreloadTasks;
 import io.github.nucleuspowered.nucleus.internal.TextFileController;
+import io.github.nucleuspowered.nucleus.internal.command.AsyncCommandExecutor;
+import io.github.nucleuspowered.nucleus.internal.command.CommandMetrics;
 import io.github.nucleuspowered.nucleus.internal.docgen.DocGenCache;
 import io.github.nucleuspowered.nucleus.internal.guice.QuickStartInjectorModule;
 import io.github.nucleuspowered.nucleus.internal.guice.SubInjectorModule;
@@ -43,20 +49,27 @@ import io.github.nucleuspowered.nucleus.internal.messages.ConfigMessageProvider;
 import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
 import io.github.nucleuspowered.nucleus.internal.messages.ResourceMessageProvider;
 import io.github.nucleuspowered.nucleus.internal.permissions.PermissionInformation;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
 import io.github.nucleuspowered.nucleus.internal.qsml.ModuleRegistrationProxyService;
 import io.github.nucleuspowered.nucleus.internal.qsml.NucleusConfigAdapter;
 import io.github.nucleuspowered.nucleus.internal.qsml.NucleusLoggerProxy;
 import io.github.nucleuspowered.nucleus.internal.qsml.QuickStartModuleConstructor;
 import io.github.nucleuspowered.nucleus.internal.qsml.event.BaseModuleEvent;
+import io.github.nucleuspowered.nucleus.internal.services.CooldownService;
 import io.github.nucleuspowered.nucleus.internal.services.WarmupManager;
 import io.github.nucleuspowered.nucleus.internal.teleport.NucleusTeleportHandler;
 import io.github.nucleuspowered.nucleus.internal.text.NucleusTokenServiceImpl;
 import io.github.nucleuspowered.nucleus.internal.text.TextParsingUtils;
 import io.github.nucleuspowered.nucleus.logging.DebugLogger;
 import io.github.nucleuspowered.nucleus.modules.core.CoreModule;
+import io.github.nucleuspowered.nucleus.modules.core.config.AsyncCommandConfig;
+import io.github.nucleuspowered.nucleus.modules.core.config.CommandStatisticsConfig;
 import io.github.nucleuspowered.nucleus.modules.core.config.CoreConfig;
 import io.github.nucleuspowered.nucleus.modules.core.config.CoreConfigAdapter;
+import io.github.nucleuspowered.nucleus.modules.core.config.DataSavingConfig;
+import io.github.nucleuspowered.nucleus.modules.core.config.PermissionCacheConfig;
+import io.github.nucleuspowered.nucleus.modules.core.config.UserDataCacheConfig;
 import io.github.nucleuspowered.nucleus.modules.core.config.WarmupConfig;
 import io.github.nucleuspowered.nucleus.modules.core.datamodules.UniqueUserCountTransientModule;
 import io.github.nucleuspowered.nucleus.modules.core.events.NucleusReloadConfigEvent;
@@ -82,6 +95,7 @@ import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.api.service.permission.PermissionDescription;
 import org.spongepowered.api.service.permission.PermissionService;
+import org.spongepowered.api.service.user.UserStorageService;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.format.TextColors;
 import uk.co.drnaylor.quickstart.annotations.ModuleData;
@@ -102,6 +116,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -117,13 +132,18 @@ public class NucleusPlugin extends Nucleus {
     private Instant gameStartedTime = null;
     private boolean modulesLoaded = false;
     private boolean hasStarted = false;
+    @Nullable private volatile Thread serverThread = null;
     private Throwable isErrored = null;
     private CommandsConfig commandsConfig;
     private ModularGeneralService generalService;
     private ItemDataService itemDataService;
     private UserCacheService userCacheService;
+    private UserNameIndex userNameIndex;
     private UserDataManager userDataManager;
+    private UserQueryService userQueryService;
+    private BackupService backupService;
     private WorldDataManager worldDataManager;
+    private DataProviders dataProviders;
     private NameBanService nameBanService;
     private KitService kitService;
     private TextParsingUtils textParsingUtils;
@@ -140,8 +160,13 @@ public class NucleusPlugin extends Nucleus {
     private MessageProvider commandMessageProvider = new ResourceMessageProvider(ResourceMessageProvider.commandMessagesBundle);
 
     private WarmupManager warmupManager;
+    private CooldownService cooldownService;
+    private AsyncCommandExecutor asyncCommandExecutor;
+    private final CommandMetrics commandMetrics = new CommandMetrics();
+    @Nullable private Task commandStatisticsTask = null;
     private final EconHelper econHelper = new EconHelper(this);
     private final PermissionRegistry permissionRegistry = new PermissionRegistry();
+    private final SessionPermissionCache permissionCache = new SessionPermissionCache();
 
     private DiscoveryModuleContainer moduleContainer;
 
@@ -200,14 +225,31 @@ public class NucleusPlugin extends Nucleus {
             commandsConfig = new CommandsConfig(Paths.get(configDir.toString(), "commands.conf"));
 
             DataProviders d = new DataProviders(this);
-            generalService = new ModularGeneralService(d.getGeneralDataProvider());
+            dataProviders = d;
+            generalService = new ModularGeneralService(d.getGeneralDataProvider(), d::getGeneralShardDataProvider);
             itemDataService = new ItemDataService(d.getItemDataProvider());
             userDataManager = new UserDataManager(this, d::getUserFileDataProviders, d::doesUserFileExist);
             worldDataManager = new WorldDataManager(this, d::getWorldFileDataProvider, d::doesWorldFileExist);
+            userDataManager.setAfterSave(d.getFileSaveSettings()::sync);
+            worldDataManager.setAfterSave(d.getFileSaveSettings()::sync);
             kitService = new KitService(d.getKitsDataProvider());
             nameBanService = new NameBanService(d.getNameBanDataProvider());
-            userCacheService = new UserCacheService(d.getUserCacheDataProvider());
+            userCacheService = new UserCacheService(d.getUserCacheDataProvider(), d.getUserCacheJournal(), d);
+            userNameIndex = new UserNameIndex(() -> Sponge.getServiceManager().provideUnchecked(UserStorageService.class));
+            userQueryService = new UserQueryService(userDataManager, d, d::getUserFileDataProviders, getLogger());
+            backupService = new BackupService(dataDir, dataDir.resolveSibling(dataDir.getFileName() + "-backups"), d.getFileSaveSettings(),
+                    () -> {
+                        // Make sure that nothing is still waiting to be written before the snapshot is taken.
+                        saveData();
+                        userDataManager.saveAllAndFlush();
+                        worldDataManager.saveAllAndFlush();
+                        d.getFileSaveSettings().sync();
+                    }, d::getIndexedUserStore, getLogger());
             warmupManager = new WarmupManager();
+            cooldownService = new CooldownService(d.getCooldownDataProvider(), getLogger());
+            AsyncCommandConfig acc = new AsyncCommandConfig();
+            asyncCommandExecutor = new AsyncCommandExecutor(acc.getThreads(), acc.getMaxQueued(), acc.getMaxQueuedPerPlayer(), commandMetrics,
+                    getLogger());
             textParsingUtils = new TextParsingUtils(this);
             nameUtil = new NameUtil(this);
         } catch (Exception e) {
@@ -222,8 +264,10 @@ public class NucleusPlugin extends Nucleus {
         // We register the ModuleService NOW so that others can hook into it.
         game.getServiceManager().setProvider(this, NucleusModuleService.class, new ModuleRegistrationProxyService(this));
         game.getServiceManager().setProvider(this, NucleusWarmupManagerService.class, warmupManager);
+        game.getServiceManager().setProvider(this, NucleusCooldownService.class, cooldownService);
         this.injector = Guice.createInjector(new QuickStartInjectorModule(this));
         serviceManager.registerService(WarmupManager.class, warmupManager);
+        serviceManager.registerService(CooldownService.class, cooldownService);
 
         nucleusChatService = new NucleusTokenServiceImpl(this);
         serviceManager.registerService(NucleusTokenServiceImpl.class, nucleusChatService);
@@ -323,6 +367,11 @@ public class NucleusPlugin extends Nucleus {
             this.isDebugMode = moduleContainer.getConfigAdapterForModule(CoreModule.ID, CoreConfigAdapter.class).getNodeOrDefault().isDebugmode();
             this.isTraceUserCreations = moduleContainer.getConfigAdapterForModule(CoreModule.ID, CoreConfigAdapter.class).getNodeOrDefault()
                     .traceUserCreations();
+
+            // The storage engine cannot be changed on reload, user and world data may have been loaded by then.
+            dataProviders.setStorageEngine(moduleContainer.getConfigAdapterForModule(CoreModule.ID, CoreConfigAdapter.class).getNodeOrDefault()
+                    .getDataSavingConfig().getStorageEngine());
+            userCacheService.setIndexedStore(dataProviders.getIndexedUserStore().orElse(null));
         } catch (Throwable construction) {
             logger.info(messageProvider.getMessageWithFormat("startup.modulenotloaded", PluginInfo.NAME));
             construction.printStackTrace();
@@ -334,6 +383,18 @@ public class NucleusPlugin extends Nucleus {
         // Register a reloadable.
         CommandPermissionHandler.onReload();
         registerReloadable(CommandPermissionHandler::onReload);
+        updateDataSaving();
+        registerReloadable(this::updateDataSaving);
+        updateUserDataCache();
+        registerReloadable(this::updateUserDataCache);
+        updateCooldowns();
+        registerReloadable(this::updateCooldowns);
+        updateAsyncCommands();
+        registerReloadable(this::updateAsyncCommands);
+        updateCommandStatistics();
+        registerReloadable(this::updateCommandStatistics);
+        updatePermissionCache();
+        registerReloadable(this::updatePermissionCache);
         getDocGenCache().ifPresent(x -> x.addTokenDocs(nucleusChatService.getNucleusTokenParser().getTokenNames()));
 
         logger.info(messageProvider.getMessageWithFormat("startup.moduleloaded", PluginInfo.NAME));
@@ -346,11 +407,15 @@ public class NucleusPlugin extends Nucleus {
 
     @Listener
     public void onGameStarting(GameStartingServerEvent event) {
+        this.serverThread = Thread.currentThread();
         if (isErrored == null) {
             generalService.getTransient(UniqueUserCountTransientModule.class).resetUniqueUserCount();
 
             // Start the user cache walk if required, the user storage service is loaded at this point.
             Task.builder().async().execute(() -> userCacheService.startFilewalkIfNeeded()).submit(this);
+
+            // Index the names of all known users now, rather than on the first command that needs them.
+            Task.builder().async().execute(() -> userNameIndex.populate()).submit(this);
         }
     }
 
@@ -378,18 +443,34 @@ public class NucleusPlugin extends Nucleus {
         if (this.hasStarted && this.isErrored == null) {
             this.gameStartedTime = null;
             logger.info(messageProvider.getMessageWithFormat("startup.stopped", PluginInfo.NAME));
+            asyncCommandExecutor.shutdown();
             saveData();
+            userDataManager.shutdown();
+            worldDataManager.shutdown();
+            dataProviders.close();
         }
     }
 
+    /**
+     * Gets whether the current thread is the server thread. Before the server starts, this always returns false.
+     *
+     * @return true if this is the server thread.
+     */
+    public boolean isServerThread() {
+        return Thread.currentThread() == this.serverThread;
+    }
+
     @Override
     public void saveData() {
         userDataManager.saveAll();
         worldDataManager.saveAll();
         try {
             generalService.save();
+            itemDataService.flush();
             nameBanService.save();
+            cooldownService.save();
             userCacheService.save();
+            dataProviders.getFileSaveSettings().sync();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -435,6 +516,18 @@ public class NucleusPlugin extends Nucleus {
         return userCacheService;
     }
 
+    @Override public UserNameIndex getUserNameIndex() {
+        return userNameIndex;
+    }
+
+    @Override public UserQueryService getUserQueryService() {
+        return userQueryService;
+    }
+
+    @Override public BackupService getBackupService() {
+        return backupService;
+    }
+
     @Override
     public void saveSystemConfig() throws IOException {
         moduleContainer.saveSystemConfig();
@@ -466,6 +559,59 @@ public class NucleusPlugin extends Nucleus {
         }
     }
 
+    private void updateDataSaving() {
+        DataSavingConfig dsc = getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getDataSavingConfig)
+                .orElseGet(DataSavingConfig::new);
+        userDataManager.setWriteBehind(dsc.isWriteBehind(), dsc.getMaxWritesPerSecond(), dsc.getBatchSize());
+        worldDataManager.setWriteBehind(dsc.isWriteBehind(), dsc.getMaxWritesPerSecond(), dsc.getBatchSize());
+        dataProviders.getFileSaveSettings().set(dsc.isAtomicWrites(), dsc.getFsync(), dsc.getBackupEvery(), dsc.getBackupIntervalMinutes(),
+                TimeUnit.MINUTES);
+    }
+
+    private void updateUserDataCache() {
+        UserDataCacheConfig udcc = getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getUserDataCacheConfig)
+                .orElseGet(UserDataCacheConfig::new);
+        userDataManager.setCacheLimits(udcc.getMaxEntries(), udcc.getMaxWeight(), udcc.getOfflineExpirySeconds(), TimeUnit.SECONDS);
+        userCacheService.setCompactStore(udcc.isCompactUserCache());
+    }
+
+    private void updateCooldowns() {
+        cooldownService.setPersistent(getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::isPersistCooldowns).orElse(false));
+    }
+
+    private void updateAsyncCommands() {
+        AsyncCommandConfig acc = getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getAsyncCommandConfig)
+                .orElseGet(AsyncCommandConfig::new);
+        asyncCommandExecutor.setLimits(acc.getThreads(), acc.getMaxQueued(), acc.getMaxQueuedPerPlayer());
+    }
+
+    private void updateCommandStatistics() {
+        if (commandStatisticsTask != null) {
+            commandStatisticsTask.cancel();
+            commandStatisticsTask = null;
+        }
+
+        CommandStatisticsConfig csc = getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getCommandStatisticsConfig)
+                .orElseGet(CommandStatisticsConfig::new);
+        if (csc.getExportIntervalMinutes() > 0) {
+            commandStatisticsTask = Task.builder().async().name("Nucleus - Command Statistics Export")
+                    .interval(csc.getExportIntervalMinutes(), TimeUnit.MINUTES).delay(csc.getExportIntervalMinutes(), TimeUnit.MINUTES)
+                    .execute(() -> {
+                        try {
+                            commandMetrics.export(getCommandStatisticsPath(), csc.getExportFormat(), csc.getKeepExports());
+                        } catch (IOException e) {
+                            logger.error("Could not export the command statistics.", e);
+                        }
+                    }).submit(this);
+        }
+    }
+
+    private void updatePermissionCache() {
+        PermissionCacheConfig pcc = getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getPermissionCacheConfig)
+                .orElseGet(PermissionCacheConfig::new);
+        permissionCache.setExpiry(pcc.isEnabled(), pcc.getExpirySeconds());
+    }
+
     private void fireReloadables() throws Exception {
         for (ThrowableAction<? extends Exception> r : reloadableList) {
             r.action();
@@ -498,6 +644,22 @@ public class NucleusPlugin extends Nucleus {
         return warmupManager;
     }
 
+    @Override public CooldownService getCooldownService() {
+        return cooldownService;
+    }
+
+    @Override public AsyncCommandExecutor getAsyncCommandExecutor() {
+        return asyncCommandExecutor;
+    }
+
+    @Override public CommandMetrics getCommandMetrics() {
+        return commandMetrics;
+    }
+
+    @Override public SessionPermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
     @Override public WarmupConfig getWarmupConfig() {
         if (this.warmupConfig == null) {
             this.warmupConfig = getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getWarmupConfig).orElseGet(WarmupConfig::new);
@@ -12,6 +12,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.github.nucleuspowered.nucleus.internal.data.EndTimestamp;
 import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.internal.text.NucleusTextTemplateFactory;
 import io.github.nucleuspowered.nucleus.util.Action;
 import io.github.nucleuspowered.nucleus.util.PaginationBuilderWrapper;
@@ -330,29 +332,43 @@ public class Util {
     }
 
     public static Optional<Double> getDoubleOptionFromSubject(Subject player, String... options) {
-        return getTypedObjectFromSubject(Double::parseDouble, player, options);
+        return getTypedObjectFromSubject(OptionParser.DOUBLE, player, options);
     }
 
     public static Optional<Long> getPositiveLongOptionFromSubject(Subject player, String... options) {
-        return getTypedObjectFromSubject(Long::parseUnsignedLong, player, options);
+        return getTypedObjectFromSubject(OptionParser.POSITIVE_LONG, player, options);
     }
 
     public static Optional<Integer> getPositiveIntOptionFromSubject(Subject player, String... options) {
-        return getTypedObjectFromSubject(Integer::parseUnsignedInt, player, options);
+        return getTypedObjectFromSubject(OptionParser.POSITIVE_INT, player, options);
     }
 
     public static Optional<Integer> getIntOptionFromSubject(Subject player, String... options) {
-        return getTypedObjectFromSubject(Integer::parseInt, player, options);
+        return getTypedObjectFromSubject(OptionParser.INT, player, options);
     }
 
     public static <T> Optional<T> getTypedObjectFromSubject(ThrownFunction<String, T, Exception> conversion, Subject player, String... options) {
-        try {
-            Optional<String> optional = getOptionFromSubject(player, options);
-            if (optional.isPresent()) {
-                return Optional.ofNullable(conversion.accept(optional.get()));
+        return getTypedObjectFromSubject(OptionParser.of(conversion), player, options);
+    }
+
+    /**
+     * Gets the first of the given options on a {@link Subject} that is set and can be parsed. This always asks the
+     * permission plugin, use {@link SessionPermissionCache#getOption(Subject, OptionParser, String...)} for options
+     * of online players that are checked often.
+     *
+     * @param parser The {@link OptionParser} to parse the option with.
+     * @param player The {@link Subject} to get the option from.
+     * @param options The option keys to check.
+     * @param <T> The type of the parsed option.
+     * @return An {@link Optional} that might contain a value.
+     */
+    public static <T> Optional<T> getTypedObjectFromSubject(OptionParser<T> parser, Subject player, String... options) {
+        Set<Context> contexts = player.getActiveContexts();
+        for (String option : options) {
+            Optional<T> ot = player.getOption(contexts, option.toLowerCase()).flatMap(parser::parse);
+            if (ot.isPresent()) {
+                return ot;
             }
-        } catch (Exception e) {
-            // ignored
         }
 
         return Optional.empty();
@@ -366,23 +382,7 @@ public class Util {
      * @return An {@link Optional} that might contain a value.
      */
     public static Optional<String> getOptionFromSubject(Subject player, String... options) {
-        for (String option : options) {
-            String o = option.toLowerCase();
-
-            // Option for context.
-            Optional<String> os = player.getOption(player.getActiveContexts(), o);
-            if (os.isPresent()) {
-                return os;
-            }
-
-            // General option
-            os = player.getOption(o);
-            if (os.isPresent()) {
-                return os;
-            }
-        }
-
-        return Optional.empty();
+        return getTypedObjectFromSubject(OptionParser.STRING, player, options);
     }
 
     public static Optional<String> getTranslatedStringFromItemId(String id) {
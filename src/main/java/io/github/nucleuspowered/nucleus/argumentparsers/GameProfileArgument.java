@@ -13,11 +13,11 @@ import org.spongepowered.api.command.args.CommandContext;
 import org.spongepowered.api.command.args.CommandElement;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.profile.GameProfile;
-import org.spongepowered.api.service.user.UserStorageService;
 import org.spongepowered.api.text.Text;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -39,9 +39,7 @@ public class GameProfileArgument extends CommandElement {
             throw args.createError(Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat("args.gameprofile.format"));
         }
 
-        List<GameProfile> lgp = Sponge.getServiceManager().provideUnchecked(UserStorageService.class).getAll()
-                .stream().filter(x -> x.getName().isPresent() && x.getName().get().equalsIgnoreCase(name))
-                .collect(Collectors.toList());
+        List<GameProfile> lgp = Nucleus.getNucleus().getUserNameIndex().getProfiles(name);
 
         if (lgp.isEmpty()) {
             throw args.createError(Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat("args.gameprofile.none", name));
@@ -58,9 +56,9 @@ public class GameProfileArgument extends CommandElement {
     public List<String> complete(CommandSource src, CommandArgs args, CommandContext context) {
         try {
             String arg = args.peek().toLowerCase();
-            List<String> onlinePlayers = Sponge.getServer().getOnlinePlayers().stream().map(User::getName).collect(Collectors.toList());
-            return Sponge.getServiceManager().provideUnchecked(UserStorageService.class).getAll()
-                .stream().filter(x -> x.getName().isPresent() && x.getName().get().toLowerCase().startsWith(arg))
+            Set<String> onlinePlayers = Sponge.getServer().getOnlinePlayers().stream().map(User::getName).collect(Collectors.toSet());
+            return Nucleus.getNucleus().getUserNameIndex().getProfilesStartingWith(arg)
+                .stream().filter(x -> x.getName().isPresent())
                 .map(x -> x.getName().get())
                 .sorted((first, second) -> {
                     boolean firstBool = onlinePlayers.contains(first);
@@ -5,13 +5,10 @@
 package io.github.nucleuspowered.nucleus.argumentparsers;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import io.github.nucleuspowered.nucleus.Nucleus;
-import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
-import io.github.nucleuspowered.nucleus.dataservices.modular.ModularUserService;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
 import io.github.nucleuspowered.nucleus.internal.command.StandardAbstractCommand;
 import io.github.nucleuspowered.nucleus.modules.nickname.NicknameModule;
-import io.github.nucleuspowered.nucleus.modules.nickname.datamodules.NicknameUserDataModule;
 import io.github.nucleuspowered.nucleus.util.QuadFunction;
 import io.github.nucleuspowered.nucleus.util.ThrownTriFunction;
 import org.spongepowered.api.Sponge;
@@ -24,23 +21,22 @@ import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.service.user.UserStorageService;
 import org.spongepowered.api.text.Text;
-import org.spongepowered.api.text.serializer.TextSerializers;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.BiPredicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
 @NonnullByDefault
 public class NicknameArgument<T extends User> extends CommandElement {
 
-    private final UserDataManager userDataManager;
     private final ThrownTriFunction<String, CommandSource, CommandArgs, List<?>, ArgumentParseException> parser;
     private final QuadFunction<String, CommandSource, CommandArgs, CommandContext, List<String>> completer;
     private final boolean onlyOne;
@@ -61,7 +57,6 @@ public class NicknameArgument<T extends User> extends CommandElement {
         super(key);
 
         this.onlyOne = onlyOne;
-        this.userDataManager = Nucleus.getNucleus().getUserDataManager();
         this.type = type;
         this.filter = filter;
 
@@ -84,12 +79,9 @@ public class NicknameArgument<T extends User> extends CommandElement {
 
                 if (!s.isEmpty()) {
                     UserStorageService uss = Sponge.getServiceManager().provideUnchecked(UserStorageService.class);
-                    List<String> offline = Sponge.getServiceManager().provideUnchecked(UserStorageService.class)
-                            .getAll()
+                    List<String> offline = Nucleus.getNucleus().getUserNameIndex().getProfilesStartingWith(s)
                             .stream()
-                            .filter(x -> x.getName().isPresent())
-                            .filter(x -> !Sponge.getServer().getPlayer(x.getName().get()).isPresent())
-                            .filter(x -> x.getName().get().toLowerCase().startsWith(s))
+                            .filter(x -> !Sponge.getServer().getPlayer(x.getUniqueId()).isPresent())
                             .filter(x -> uss.get(x).map(y -> filter.test(cs, (T) y)).orElse(false))
                             .filter(x -> PlayerConsoleArgument.shouldShow(x.getUniqueId(), cs))
                             .map(x -> x.getName().get())
@@ -138,30 +130,23 @@ public class NicknameArgument<T extends User> extends CommandElement {
             throw args.createError(Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat("args.user.nouser", fName));
         }
 
-        // Now check user names
+        // Now check nicknames
         // TODO: Display name
-        Map<String, ModularUserService> allPlayers;
+        List<Player> players;
         if (Nucleus.getNucleus().isModuleLoaded(NicknameModule.ID)) {
-            allPlayers = userDataManager.getOnlineUsersInternal().stream()
-                    .filter(x -> x.getUser().isOnline() && x.get(NicknameUserDataModule.class).getNicknameAsString().isPresent())
-                    .collect(Collectors.toMap(s -> TextSerializers.FORMATTING_CODE.stripCodes(s.get(NicknameUserDataModule.class)
-                    .getNicknameAsString().get().toLowerCase()), s -> s));
-        } else {
-            allPlayers = Maps.newHashMap();
-        }
+            UserNameIndex index = Nucleus.getNucleus().getUserNameIndex();
+            List<Player> exact = getOnlinePlayers(index.getNicknamed(fName)).collect(Collectors.toList());
+            if (!exact.isEmpty()) {
+                return exact;
+            }
 
-        if (allPlayers.containsKey(fName.toLowerCase())) {
-            return Lists.newArrayList(allPlayers.get(fName.toLowerCase()).getUser().getPlayer().get());
+            players = getOnlinePlayers(index.getNicknamedStartingWith(fName))
+                .filter(x -> filter.test(src, (T)x))
+                .collect(Collectors.toList());
+        } else {
+            players = Lists.newArrayList();
         }
 
-        List<Player> players = allPlayers.entrySet().stream()
-            .filter(x -> x.getKey().toLowerCase().startsWith(fName))
-            .sorted(Comparator.comparing(Map.Entry::getKey))
-            .filter(x -> x.getValue().getUser().getPlayer().isPresent())
-            .map(x -> x.getValue().getUser().getPlayer().get())
-            .filter(x -> filter.test(src, (T)x))
-            .collect(Collectors.toList());
-
         if (players.isEmpty()) {
             throw args.createError(Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat(type == UnderlyingType.PLAYER_CONSOLE ? "args.playerconsole.nouser" : "args.user.nouser", fName));
         } else if (players.size() > 1 && this.onlyOne) {
@@ -193,12 +178,7 @@ public class NicknameArgument<T extends User> extends CommandElement {
         if (playerOnly) {
             return original.stream().map(x -> "p:" + x).collect(Collectors.toList());
         } else if (Nucleus.getNucleus().isModuleLoaded(NicknameModule.ID)) {
-            List<String> toAdd = userDataManager.getOnlineUsersInternal().stream()
-                    .filter(x -> x.getUser().isOnline() && x.get(NicknameUserDataModule.class).getNicknameAsString().isPresent() &&
-                            TextSerializers.FORMATTING_CODE.stripCodes(x.get(NicknameUserDataModule.class).getNicknameAsString().get())
-                                    .toLowerCase().startsWith(fName))
-                    .map(x -> TextSerializers.FORMATTING_CODE.stripCodes(x.get(NicknameUserDataModule.class).getNicknameAsString().get()))
-                    .collect(Collectors.toList());
+            List<String> toAdd = Nucleus.getNucleus().getUserNameIndex().getNicknamesStartingWith(fName);
             toAdd.removeIf(original::contains);
             original.addAll(toAdd);
         }
@@ -206,6 +186,10 @@ public class NicknameArgument<T extends User> extends CommandElement {
         return original;
     }
 
+    private static Stream<Player> getOnlinePlayers(Collection<UUID> uuids) {
+        return uuids.stream().map(x -> Sponge.getServer().getPlayer(x)).filter(Optional::isPresent).map(Optional::get);
+    }
+
     public static class UnderlyingType<U extends User> {
         public static final UnderlyingType<Player> PLAYER = new UnderlyingType<>();
         public static final UnderlyingType<Player> PLAYER_CONSOLE = new UnderlyingType<>();
@@ -216,15 +200,22 @@ public class NicknameArgument<T extends User> extends CommandElement {
 
         private final boolean onlyOne;
         private final Supplier<UserStorageService> userStorageServiceSupplier;
+        private final Supplier<UserNameIndex> userNameIndexSupplier;
         private final BiPredicate<CommandSource, User> filter;
 
         public UserParser(boolean onlyOne, Supplier<UserStorageService> userStorageServiceSupplier) {
-            this(onlyOne, userStorageServiceSupplier, (c, s) -> true);
+            this(onlyOne, userStorageServiceSupplier, () -> Nucleus.getNucleus().getUserNameIndex());
+        }
+
+        public UserParser(boolean onlyOne, Supplier<UserStorageService> userStorageServiceSupplier, Supplier<UserNameIndex> userNameIndexSupplier) {
+            this(onlyOne, userStorageServiceSupplier, userNameIndexSupplier, (c, s) -> true);
         }
 
-        public UserParser(boolean onlyOne, Supplier<UserStorageService> userStorageServiceSupplier, BiPredicate<CommandSource, User> filter) {
+        public UserParser(boolean onlyOne, Supplier<UserStorageService> userStorageServiceSupplier, Supplier<UserNameIndex> userNameIndexSupplier,
+                BiPredicate<CommandSource, User> filter) {
             this.onlyOne = onlyOne;
             this.userStorageServiceSupplier = userStorageServiceSupplier;
+            this.userNameIndexSupplier = userNameIndexSupplier;
             this.filter = filter;
         }
 
@@ -237,9 +228,8 @@ public class NicknameArgument<T extends User> extends CommandElement {
                         .orElseThrow(() -> a.createError(Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat("args.user.toomany", s))));
                 }
 
-                List<User> users = uss.getAll().stream()
-                        // Get the players who start with the string.
-                        .filter(x -> x.getName().filter(y -> y.toLowerCase().startsWith(s.toLowerCase())).isPresent())
+                // Get the players who start with the string.
+                List<User> users = userNameIndexSupplier.get().getProfilesStartingWith(s).stream()
                         .map(uss::get)
                         // Remove players who have no user
                         .filter(Optional::isPresent)
@@ -30,8 +30,7 @@ public class UUIDArgument<T> extends CommandElement {
     @Nullable private final Function<UUID, Optional<T>> validator;
 
     public static UUIDArgument<GameProfile> gameProfile(Text key) {
-        return new UUIDArgument<>(key, x -> Sponge.getServiceManager().provideUnchecked(UserStorageService.class).getAll()
-                .stream().filter(y -> y.getUniqueId().equals(x)).findFirst());
+        return new UUIDArgument<>(key, x -> Nucleus.getNucleus().getUserNameIndex().getProfile(x));
     }
 
     public static UUIDArgument<User> user(Text key) {
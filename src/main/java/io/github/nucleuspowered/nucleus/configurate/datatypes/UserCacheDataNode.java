@@ -38,6 +38,12 @@ public class UserCacheDataNode {
         set(x);
     }
 
+    public UserCacheDataNode(@Nullable String ipAddress, @Nullable String jail, boolean isMuted) {
+        this.ipAddress = ipAddress;
+        this.jail = jail;
+        this.isMuted = isMuted;
+    }
+
     public void set(ModularUserService x) {
         ipAddress = x.get(CoreUserDataModule.class).getLastIp().map(y -> y.replace("/", "")).orElse(null);
         jail = x.get(JailUserDataModule.class).getJailData().map(JailData::getJailName).orElse(null);
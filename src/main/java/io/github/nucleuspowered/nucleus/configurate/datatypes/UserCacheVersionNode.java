@@ -20,6 +20,15 @@ public class UserCacheVersionNode {
     @Setting
     private Map<UUID, UserCacheDataNode> node = Maps.newHashMap();
 
+    public UserCacheVersionNode() {
+        // ignored - for Configurate
+    }
+
+    public UserCacheVersionNode(int version, Map<UUID, UserCacheDataNode> node) {
+        this.version = version;
+        this.node = node;
+    }
+
     public int getVersion() {
         return version;
     }
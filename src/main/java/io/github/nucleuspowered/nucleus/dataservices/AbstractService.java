@@ -24,6 +24,10 @@ public abstract class AbstractService<T> implements Service {
         }
     }
 
+    protected final DataProvider<T> getDataProvider() {
+        return dataProvider;
+    }
+
     @Override public boolean load() {
         try {
             loadInternal();
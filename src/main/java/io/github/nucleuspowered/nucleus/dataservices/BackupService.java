@@ -0,0 +1,524 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import com.google.common.io.ByteStreams;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.FileSaveSettings;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.SqlDataStore;
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Makes incremental backups of the Nucleus data directory, off the server thread.
+ *
+ * <p>A backup is taken in two steps. First, all data is saved, and the files that have changed since the last backup
+ * are copied to a staging directory. Files are found to have changed by their size and modification time. Saves carry
+ * on while this happens, and the files that they write are recorded. Then, while no data files are being written, only
+ * those files are copied again, so saves are held up for as long as it takes to copy the files that were written during
+ * the backup. The staged files are then hashed and compressed into the backup's archive in the background. A staged
+ * file whose content turns out to be the same as in the last backup is not stored again.</p>
+ *
+ * <p>Each backup has a manifest that lists every file in the snapshot, with its content hash and the backup whose
+ * archive holds its content, so a snapshot is restored by extracting each file from the archive that the manifest
+ * names. As later backups refer to the archives of earlier ones, backups must not be deleted individually.</p>
+ *
+ * <p>If the server stops while staged files are being compressed, the staging directory is kept, and the backup is
+ * finished before the next one is started. If a database is in use, it is copied by the database itself.</p>
+ */
+public final class BackupService {
+
+    private static final String MANIFEST = "manifest.txt";
+    private static final String MANIFEST_HEADER = "# Nucleus backup manifest v1: path, size, modified, sha-256, archive";
+    private static final String ARCHIVE = "files.zip";
+    private static final String DATABASE = "database.zip";
+    private static final String STAGING = ".staging";
+    private static final String SNAPSHOT = "snapshot.txt";
+    private static final String FILES = "files";
+    private static final String UNHASHED = "-";
+    private static final int RESTAGE_ROUNDS = 3;
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    // Temporary files, file backups and the database files, which are copied by the database.
+    private static final String[] EXCLUDED_SUFFIXES = { ".tmp", ".bak", ".importing", ".mv.db", ".h2.db", ".lock.db", ".trace.db" };
+
+    private final Path dataDirectory;
+    private final Path backupDirectory;
+    private final FileSaveSettings saveSettings;
+    private final Runnable saveAll;
+    private final Supplier<Optional<SqlDataStore>> database;
+    private final Logger logger;
+    private final AtomicReference<Progress> current = new AtomicReference<>();
+
+    public BackupService(Path dataDirectory, Path backupDirectory, FileSaveSettings saveSettings, Runnable saveAll,
+            Supplier<Optional<SqlDataStore>> database, Logger logger) {
+        this.dataDirectory = dataDirectory;
+        this.backupDirectory = backupDirectory;
+        this.saveSettings = saveSettings;
+        this.saveAll = saveAll;
+        this.database = database;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts a backup, unless one is already running.
+     *
+     * @return The {@link Progress} of the new backup, or empty if one is already running.
+     */
+    public Optional<Progress> start() {
+        Progress progress = new Progress(getName());
+        Progress running = this.current.get();
+        if ((running != null && !running.completion.isDone()) || !this.current.compareAndSet(running, progress)) {
+            return Optional.empty();
+        }
+
+        Thread thread = new Thread(() -> run(progress), "Nucleus backup");
+        thread.setDaemon(true);
+        thread.start();
+        return Optional.of(progress);
+    }
+
+    /**
+     * Gets the {@link Progress} of the running or most recent backup.
+     *
+     * @return The {@link Progress}, if a backup has been started.
+     */
+    public Optional<Progress> getProgress() {
+        return Optional.ofNullable(this.current.get());
+    }
+
+    private void run(Progress progress) {
+        try {
+            Files.createDirectories(this.backupDirectory);
+            Path staging = this.backupDirectory.resolve(STAGING);
+            if (Files.exists(staging.resolve(SNAPSHOT))) {
+                this.logger.info("Finishing an interrupted backup before starting a new one.");
+                compress(staging, new Progress(progress.name));
+            } else {
+                deleteRecursively(staging);
+            }
+
+            progress.phase = Phase.SAVING;
+            this.saveAll.run();
+
+            progress.phase = Phase.SNAPSHOT;
+            Map<String, ManifestEntry> previous = readLatestManifest();
+            Path staged = staging.resolve(FILES);
+            Files.createDirectories(staged);
+            List<ManifestEntry> entries;
+            this.saveSettings.recordWrites();
+            try {
+                Map<String, ManifestEntry> snapshot = snapshot(previous, staged, progress.name);
+
+                // The files that were written while the snapshot was taken are staged again while saves carry on, so
+                // that only those written in the last round are staged while saves wait.
+                Set<Path> written = this.saveSettings.recordWrites();
+                for (int round = 0; round < RESTAGE_ROUNDS && !written.isEmpty(); round++) {
+                    restage(written, snapshot, previous, staged, progress.name);
+                    written = this.saveSettings.recordWrites();
+                }
+
+                Set<Path> remaining = written;
+                entries = this.saveSettings.whileWritesPaused(() -> {
+                    restage(remaining, snapshot, previous, staged, progress.name);
+                    restage(this.saveSettings.stopRecordingWrites(), snapshot, previous, staged, progress.name);
+                    return new ArrayList<>(snapshot.values());
+                });
+            } finally {
+                this.saveSettings.stopRecordingWrites();
+            }
+
+            Optional<SqlDataStore> store = this.database.get();
+            if (store.isPresent()) {
+                store.get().backupTo(staging.resolve(DATABASE));
+            }
+
+            // Once this is written, the snapshot is complete and can be compressed even if the server stops.
+            writeManifest(staging.resolve(SNAPSHOT), progress.name, entries);
+            compress(staging, progress);
+
+            progress.phase = Phase.COMPLETE;
+            this.logger.info(String.format("Backup %s is complete: %d of %d files had changed, %d bytes were read in %d ms.",
+                    progress.name, progress.getChangedFiles(), progress.getTotalFiles(), progress.getBytesRead(),
+                    progress.getElapsed(TimeUnit.MILLISECONDS)));
+            progress.completion.complete(progress);
+        } catch (Exception e) {
+            progress.phase = Phase.FAILED;
+            progress.error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            this.logger.error("Backup " + progress.name + " failed.", e);
+            progress.completion.complete(progress);
+        }
+    }
+
+    /**
+     * Lists every data file, copying those that have changed since the last backup to the staging directory. Files may
+     * be written while this runs, so any that are must be staged again by {@link #restage}.
+     */
+    private Map<String, ManifestEntry> snapshot(Map<String, ManifestEntry> previous, Path staged, String name) throws IOException {
+        Map<String, ManifestEntry> entries = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.walk(this.dataDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String path = this.dataDirectory.relativize(file).toString().replace('\\', '/');
+                try {
+                    stage(file, path, entries, previous, staged, name);
+                } catch (NoSuchFileException e) {
+                    // Deleted since it was listed.
+                    entries.remove(path);
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Stages files that were written while the snapshot was taken again. Once this has been done while no data files are
+     * being written, the staged files are those that were on disk at that point.
+     */
+    private void restage(Set<Path> written, Map<String, ManifestEntry> entries, Map<String, ManifestEntry> previous,
+            Path staged, String name) throws IOException {
+        Path root = this.dataDirectory.toAbsolutePath().normalize();
+        for (Path changed : written) {
+            Path file = changed.toAbsolutePath().normalize();
+            if (!file.startsWith(root)) {
+                continue;
+            }
+
+            String path = root.relativize(file).toString().replace('\\', '/');
+            entries.remove(path);
+            try {
+                stage(file, path, entries, previous, staged, name);
+            } catch (NoSuchFileException e) {
+                // Deleted since it was written.
+            }
+        }
+    }
+
+    private void stage(Path file, String path, Map<String, ManifestEntry> entries, Map<String, ManifestEntry> previous, Path staged,
+            String name) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attributes.isRegularFile() || isExcluded(file)) {
+            return;
+        }
+
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        ManifestEntry last = previous.get(path);
+        if (last != null && last.size == size && last.modified == modified) {
+            entries.put(path, last);
+        } else {
+            Path target = staged.resolve(path);
+            Files.createDirectories(target.getParent());
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+            entries.put(path, new ManifestEntry(path, size, modified, UNHASHED, name));
+        }
+    }
+
+    /**
+     * Hashes the staged files, and stores those whose content has changed in the backup's archive.
+     */
+    private void compress(Path staging, Progress progress) throws IOException {
+        List<String> lines = Files.readAllLines(staging.resolve(SNAPSHOT), StandardCharsets.UTF_8);
+        String name = lines.get(0);
+        List<ManifestEntry> entries = lines.stream().skip(1).filter(x -> !x.startsWith("#")).map(ManifestEntry::parse).collect(Collectors.toList());
+        Map<String, ManifestEntry> previous = readLatestManifest();
+
+        progress.phase = Phase.COMPRESSING;
+        progress.totalFiles = entries.size();
+        progress.changedFiles = (int) entries.stream().filter(x -> x.hash.equals(UNHASHED)).count();
+
+        Path target = this.backupDirectory.resolve(name);
+        Files.createDirectories(target);
+        Path archive = target.resolve(ARCHIVE + ".tmp");
+        List<ManifestEntry> result = new ArrayList<>(entries.size());
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (ManifestEntry entry : entries) {
+                if (!entry.hash.equals(UNHASHED)) {
+                    result.add(entry);
+                    continue;
+                }
+
+                Path file = staging.resolve(FILES).resolve(entry.path);
+                String hash = hash(file);
+                ManifestEntry last = previous.get(entry.path);
+                if (last != null && last.hash.equals(hash)) {
+                    // Only the modification time has changed, the content is already in an earlier archive.
+                    result.add(new ManifestEntry(entry.path, entry.size, entry.modified, hash, last.archive));
+                } else {
+                    zip.putNextEntry(new ZipEntry(entry.path));
+                    Files.copy(file, zip);
+                    zip.closeEntry();
+                    progress.storedFiles++;
+                    result.add(new ManifestEntry(entry.path, entry.size, entry.modified, hash, name));
+                }
+
+                progress.bytesRead += entry.size;
+                progress.processedFiles++;
+            }
+        }
+
+        Files.move(archive, target.resolve(ARCHIVE), StandardCopyOption.REPLACE_EXISTING);
+        if (Files.exists(staging.resolve(DATABASE))) {
+            Files.move(staging.resolve(DATABASE), target.resolve(DATABASE), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // The manifest marks the backup as complete, so it is written last.
+        Path manifest = target.resolve(MANIFEST + ".tmp");
+        writeManifest(manifest, name, result);
+        Files.move(manifest, target.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteRecursively(staging);
+    }
+
+    /**
+     * Gets the name of a backup that is started now. Names sort in the order that backups were started, and a suffix is
+     * added if a backup was already started in the same second.
+     */
+    private String getName() {
+        String name = NAME_FORMAT.format(Instant.now());
+        Progress last = this.current.get();
+        String unique = name;
+        for (int i = 1; (last != null && last.name.equals(unique)) || Files.exists(this.backupDirectory.resolve(unique)); i++) {
+            unique = String.format("%s-%02d", name, i);
+        }
+
+        return unique;
+    }
+
+    private Map<String, ManifestEntry> readLatestManifest() throws IOException {
+        Optional<Path> latest;
+        try (Stream<Path> backups = Files.list(this.backupDirectory)) {
+            latest = backups.filter(x -> Files.exists(x.resolve(MANIFEST))).max(Comparator.comparing(x -> x.getFileName().toString()));
+        }
+
+        if (!latest.isPresent()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, ManifestEntry> entries = new HashMap<>();
+        List<String> lines = Files.readAllLines(latest.get().resolve(MANIFEST), StandardCharsets.UTF_8);
+        lines.stream().skip(1).filter(x -> !x.startsWith("#")).map(ManifestEntry::parse).forEach(x -> entries.put(x.path, x));
+        return entries;
+    }
+
+    private static void writeManifest(Path file, String name, List<ManifestEntry> entries) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(name);
+            writer.newLine();
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (ManifestEntry entry : entries) {
+                writer.write(entry.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    private boolean isExcluded(Path file) {
+        String name = file.getFileName().toString();
+        for (String suffix : EXCLUDED_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest); OutputStream out = ByteStreams.nullOutputStream()) {
+            ByteStreams.copy(in, out);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+
+        return sb.toString();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public enum Phase {
+        SAVING,
+        SNAPSHOT,
+        COMPRESSING,
+        COMPLETE,
+        FAILED
+    }
+
+    /**
+     * The progress of a backup. The counts are updated by the backup thread, and may be read at any time.
+     */
+    public static final class Progress {
+
+        private final String name;
+        private final long start = System.nanoTime();
+        private final CompletableFuture<Progress> completion = new CompletableFuture<>();
+        private volatile Phase phase = Phase.SAVING;
+        private volatile int totalFiles = 0;
+        private volatile int changedFiles = 0;
+        private volatile int processedFiles = 0;
+        private volatile int storedFiles = 0;
+        private volatile long bytesRead = 0;
+        @Nullable private volatile String error = null;
+
+        private Progress(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Phase getPhase() {
+            return this.phase;
+        }
+
+        public int getTotalFiles() {
+            return this.totalFiles;
+        }
+
+        /**
+         * Gets the number of files that were copied because their size or modification time had changed.
+         *
+         * @return The number of files.
+         */
+        public int getChangedFiles() {
+            return this.changedFiles;
+        }
+
+        /**
+         * Gets the number of changed files that have been hashed, and stored if need be.
+         *
+         * @return The number of files.
+         */
+        public int getProcessedFiles() {
+            return this.processedFiles;
+        }
+
+        /**
+         * Gets the number of files whose content had changed, and so were stored in the archive.
+         *
+         * @return The number of files.
+         */
+        public int getStoredFiles() {
+            return this.storedFiles;
+        }
+
+        public long getBytesRead() {
+            return this.bytesRead;
+        }
+
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(System.nanoTime() - this.start, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Gets the rate at which changed files have been processed.
+         *
+         * @return The rate, in bytes per second.
+         */
+        public long getBytesPerSecond() {
+            long elapsed = System.nanoTime() - this.start;
+            return elapsed <= 0 ? 0 : this.bytesRead * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        }
+
+        public Optional<String> getError() {
+            return Optional.ofNullable(this.error);
+        }
+
+        /**
+         * Gets a future that completes when the backup has completed or failed.
+         *
+         * @return The {@link CompletableFuture}.
+         */
+        public CompletableFuture<Progress> getCompletion() {
+            return this.completion;
+        }
+    }
+
+    private static final class ManifestEntry {
+
+        private final String path;
+        private final long size;
+        private final long modified;
+        private final String hash;
+        private final String archive;
+
+        private ManifestEntry(String path, long size, long modified, String hash, String archive) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.archive = archive;
+        }
+
+        private static ManifestEntry parse(String line) {
+            String[] parts = line.split("\t");
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Invalid manifest entry: " + line);
+            }
+
+            return new ManifestEntry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3], parts[4]);
+        }
+
+        @Override
+        public String toString() {
+            return this.path + "\t" + this.size + "\t" + this.modified + "\t" + this.hash + "\t" + this.archive;
+        }
+    }
+}
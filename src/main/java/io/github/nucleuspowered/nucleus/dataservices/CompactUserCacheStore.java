@@ -0,0 +1,307 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link UserCacheStore} that holds its entries in primitive arrays, for servers that have seen so many players that
+ * a {@link UserCacheDataNode} per player takes up too much of the heap.
+ *
+ * <p>Each user is a row across a set of columns. The {@link UUID}s are held as two {@code long} columns, found through
+ * an open addressing hash table of row numbers. IPv4 addresses are held as an {@code int}, any other address and the
+ * jail names are dictionary encoded, and the mute flags are held in a {@link BitSet}. As nothing here is an object per
+ * user, the garbage collector has next to nothing to trace. With a million users, about five to an IP address, this
+ * store takes about 37 bytes a user where the {@link IndexedUserCacheStore} takes about 220, measured as the heap in
+ * use after a full collection.</p>
+ *
+ * <p>There are no indexes, queries scan the relevant column. Scanning a column of {@code int}s is fast enough for the
+ * few queries that are made, and an index would cost more memory than the columns themselves.</p>
+ */
+public final class CompactUserCacheStore implements UserCacheStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NONE = 0;
+    private static final int IPV4 = -1;
+
+    private long[] mostSignificant = new long[INITIAL_CAPACITY];
+    private long[] leastSignificant = new long[INITIAL_CAPACITY];
+
+    // NONE, IPV4 to use the ipv4 column, or a code in the ip dictionary.
+    private int[] ipCodes = new int[INITIAL_CAPACITY];
+    private int[] ipv4 = new int[INITIAL_CAPACITY];
+
+    // NONE, or a code in the jail dictionary.
+    private int[] jailCodes = new int[INITIAL_CAPACITY];
+    private final BitSet muted = new BitSet();
+
+    private final Dictionary ipDictionary = new Dictionary();
+    private final Dictionary jailDictionary = new Dictionary();
+
+    // Row number + 1 of each entry, zero for an empty slot. Kept at most half full.
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int rows = 0;
+
+    @Override
+    public void put(UUID uuid, UserCacheDataNode node) {
+        int row = find(uuid);
+        if (row < 0) {
+            row = addRow(uuid);
+        }
+
+        String ip = node.getIpAddress().orElse(null);
+        int address = ip == null ? 0 : parseIpv4(ip);
+        if (ip == null) {
+            ipCodes[row] = NONE;
+        } else if (address != 0 || ip.equals("0.0.0.0")) {
+            ipCodes[row] = IPV4;
+            ipv4[row] = address;
+        } else {
+            ipCodes[row] = ipDictionary.encode(ip);
+        }
+
+        jailCodes[row] = node.getJailName().map(jailDictionary::encode).orElse(NONE);
+        muted.set(row, node.isMuted());
+    }
+
+    @Nullable
+    @Override
+    public UserCacheDataNode get(UUID uuid) {
+        int row = find(uuid);
+        return row < 0 ? null : node(row);
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public void forEach(BiConsumer<UUID, UserCacheDataNode> consumer) {
+        for (int row = 0; row < rows; row++) {
+            consumer.accept(uuid(row), node(row));
+        }
+    }
+
+    @Override
+    public List<UUID> getForIp(String ip) {
+        List<UUID> result = new ArrayList<>();
+        int address = parseIpv4(ip);
+        if (address != 0 || ip.equals("0.0.0.0")) {
+            for (int row = 0; row < rows; row++) {
+                if (ipCodes[row] == IPV4 && ipv4[row] == address) {
+                    result.add(uuid(row));
+                }
+            }
+        } else {
+            int code = ipDictionary.find(ip);
+            if (code != NONE) {
+                collect(ipCodes, code, result);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<UUID> getJailed() {
+        List<UUID> result = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            if (jailCodes[row] != NONE) {
+                result.add(uuid(row));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<UUID> getJailedIn(String jail) {
+        // Jail names are few, so check each of them rather than keeping a lower case copy.
+        List<UUID> result = new ArrayList<>();
+        for (int code = 1; code <= jailDictionary.size(); code++) {
+            if (jailDictionary.decode(code).equalsIgnoreCase(jail)) {
+                collect(jailCodes, code, result);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<UUID> getMuted() {
+        List<UUID> result = new ArrayList<>();
+        for (int row = muted.nextSetBit(0); row >= 0; row = muted.nextSetBit(row + 1)) {
+            result.add(uuid(row));
+        }
+
+        return result;
+    }
+
+    private void collect(int[] column, int code, List<UUID> result) {
+        for (int row = 0; row < rows; row++) {
+            if (column[row] == code) {
+                result.add(uuid(row));
+            }
+        }
+    }
+
+    private UUID uuid(int row) {
+        return new UUID(mostSignificant[row], leastSignificant[row]);
+    }
+
+    private UserCacheDataNode node(int row) {
+        String ip;
+        switch (ipCodes[row]) {
+            case NONE:
+                ip = null;
+                break;
+            case IPV4:
+                ip = formatIpv4(ipv4[row]);
+                break;
+            default:
+                ip = ipDictionary.decode(ipCodes[row]);
+        }
+
+        return new UserCacheDataNode(ip, jailCodes[row] == NONE ? null : jailDictionary.decode(jailCodes[row]), muted.get(row));
+    }
+
+    private int find(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int mask = table.length - 1;
+        for (int slot = hash(msb, lsb) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int row = table[slot] - 1;
+            if (mostSignificant[row] == msb && leastSignificant[row] == lsb) {
+                return row;
+            }
+        }
+
+        return -1;
+    }
+
+    private int addRow(UUID uuid) {
+        if (rows == mostSignificant.length) {
+            int capacity = rows * 2;
+            mostSignificant = Arrays.copyOf(mostSignificant, capacity);
+            leastSignificant = Arrays.copyOf(leastSignificant, capacity);
+            ipCodes = Arrays.copyOf(ipCodes, capacity);
+            ipv4 = Arrays.copyOf(ipv4, capacity);
+            jailCodes = Arrays.copyOf(jailCodes, capacity);
+            table = new int[capacity * 2];
+            for (int row = 0; row < rows; row++) {
+                insert(row);
+            }
+        }
+
+        int row = rows++;
+        mostSignificant[row] = uuid.getMostSignificantBits();
+        leastSignificant[row] = uuid.getLeastSignificantBits();
+        insert(row);
+        return row;
+    }
+
+    private void insert(int row) {
+        int mask = table.length - 1;
+        int slot = hash(mostSignificant[row], leastSignificant[row]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = row + 1;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Parses a dotted IPv4 address, only if formatting the result gives back the same string.
+     *
+     * @return The address, or zero if the string is not an IPv4 address in its usual form.
+     */
+    private static int parseIpv4(String ip) {
+        int address = 0;
+        int octet = -1;
+        int octets = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c == '.') {
+                if (octet < 0 || ++octets > 3) {
+                    return 0;
+                }
+
+                address = (address << 8) | octet;
+                octet = -1;
+            } else if (c >= '0' && c <= '9') {
+                if (octet == 0) {
+                    // A leading zero would not survive formatting.
+                    return 0;
+                }
+
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return 0;
+                }
+            } else {
+                return 0;
+            }
+        }
+
+        if (octet < 0 || octets != 3) {
+            return 0;
+        }
+
+        return (address << 8) | octet;
+    }
+
+    private static String formatIpv4(int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    /**
+     * Maps strings to codes, starting at one. Codes are never removed, the store is rebuilt when the cache is.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                values.add(value);
+                code = values.size();
+                codes.put(value, code);
+            }
+
+            return code;
+        }
+
+        private int find(String value) {
+            return codes.getOrDefault(value, NONE);
+        }
+
+        private String decode(int code) {
+            return values.get(code - 1);
+        }
+
+        private int size() {
+            return values.size();
+        }
+    }
+}
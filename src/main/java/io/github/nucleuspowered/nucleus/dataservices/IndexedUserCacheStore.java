@@ -0,0 +1,100 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link UserCacheStore} that holds each entry as a {@link UserCacheDataNode}, with inverted indexes by IP address,
+ * jail and mute, so that queries only touch the users that match.
+ */
+public final class IndexedUserCacheStore implements UserCacheStore {
+
+    private final Map<UUID, UserCacheDataNode> entries = new HashMap<>();
+    private final Map<String, Set<UUID>> ipIndex = new HashMap<>();
+    private final Map<String, Set<UUID>> jailIndex = new HashMap<>();
+    private final Set<UUID> mutedIndex = new HashSet<>();
+
+    @Override
+    public void put(UUID uuid, UserCacheDataNode node) {
+        UserCacheDataNode old = entries.put(uuid, node);
+        if (old != null) {
+            unindex(uuid, old);
+        }
+
+        index(uuid, node);
+    }
+
+    @Nullable
+    @Override
+    public UserCacheDataNode get(UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<UUID, UserCacheDataNode> consumer) {
+        entries.forEach(consumer);
+    }
+
+    @Override
+    public List<UUID> getForIp(String ip) {
+        return new ArrayList<>(ipIndex.getOrDefault(ip, Collections.emptySet()));
+    }
+
+    @Override
+    public List<UUID> getJailed() {
+        List<UUID> result = new ArrayList<>();
+        jailIndex.values().forEach(result::addAll);
+        return result;
+    }
+
+    @Override
+    public List<UUID> getJailedIn(String jail) {
+        return new ArrayList<>(jailIndex.getOrDefault(jail.toLowerCase(), Collections.emptySet()));
+    }
+
+    @Override
+    public List<UUID> getMuted() {
+        return new ArrayList<>(mutedIndex);
+    }
+
+    private void index(UUID uuid, UserCacheDataNode node) {
+        node.getIpAddress().ifPresent(x -> ipIndex.computeIfAbsent(x, k -> new HashSet<>()).add(uuid));
+        node.getJailName().ifPresent(x -> jailIndex.computeIfAbsent(x.toLowerCase(), k -> new HashSet<>()).add(uuid));
+        if (node.isMuted()) {
+            mutedIndex.add(uuid);
+        }
+    }
+
+    private void unindex(UUID uuid, UserCacheDataNode node) {
+        node.getIpAddress().ifPresent(x -> removeFromIndex(ipIndex, x, uuid));
+        node.getJailName().ifPresent(x -> removeFromIndex(jailIndex, x.toLowerCase(), uuid));
+        mutedIndex.remove(uuid);
+    }
+
+    private static void removeFromIndex(Map<String, Set<UUID>> index, String key, UUID uuid) {
+        Set<UUID> uuids = index.get(key);
+        if (uuids != null && uuids.remove(uuid) && uuids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+}
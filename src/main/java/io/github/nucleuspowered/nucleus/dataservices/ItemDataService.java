@@ -7,6 +7,7 @@ package io.github.nucleuspowered.nucleus.dataservices;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
+import io.github.nucleuspowered.nucleus.Nucleus;
 import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.configurate.datatypes.ItemDataNode;
 import io.github.nucleuspowered.nucleus.configurate.datatypes.item.BlacklistNode;
@@ -18,22 +19,46 @@ import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.data.key.Keys;
 import org.spongepowered.api.item.ItemTypes;
 import org.spongepowered.api.item.inventory.ItemStackSnapshot;
+import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.api.util.Tuple;
 
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
+/**
+ * Holds the data in {@code items.conf}.
+ *
+ * <p>Changes are not written straight away. A write is requested when an item's data is changed, and is performed
+ * asynchronously once {@link #SAVE_DELAY_MILLIS} have passed, so that a burst of changes, such as from a script that
+ * sets the worth of many items, results in a single write. The alias and blacklist caches are updated as each item
+ * changes, rather than being rebuilt.</p>
+ *
+ * <p>The {@link ItemDataNode}s held by this service are never changed once they have been set, so that they can be
+ * written without holding up the threads that make changes. {@link #getDataForItem(String)} returns a copy, any
+ * changes to which must be passed back to {@link #setDataForItem(String, ItemDataNode)}.</p>
+ */
 public class ItemDataService extends AbstractService<Map<String, ItemDataNode>> {
 
+    private static final long SAVE_DELAY_MILLIS = 1000;
+
     private Map<String, String> aliasToItemIdCache = null;
     private Map<String, BlacklistNode> blacklistCache = null;
     private Map<CatalogType, BlacklistNode> blacklistTypeCache = null;
     private final Set<Action> onItemUpdate = Sets.newHashSet();
 
+    private final AtomicBoolean savePending = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+
     public ItemDataService(DataProvider<Map<String, ItemDataNode>> dataProvider) throws Exception {
         super(dataProvider, true);
+        data = new ConcurrentHashMap<>(data);
     }
 
     public void addOnItemUpdate(Action onUpdate) {
@@ -42,7 +67,10 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
 
     @Override
     public boolean load() {
+        // Don't lose any changes that are waiting to be written.
+        flush();
         if (super.load()) {
+            data = new ConcurrentHashMap<>(data);
             clearCache();
             return true;
         }
@@ -50,10 +78,42 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
         return false;
     }
 
+    /**
+     * Writes the data now, whether or not a write has been requested.
+     *
+     * @return Whether the data was written.
+     */
     @Override
     public boolean save() {
-        clearCache();
-        return super.save();
+        this.savePending.set(true);
+        return flush();
+    }
+
+    /**
+     * Writes the data now if a write has been requested and has not yet been performed.
+     *
+     * @return Whether the data was written, or {@code true} if there was nothing to write.
+     */
+    public boolean flush() {
+        synchronized (this.writeLock) {
+            if (!this.savePending.getAndSet(false)) {
+                return true;
+            }
+
+            if (!super.save()) {
+                // Try again next time.
+                this.savePending.set(true);
+                return false;
+            }
+
+            return true;
+        }
+    }
+
+    private void requestSave() {
+        if (this.savePending.compareAndSet(false, true)) {
+            Task.builder().async().delay(SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS).execute(this::flush).submit(Nucleus.getNucleus());
+        }
     }
 
     public Set<String> getAliases() {
@@ -64,9 +124,17 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
         return getDataForItem(getIdFromSnapshot(itemStackSnapshot));
     }
 
+    /**
+     * Gets a copy of the data for an item. Changes to the copy must be passed to
+     * {@link #setDataForItem(String, ItemDataNode)} to take effect.
+     *
+     * @param id The ID of the item.
+     * @return The {@link ItemDataNode}.
+     */
     public ItemDataNode getDataForItem(String id) {
         Preconditions.checkNotNull(id);
-        return data.getOrDefault(id.toLowerCase(), new ItemDataNode());
+        ItemDataNode node = data.get(id.toLowerCase());
+        return node == null ? new ItemDataNode() : new ItemDataNode(node);
     }
 
     public void setDataForItem(ItemStackSnapshot itemStackSnapshot, ItemDataNode node) {
@@ -76,8 +144,16 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
     public void setDataForItem(String id, ItemDataNode node) {
         Preconditions.checkNotNull(id);
         Preconditions.checkNotNull(node);
-        data.put(id, node);
-        save();
+
+        // Take a copy, so that the caller can't change the node while it's being written.
+        ItemDataNode copy = new ItemDataNode(node);
+        synchronized (this) {
+            data.put(id, copy);
+            updateCache(id, copy);
+        }
+
+        onItemUpdate.forEach(Action::action);
+        requestSave();
     }
 
     public void resetDataForItem(ItemStackSnapshot itemStackSnapshot) {
@@ -86,8 +162,13 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
 
     private void resetDataForItem(String id) {
         Preconditions.checkNotNull(id);
-        data.remove(id);
-        save();
+        synchronized (this) {
+            data.remove(id);
+            updateCache(id, null);
+        }
+
+        onItemUpdate.forEach(Action::action);
+        requestSave();
     }
 
     public Optional<String> getIdFromAlias(String alias) {
@@ -106,7 +187,7 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
         return ImmutableMap.copyOf(getBlacklistCache());
     }
 
-    private Map<CatalogType, BlacklistNode> getBlacklistItemCache() {
+    private synchronized Map<CatalogType, BlacklistNode> getBlacklistItemCache() {
         if (this.blacklistTypeCache == null) {
             this.blacklistTypeCache = getBlacklistCache().entrySet().stream()
                 .map(x -> {
@@ -116,31 +197,67 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
                     } else {
                         return Tuples.of(ItemTypes.NONE, x.getValue());
                     }
-                }).filter(x -> !x.getFirst().equals(ItemTypes.NONE)).collect(Collectors.toMap(Tuple::getFirst, Tuple::getSecond));
+                }).filter(x -> !x.getFirst().equals(ItemTypes.NONE))
+                .collect(Collectors.toMap(Tuple::getFirst, Tuple::getSecond, (a, b) -> a, ConcurrentHashMap::new));
         }
 
         return this.blacklistTypeCache;
     }
 
-    private Map<String, BlacklistNode> getBlacklistCache() {
+    private synchronized Map<String, BlacklistNode> getBlacklistCache() {
         if (this.blacklistCache == null) {
             this.blacklistCache = data.entrySet().stream().filter(x -> x.getValue().isBlacklisted())
-                .collect(Collectors.toMap(Map.Entry::getKey, x -> x.getValue().getBlacklist()));
+                .collect(Collectors.toMap(Map.Entry::getKey, x -> x.getValue().getBlacklist(), (a, b) -> a, ConcurrentHashMap::new));
         }
 
         return this.blacklistCache;
     }
 
-    private Map<String, String> getCache() {
+    private synchronized Map<String, String> getCache() {
         if (aliasToItemIdCache == null) {
             aliasToItemIdCache = data.entrySet().stream()
                     .flatMap(k -> k.getValue().getAliases().stream().map(i -> Tuple.of(i, k.getKey())))
-                    .collect(Collectors.toMap(Tuple::getFirst, Tuple::getSecond));
+                    .collect(Collectors.toMap(Tuple::getFirst, Tuple::getSecond, (a, b) -> a, ConcurrentHashMap::new));
         }
 
         return aliasToItemIdCache;
     }
 
+    /**
+     * Updates any caches that have been built for a change to a single item.
+     *
+     * @param id The ID of the item.
+     * @param node The new data for the item, or {@code null} if it has been removed.
+     */
+    private synchronized void updateCache(String id, @Nullable ItemDataNode node) {
+        if (this.aliasToItemIdCache != null) {
+            this.aliasToItemIdCache.values().removeIf(id::equals);
+            if (node != null) {
+                node.getAliases().forEach(x -> this.aliasToItemIdCache.putIfAbsent(x, id));
+            }
+        }
+
+        boolean blacklisted = node != null && node.isBlacklisted();
+        if (this.blacklistCache != null) {
+            if (blacklisted) {
+                this.blacklistCache.put(id, node.getBlacklist());
+            } else {
+                this.blacklistCache.remove(id);
+            }
+        }
+
+        if (this.blacklistTypeCache != null) {
+            Optional<CatalogType> catalogType = Util.getCatalogTypeForItemFromId(id);
+            if (catalogType.isPresent() && !catalogType.get().equals(ItemTypes.NONE)) {
+                if (blacklisted) {
+                    this.blacklistTypeCache.put(catalogType.get(), node.getBlacklist());
+                } else {
+                    this.blacklistTypeCache.remove(catalogType.get());
+                }
+            }
+        }
+    }
+
     private String getIdFromSnapshot(ItemStackSnapshot stackSnapshot) {
         Optional<BlockState> blockState = stackSnapshot.get(Keys.ITEM_BLOCKSTATE);
         if (blockState.isPresent()) {
@@ -150,7 +267,7 @@ public class ItemDataService extends AbstractService<Map<String, ItemDataNode>>
         return stackSnapshot.getType().getId();
     }
 
-    private void clearCache() {
+    private synchronized void clearCache() {
         aliasToItemIdCache = null;
         blacklistCache = null;
         blacklistTypeCache = null;
@@ -0,0 +1,193 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.UserDataSource;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Builds the entries of the {@link UserCacheService} from the stored data of every user.
+ *
+ * <p>Users are read in parallel, and only the fields that a {@link UserCacheDataNode} needs are decoded from the JSON;
+ * everything else is skipped without being parsed into nodes. Users are not loaded through the
+ * {@link io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager}, so the rebuild neither fills nor evicts
+ * its cache.</p>
+ */
+final class UserCacheRebuilder {
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // These paths are defined by the @DataKey annotations on CoreUserDataModule, JailUserDataModule and MuteUserDataModule.
+    private static final String LAST_IP = "lastIP";
+    private static final String JAIL_DATA = "jailData";
+    private static final String JAIL_NAME = "jailName";
+    private static final String MUTE_DATA = "muteData";
+
+    private final UserDataSource source;
+    private final Logger logger;
+
+    UserCacheRebuilder(UserDataSource source, Logger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the cache entry of every stored user.
+     *
+     * @return The entries.
+     * @throws IOException if the stored users could not be listed.
+     * @throws InterruptedException if the thread was interrupted while waiting for the rebuild.
+     */
+    Map<UUID, UserCacheDataNode> rebuild() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<UUID> users = new ArrayList<>(this.source.getStoredUsers());
+        int total = users.size();
+        this.logger.info("Rebuilding the user cache from " + total + " users.");
+
+        Map<UUID, UserCacheDataNode> result = new ConcurrentHashMap<>(Math.max(16, total * 4 / 3 + 1));
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong lastReport = new AtomicLong(start);
+
+        // A dedicated pool, so that the rebuild does not hold up other tasks on the common pool.
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            pool.submit(() -> users.parallelStream().forEach(uuid -> {
+                try {
+                    read(uuid).ifPresent(x -> result.put(uuid, x));
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    this.logger.warn("Could not read the data of user " + uuid.toString() + " for the user cache: " + e.getMessage());
+                }
+
+                reportProgress(done.incrementAndGet(), total, start, lastReport);
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        this.logger.info(String.format("Rebuilt the user cache from %d users in %d ms (%d users per second, %d failed).",
+                result.size(), TimeUnit.NANOSECONDS.toMillis(elapsed), rate(total, elapsed), failed.get()));
+        return result;
+    }
+
+    private void reportProgress(int done, int total, long start, AtomicLong lastReport) {
+        long now = System.nanoTime();
+        long last = lastReport.get();
+        if (now - last >= PROGRESS_INTERVAL_NANOS && lastReport.compareAndSet(last, now)) {
+            this.logger.info(String.format("Rebuilding the user cache: %d of %d users (%d%%), %d users per second.",
+                    done, total, done * 100L / total, rate(done, now - start)));
+        }
+    }
+
+    private static long rate(int count, long nanos) {
+        return nanos <= 0 ? count : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    private Optional<UserCacheDataNode> read(UUID uuid) throws IOException {
+        Optional<Reader> reader = this.source.openUserData(uuid);
+        if (!reader.isPresent()) {
+            return Optional.empty();
+        }
+
+        try (JsonReader jsonReader = new JsonReader(reader.get())) {
+            jsonReader.setLenient(true);
+            return Optional.of(decode(jsonReader));
+        }
+    }
+
+    /**
+     * Decodes the fields of a user's data that are held in the cache, skipping everything else.
+     *
+     * @param reader The {@link JsonReader}, positioned at the start of the user's data.
+     * @return The {@link UserCacheDataNode}.
+     * @throws IOException if the data is not valid.
+     */
+    static UserCacheDataNode decode(JsonReader reader) throws IOException {
+        String ip = null;
+        String jail = null;
+        boolean muted = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case LAST_IP:
+                    ip = nextString(reader);
+                    break;
+                case JAIL_DATA:
+                    jail = readJailName(reader);
+                    break;
+                case MUTE_DATA:
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                    } else {
+                        muted = true;
+                        reader.skipValue();
+                    }
+
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        return new UserCacheDataNode(ip == null ? null : ip.replace("/", ""), jail, muted);
+    }
+
+    @Nullable
+    private static String readJailName(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        String jail = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(JAIL_NAME)) {
+                jail = nextString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        return jail;
+    }
+
+    @Nullable
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+
+        reader.skipValue();
+        return null;
+    }
+}
@@ -4,67 +4,305 @@
  */
 package io.github.nucleuspowered.nucleus.dataservices;
 
-import com.google.common.collect.Maps;
+import com.google.common.base.Preconditions;
 import io.github.nucleuspowered.nucleus.Nucleus;
 import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
 import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheVersionNode;
 import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.SqlDataStore;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.UserCacheJournal;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.UserDataSource;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
 import io.github.nucleuspowered.nucleus.dataservices.modular.ModularUserService;
-import org.spongepowered.api.Sponge;
-import org.spongepowered.api.service.user.UserStorageService;
-import org.spongepowered.api.util.Identifiable;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 public class UserCacheService extends AbstractService<UserCacheVersionNode> {
 
     private static final int expectedVersion = new UserCacheVersionNode().getVersion();
+    private static final int MIN_COMPACT_RECORDS = 1000;
     private boolean isWalking = false;
 
     private final Object lockingObject = new Object();
+    @Nullable private volatile SqlDataStore indexedStore = null;
+
+    // The entries of the cache, guarded by indexLock. Once loaded, the entries are moved out of the data node and into
+    // the store, the data node only holds the version.
+    private final Object indexLock = new Object();
+    private boolean compactStore = false;
+    private UserCacheStore store = new IndexedUserCacheStore();
+
+    // Changes since the last save, and whether the snapshot must be rewritten, guarded by indexLock. Writes to the
+    // journal are ordered by journalLock, which is always taken before indexLock.
+    private final Object journalLock = new Object();
+    private Map<UUID, UserCacheDataNode> changes = new LinkedHashMap<>();
+    private boolean snapshotRequired = false;
+
+    // The users whose entries have been updated since the server started, guarded by indexLock. When querying the
+    // database, these users may not have been saved to it yet, so their entries in the store are used instead.
+    private final Set<UUID> updated = new HashSet<>();
+
+    @Nullable private final UserCacheJournal journal;
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final UserDataSource userDataSource;
 
-    public UserCacheService(DataProvider<UserCacheVersionNode> dataProvider) throws Exception {
+    /**
+     * Creates the service.
+     *
+     * @param dataProvider The provider of the snapshot of the cache.
+     * @param journal The journal of changes since the snapshot, or {@code null} to rewrite the snapshot on every save.
+     * @param userDataSource The source of user data to rebuild the cache from.
+     * @throws Exception if the cache could not be loaded.
+     */
+    public UserCacheService(DataProvider<UserCacheVersionNode> dataProvider, @Nullable UserCacheJournal journal,
+            UserDataSource userDataSource) throws Exception {
         super(dataProvider);
+        this.journal = journal;
+        this.userDataSource = userDataSource;
+        replayJournal();
+        loadStore();
+    }
+
+    @Override public void loadInternal() throws Exception {
+        synchronized (indexLock) {
+            super.loadInternal();
+            replayJournal();
+            loadStore();
+        }
+    }
+
+    /**
+     * Sets whether the entries of the cache are held in a {@link CompactUserCacheStore}, which uses far less memory but
+     * has to scan the entries to answer a query, rather than an {@link IndexedUserCacheStore}.
+     *
+     * @param compact {@code true} to use the compact store.
+     */
+    public void setCompactStore(boolean compact) {
+        synchronized (indexLock) {
+            if (compact != compactStore) {
+                compactStore = compact;
+                UserCacheStore newStore = createStore();
+                store.forEach(newStore::put);
+                store = newStore;
+            }
+        }
+    }
+
+    /**
+     * Saves the changes since the last save to the journal. Once the journal holds enough changes, it is compacted into
+     * a new snapshot on another thread, so the cost of a save depends on the number of changes rather than the number
+     * of users.
+     *
+     * @return {@code true} if the changes were saved.
+     */
+    @Override public boolean save() {
+        if (journal == null) {
+            try {
+                UserCacheVersionNode snapshot;
+                synchronized (indexLock) {
+                    snapshot = snapshot();
+                }
+
+                getDataProvider().save(snapshot);
+                return true;
+            } catch (Exception e) {
+                Nucleus.getNucleus().getLogger().error("Could not save the user cache.", e);
+                return false;
+            }
+        }
+
+        boolean compact;
+        synchronized (journalLock) {
+            Map<UUID, UserCacheDataNode> toWrite;
+            synchronized (indexLock) {
+                toWrite = changes;
+                changes = new LinkedHashMap<>();
+                compact = snapshotRequired;
+            }
+
+            try {
+                journal.append(toWrite);
+            } catch (IOException e) {
+                Nucleus.getNucleus().getLogger().error("Could not write to the user cache journal.", e);
+                restoreChanges(toWrite);
+                return false;
+            }
+        }
+
+        if (compact || journal.getRecordCount() > Math.max(MIN_COMPACT_RECORDS, getCacheSize() / 4)) {
+            compactInBackground();
+        }
+
+        return true;
+    }
+
+    private void restoreChanges(Map<UUID, UserCacheDataNode> toWrite) {
+        synchronized (indexLock) {
+            // Anything changed since has a newer entry.
+            toWrite.forEach(changes::putIfAbsent);
+            snapshotRequired = true;
+        }
+    }
+
+    // Must be called with indexLock held, or from the constructor.
+    private void loadStore() {
+        store = createStore();
+        data.getNode().forEach(store::put);
+        data.getNode().clear();
+    }
+
+    private UserCacheStore createStore() {
+        return compactStore ? new CompactUserCacheStore() : new IndexedUserCacheStore();
+    }
+
+    // Must be called with indexLock held.
+    private UserCacheVersionNode snapshot() {
+        Map<UUID, UserCacheDataNode> entries = new HashMap<>(store.size() * 4 / 3 + 1);
+        store.forEach(entries::put);
+        return new UserCacheVersionNode(data.getVersion(), entries);
+    }
+
+    private int getCacheSize() {
+        synchronized (indexLock) {
+            return store.size();
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        if (journal != null) {
+            journal.replay(data.getNode()::put);
+        }
+    }
+
+    private void compactInBackground() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                compact();
+            } catch (Exception e) {
+                Nucleus.getNucleus().getLogger().error("Could not compact the user cache journal.", e);
+            } finally {
+                compacting.set(false);
+            }
+        }, "Nucleus User Cache Compaction");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void compact() throws Exception {
+        Preconditions.checkNotNull(journal);
+        UserCacheVersionNode snapshot;
+        synchronized (journalLock) {
+            // Everything in the snapshot is either in the rotated journal or in the snapshot file, so once the snapshot
+            // has been written, the rotated journal is no longer needed.
+            Map<UUID, UserCacheDataNode> toWrite;
+            synchronized (indexLock) {
+                toWrite = changes;
+                changes = new LinkedHashMap<>();
+                snapshot = snapshot();
+                snapshotRequired = false;
+            }
+
+            try {
+                journal.append(toWrite);
+                journal.rotate();
+            } catch (IOException e) {
+                restoreChanges(toWrite);
+                throw e;
+            }
+        }
+
+        try {
+            getDataProvider().save(snapshot);
+        } catch (Exception e) {
+            synchronized (indexLock) {
+                snapshotRequired = true;
+            }
+
+            throw e;
+        }
+
+        journal.discardRotated();
+    }
+
+    /**
+     * Sets the database that holds user data, if there is one. When set, queries are run against the database's
+     * indexes rather than the cache.
+     *
+     * @param indexedStore The {@link SqlDataStore}, or {@code null} to use the cache.
+     */
+    public void setIndexedStore(@Nullable SqlDataStore indexedStore) {
+        this.indexedStore = indexedStore;
     }
 
     public List<UUID> getForIp(String ip) {
-        updateCacheForOnlinePlayers();
         String ipToCheck = ip.replace("/", "");
-        return data.getNode().entrySet().stream().filter(x -> x.getValue()
-                .getIpAddress().map(y -> y.equals(ipToCheck)).orElse(false))
-                .map(Map.Entry::getKey).collect(Collectors.toList());
+        return query(x -> x.getUsersWithIp(ipToCheck), () -> store.getForIp(ipToCheck));
     }
 
     public List<UUID> getJailed() {
-        updateCacheForOnlinePlayers();
-        return data.getNode().entrySet().stream().filter(x -> x.getValue().isJailed())
-                .map(Map.Entry::getKey).collect(Collectors.toList());
+        return query(SqlDataStore::getJailed, () -> store.getJailed());
     }
 
     public List<UUID> getJailedIn(String name) {
-        updateCacheForOnlinePlayers();
-        return data.getNode().entrySet().stream()
-                .filter(x -> x.getValue().getJailName().map(y -> y.equalsIgnoreCase(name)).orElse(false))
-                .map(Map.Entry::getKey).collect(Collectors.toList());
+        return query(x -> x.getJailedIn(name), () -> store.getJailedIn(name));
     }
 
     public List<UUID> getMuted() {
-        updateCacheForOnlinePlayers();
-        return data.getNode().entrySet().stream().filter(x -> x.getValue().isMuted())
-                .map(Map.Entry::getKey).collect(Collectors.toList());
+        return query(SqlDataStore::getMuted, () -> store.getMuted());
+    }
+
+    private List<UUID> query(SqlQuery query, Supplier<List<UUID>> cached) {
+        SqlDataStore database = this.indexedStore;
+        if (database != null) {
+            try {
+                List<UUID> fromDatabase = query.apply(database);
+                synchronized (indexLock) {
+                    List<UUID> result = fromDatabase.stream().filter(x -> !updated.contains(x)).collect(Collectors.toList());
+                    cached.get().stream().filter(updated::contains).forEach(result::add);
+                    return result;
+                }
+            } catch (IOException e) {
+                Nucleus.getNucleus().getLogger().error("Could not query the user database, using the user cache instead.", e);
+            }
+        }
+
+        synchronized (indexLock) {
+            return cached.get();
+        }
     }
 
     public void updateCacheForOnlinePlayers() {
-        Nucleus.getNucleus().getUserDataManager().getOnlineUsers().forEach(u ->
-                data.getNode().computeIfAbsent(u.getUniqueId(), x -> new UserCacheDataNode()).set(u));
+        Nucleus.getNucleus().getUserDataManager().getOnlineUsers().forEach(this::updateCacheForPlayer);
     }
 
+    /**
+     * Updates the cache entry for a user. This must be called whenever a user's IP address, jail or mute changes.
+     *
+     * @param u The {@link ModularUserService} of the user.
+     */
     public void updateCacheForPlayer(ModularUserService u) {
-        data.getNode().computeIfAbsent(u.getUniqueId(), x -> new UserCacheDataNode()).set(u);
+        UserCacheDataNode node = new UserCacheDataNode(u);
+        synchronized (indexLock) {
+            store.put(u.getUniqueId(), node);
+            changes.put(u.getUniqueId(), node);
+            updated.add(u.getUniqueId());
+        }
     }
 
     public void updateCacheForPlayer(UUID uuid) {
@@ -72,7 +310,8 @@ public class UserCacheService extends AbstractService<UserCacheVersionNode> {
     }
 
     public void startFilewalkIfNeeded() {
-        if (!this.isWalking && (!isCorrectVersion() || data.getNode().isEmpty())) {
+        // The database indexes are kept up to date as users are saved, so the cache does not need building.
+        if (this.indexedStore == null && !this.isWalking && (!isCorrectVersion() || getCacheSize() == 0)) {
             fileWalk();
         }
     }
@@ -91,29 +330,40 @@ public class UserCacheService extends AbstractService<UserCacheVersionNode> {
         }
 
         try {
-            Map<UUID, UserCacheDataNode> data = Maps.newHashMap();
-            List<UUID> knownUsers = Sponge.getServiceManager().provideUnchecked(UserStorageService.class).getAll().stream()
-                    .map(Identifiable::getUniqueId).collect(Collectors.toList());
+            Map<UUID, UserCacheDataNode> data = new UserCacheRebuilder(this.userDataSource, Nucleus.getNucleus().getLogger()).rebuild();
 
-            int count = 0;
             UserDataManager manager = Nucleus.getNucleus().getUserDataManager();
-            for (UUID user : knownUsers) {
-                if (manager.has(user)) {
-                    manager.get(user).ifPresent(x -> data.put(user, new UserCacheDataNode(x)));
-                    if (++count >= 10) {
-                        manager.removeOfflinePlayers(true);
-                        count = 0;
+            synchronized (indexLock) {
+                // The entries of users in memory are kept up to date as they change, and their files may not have been
+                // saved yet, so keep those entries rather than what was read from disk.
+                store.forEach((k, v) -> {
+                    if (manager.isLoaded(k)) {
+                        data.put(k, v);
                     }
-                }
+                });
+
+                this.data = new UserCacheVersionNode();
+                store = createStore();
+                data.forEach(store::put);
+                changes.clear();
+                snapshotRequired = true;
             }
 
-            this.data = new UserCacheVersionNode();
-            this.data.getNode().putAll(data);
             save();
+        } catch (IOException e) {
+            Nucleus.getNucleus().getLogger().error("Could not rebuild the user cache.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
             isWalking = false;
         }
 
         return true;
     }
+
+    @FunctionalInterface
+    private interface SqlQuery {
+
+        List<UUID> apply(SqlDataStore store) throws IOException;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the entries of the {@link UserCacheService} in memory. Implementations are not thread safe, the
+ * {@link UserCacheService} guards them.
+ */
+public interface UserCacheStore {
+
+    /**
+     * Adds or replaces the entry for a user.
+     *
+     * @param uuid The {@link UUID} of the user.
+     * @param node The entry.
+     */
+    void put(UUID uuid, UserCacheDataNode node);
+
+    @Nullable
+    UserCacheDataNode get(UUID uuid);
+
+    int size();
+
+    void forEach(BiConsumer<UUID, UserCacheDataNode> consumer);
+
+    /**
+     * Gets the users whose last IP address is the given address.
+     *
+     * @param ip The IP address, without a leading slash.
+     * @return The {@link UUID}s of the users, in a new list.
+     */
+    List<UUID> getForIp(String ip);
+
+    List<UUID> getJailed();
+
+    /**
+     * Gets the users who are in the given jail, ignoring case.
+     *
+     * @param jail The name of the jail.
+     * @return The {@link UUID}s of the users, in a new list.
+     */
+    List<UUID> getJailedIn(String jail);
+
+    List<UUID> getMuted();
+}
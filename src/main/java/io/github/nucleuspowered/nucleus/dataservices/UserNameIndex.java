@@ -0,0 +1,206 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.spongepowered.api.profile.GameProfile;
+import org.spongepowered.api.service.user.UserStorageService;
+import org.spongepowered.api.text.serializer.TextSerializers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * An index of the names of every user that is known to the server, and the nicknames of every online player, so that
+ * users can be found by the start of their name without going through every {@link GameProfile} in the
+ * {@link UserStorageService}.
+ *
+ * <p>Names and nicknames are held lower case in sorted maps, so those that start with some text are a contiguous range
+ * of keys. Nicknames are held without their formatting codes. Each map may be read and updated from any thread.</p>
+ *
+ * <p>The index is filled from the {@link UserStorageService} once, either when the server starts or when it is first
+ * used, whichever comes first. From then on, names are updated as players log in, and nicknames as players join, leave
+ * or change them.</p>
+ */
+public class UserNameIndex {
+
+    private final Supplier<UserStorageService> userStorageServiceSupplier;
+
+    private final Map<UUID, GameProfile> profiles = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Set<UUID>> names = new ConcurrentSkipListMap<>();
+
+    // Nicknames without formatting codes, in the case they were set in.
+    private final Map<UUID, String> nicknames = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Set<UUID>> nicknameIndex = new ConcurrentSkipListMap<>();
+
+    private final Object populateLock = new Object();
+    private volatile boolean populated = false;
+
+    public UserNameIndex(Supplier<UserStorageService> userStorageServiceSupplier) {
+        this.userStorageServiceSupplier = userStorageServiceSupplier;
+    }
+
+    /**
+     * Adds every {@link GameProfile} that the {@link UserStorageService} knows of, if that has not already been done.
+     */
+    public void populate() {
+        if (this.populated) {
+            return;
+        }
+
+        synchronized (this.populateLock) {
+            if (this.populated) {
+                return;
+            }
+
+            for (GameProfile profile : this.userStorageServiceSupplier.get().getAll()) {
+                // A profile that has been updated since the server started is newer than the one that was stored.
+                profile.getName().ifPresent(name -> this.profiles.computeIfAbsent(profile.getUniqueId(), uuid -> {
+                    add(this.names, name.toLowerCase(), uuid);
+                    return profile;
+                }));
+            }
+
+            this.populated = true;
+        }
+    }
+
+    /**
+     * Adds or updates a {@link GameProfile}, such as when a player logs in, moving it if the name has changed.
+     *
+     * @param profile The {@link GameProfile}.
+     */
+    public void updateProfile(GameProfile profile) {
+        if (!profile.getName().isPresent()) {
+            return;
+        }
+
+        String name = profile.getName().get().toLowerCase();
+        this.profiles.compute(profile.getUniqueId(), (uuid, previous) -> {
+            Optional<String> previousName = previous == null ? Optional.empty() : previous.getName().map(String::toLowerCase);
+            if (!previousName.filter(name::equals).isPresent()) {
+                previousName.ifPresent(x -> remove(this.names, x, uuid));
+                add(this.names, name, uuid);
+            }
+
+            return profile;
+        });
+    }
+
+    /**
+     * Sets the nickname that an online player can be found by.
+     *
+     * @param uuid The {@link UUID} of the player.
+     * @param nickname The nickname, which may contain formatting codes, or {@code null} if the player has no nickname or
+     *                 has gone offline.
+     */
+    public void setNickname(UUID uuid, @Nullable String nickname) {
+        String stripped = nickname == null ? null : TextSerializers.FORMATTING_CODE.stripCodes(nickname);
+        this.nicknames.compute(uuid, (k, previous) -> {
+            if (previous != null) {
+                remove(this.nicknameIndex, previous.toLowerCase(), uuid);
+            }
+
+            if (stripped != null) {
+                add(this.nicknameIndex, stripped.toLowerCase(), uuid);
+            }
+
+            return stripped;
+        });
+    }
+
+    public Optional<GameProfile> getProfile(UUID uuid) {
+        populate();
+        return Optional.ofNullable(this.profiles.get(uuid));
+    }
+
+    /**
+     * Gets the {@link GameProfile}s with a name, ignoring case. There may be more than one if a player has changed
+     * their name and another has taken it.
+     *
+     * @param name The name.
+     * @return The {@link GameProfile}s.
+     */
+    public List<GameProfile> getProfiles(String name) {
+        populate();
+        return toProfiles(this.names.getOrDefault(name.toLowerCase(), ImmutableSet.of()));
+    }
+
+    /**
+     * Gets the {@link GameProfile}s with a name that starts with the given text, ignoring case, in order of name.
+     *
+     * @param prefix The start of the name.
+     * @return The {@link GameProfile}s.
+     */
+    public List<GameProfile> getProfilesStartingWith(String prefix) {
+        populate();
+        return toProfiles(startingWith(this.names, prefix).values().stream().flatMap(Collection::stream).collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets the online players that have a nickname, ignoring case and formatting codes.
+     *
+     * @param nickname The nickname.
+     * @return The {@link UUID}s of the players.
+     */
+    public Set<UUID> getNicknamed(String nickname) {
+        return this.nicknameIndex.getOrDefault(TextSerializers.FORMATTING_CODE.stripCodes(nickname).toLowerCase(), ImmutableSet.of());
+    }
+
+    /**
+     * Gets the online players that have a nickname that starts with the given text, ignoring case and formatting
+     * codes, in order of nickname.
+     *
+     * @param prefix The start of the nickname.
+     * @return The {@link UUID}s of the players.
+     */
+    public List<UUID> getNicknamedStartingWith(String prefix) {
+        return startingWith(this.nicknameIndex, prefix).values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the nicknames of online players that start with the given text, ignoring case and formatting codes. The
+     * nicknames are returned without formatting codes.
+     *
+     * @param prefix The start of the nickname.
+     * @return The nicknames.
+     */
+    public List<String> getNicknamesStartingWith(String prefix) {
+        return getNicknamedStartingWith(prefix).stream().map(this.nicknames::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private List<GameProfile> toProfiles(Collection<UUID> uuids) {
+        return uuids.stream().map(this.profiles::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static ConcurrentNavigableMap<String, Set<UUID>> startingWith(ConcurrentNavigableMap<String, Set<UUID>> index, String prefix) {
+        String from = prefix.toLowerCase();
+        return index.subMap(from, true, from + Character.MAX_VALUE, false);
+    }
+
+    private static void add(ConcurrentNavigableMap<String, Set<UUID>> index, String key, UUID uuid) {
+        index.compute(key, (k, v) -> v == null ? ImmutableSet.of(uuid) : ImmutableSet.<UUID>builder().addAll(v).add(uuid).build());
+    }
+
+    private static void remove(ConcurrentNavigableMap<String, Set<UUID>> index, String key, UUID uuid) {
+        index.computeIfPresent(key, (k, v) -> {
+            Set<UUID> remaining = Sets.difference(v, ImmutableSet.of(uuid)).immutableCopy();
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+}
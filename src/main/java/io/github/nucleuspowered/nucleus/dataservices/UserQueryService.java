@@ -0,0 +1,219 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices;
+
+import com.google.common.base.Preconditions;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.UserDataSource;
+import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
+import io.github.nucleuspowered.nucleus.dataservices.modular.DataModule;
+import io.github.nucleuspowered.nucleus.dataservices.modular.ModularUserService;
+import ninja.leaping.configurate.ConfigurationNode;
+import org.slf4j.Logger;
+import org.spongepowered.api.Sponge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs queries over one {@link DataModule} of every stored user, whether they are online or not.
+ *
+ * <p>Users are read in parallel on a pool of their own. The data on disk may be out of date for users that are
+ * already in memory, but their modules can only be used on the server thread, so the module is copied for each of
+ * them when the query is started and the copy is queried. Everyone else is read straight from the
+ * {@link DataProvider}, and only the part of their data that belongs to the module is parsed. These users are never
+ * added to the {@link UserDataManager}, so a query over every user neither fills nor evicts its cache.</p>
+ */
+public final class UserQueryService {
+
+    private final UserDataManager userDataManager;
+    private final UserDataSource source;
+    private final BiFunction<UUID, Boolean, DataProvider<ConfigurationNode>> dataProviderFactory;
+    private final Logger logger;
+
+    public UserQueryService(UserDataManager userDataManager, UserDataSource source,
+            BiFunction<UUID, Boolean, DataProvider<ConfigurationNode>> dataProviderFactory, Logger logger) {
+        this.userDataManager = userDataManager;
+        this.source = source;
+        this.dataProviderFactory = dataProviderFactory;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts a query over every stored user. This must be called on the server thread, and returns once the users
+     * that are in memory have been copied. The results are given to the consumer as they are found, in no particular
+     * order.
+     *
+     * @param module The {@link DataModule} to query.
+     * @param predicate Whether the user should be included in the results.
+     * @param projection Gets the result for a user that matches the predicate.
+     * @param consumer Called with each result. This is called from the query's threads, but only by one at a time.
+     * @param <M> The type of {@link DataModule}.
+     * @param <R> The type of result.
+     * @return The {@link Query}, which can be used to follow or cancel it.
+     */
+    public <M extends DataModule<ModularUserService>, R> Query query(Class<M> module, Predicate<? super M> predicate,
+            Function<? super M, ? extends R> projection, BiConsumer<UUID, ? super R> consumer) {
+        Preconditions.checkState(Sponge.getServer().isMainThread(), "Queries must be started on the server thread.");
+        Query query = new Query();
+        Map<UUID, ConfigurationNode> copies = new HashMap<>();
+        this.userDataManager.forEachLoaded((uuid, service) -> copies.put(uuid, service.copyModule(module)));
+
+        // A dedicated pool, so that a long query does not hold up other tasks on the common pool.
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        pool.execute(() -> {
+            try {
+                Set<UUID> stored = new LinkedHashSet<>(this.source.getStoredUsers());
+                stored.addAll(copies.keySet());
+                List<UUID> users = new ArrayList<>(stored);
+                query.total = users.size();
+                users.parallelStream().forEach(uuid -> {
+                    if (query.cancelled) {
+                        return;
+                    }
+
+                    try {
+                        Optional<M> data = read(uuid, module, copies.get(uuid));
+                        if (data.isPresent() && predicate.test(data.get())) {
+                            R result = projection.apply(data.get());
+                            synchronized (query) {
+                                if (!query.cancelled) {
+                                    query.matched.incrementAndGet();
+                                    consumer.accept(uuid, result);
+                                }
+                            }
+                        }
+                    } catch (Exception e) {
+                        query.failed.incrementAndGet();
+                        this.logger.warn("Could not query the data of user " + uuid.toString() + ": " + e.getMessage());
+                    }
+
+                    query.processed.incrementAndGet();
+                });
+
+                query.completion.complete(query);
+            } catch (Throwable e) {
+                query.completion.completeExceptionally(e);
+            } finally {
+                pool.shutdown();
+            }
+        });
+
+        return query;
+    }
+
+    private <M extends DataModule<ModularUserService>> Optional<M> read(UUID uuid, Class<M> module, @Nullable ConfigurationNode copy)
+            throws Exception {
+        DataProvider<ConfigurationNode> provider = copy == null ? this.dataProviderFactory.apply(uuid, false) : new CopyDataProvider(copy);
+        if (provider == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ModularUserService(provider, uuid).get(module));
+    }
+
+    /**
+     * Provides the copy of a module that was taken from a user that is in memory. The service that reads it is thrown
+     * away after the query, so it is never saved.
+     */
+    private static final class CopyDataProvider implements DataProvider<ConfigurationNode> {
+
+        private final ConfigurationNode node;
+
+        private CopyDataProvider(ConfigurationNode node) {
+            this.node = node;
+        }
+
+        @Override public boolean has() {
+            return true;
+        }
+
+        @Override public ConfigurationNode load() throws Exception {
+            return this.node;
+        }
+
+        @Override public void save(ConfigurationNode info) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override public void delete() throws Exception {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A query that has been started by {@link #query(Class, Predicate, Function, BiConsumer)}.
+     */
+    public static final class Query {
+
+        private final CompletableFuture<Query> completion = new CompletableFuture<>();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger matched = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile int total = -1;
+        private volatile boolean cancelled = false;
+
+        private Query() { }
+
+        /**
+         * Gets the number of users that will be queried.
+         *
+         * @return The number of users, or -1 if they have not been listed yet.
+         */
+        public int getTotal() {
+            return this.total;
+        }
+
+        public int getProcessed() {
+            return this.processed.get();
+        }
+
+        public int getMatched() {
+            return this.matched.get();
+        }
+
+        public int getFailed() {
+            return this.failed.get();
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        /**
+         * Stops the query. No more results will be given to the consumer once this returns, though the query will
+         * only complete once the users that are being read have been.
+         */
+        public void cancel() {
+            synchronized (this) {
+                this.cancelled = true;
+            }
+        }
+
+        /**
+         * Gets a future that completes when every user has been queried, or the query has been cancelled.
+         *
+         * @return The {@link CompletableFuture}.
+         */
+        public CompletableFuture<Query> getCompletion() {
+            return this.completion;
+        }
+    }
+}
@@ -29,14 +29,22 @@ public abstract class AbstractConfigurateDataProvider<T> implements DataProvider
     private final Path file;
     private final boolean requiresChildren;
     private final Path backupFile;
+    private final Path tempFile;
     private final Logger logger;
+    private final FileSaveSettings saveSettings;
 
-    public AbstractConfigurateDataProvider(Function<Path, ConfigurationLoader<?>>  loaderProvider, Path file, boolean requiresChildren, Logger logger) {
+    private int savesSinceBackup = 0;
+    private long lastBackup = -1;
+
+    public AbstractConfigurateDataProvider(Function<Path, ConfigurationLoader<?>>  loaderProvider, Path file, boolean requiresChildren,
+            FileSaveSettings saveSettings, Logger logger) {
         this.loader = loaderProvider.apply(file);
         this.provider = loaderProvider;
         this.file = file;
         this.backupFile = Paths.get(file.toAbsolutePath().toString() + ".bak");
+        this.tempFile = Paths.get(file.toAbsolutePath().toString() + ".tmp");
         this.requiresChildren = requiresChildren;
+        this.saveSettings = saveSettings;
         this.logger = logger;
     }
 
@@ -70,7 +78,7 @@ public abstract class AbstractConfigurateDataProvider<T> implements DataProvider
         return Optional.empty();
     }
 
-    @Override public void save(T info) throws Exception {
+    @Override public synchronized void save(T info) throws Exception {
         Preconditions.checkNotNull(info);
         ConfigurationNode node = transformOnSave(info);
         if (node == null) {
@@ -81,18 +89,79 @@ public abstract class AbstractConfigurateDataProvider<T> implements DataProvider
             throw getException("Configuration Node has no children.");
         }
 
+        saveSettings.beginWrite(file);
         try {
-            if (Files.exists(file)) {
-                Files.copy(file, backupFile, StandardCopyOption.REPLACE_EXISTING);
+            if (saveSettings.isAtomic()) {
+                saveAtomically(node);
+                return;
             }
 
-            loader.save(node);
-        } catch (IOException e) {
-            if (Files.exists(backupFile)) {
-                Files.copy(backupFile, file, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                if (Files.exists(file)) {
+                    Files.copy(file, backupFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                loader.save(node);
+            } catch (IOException e) {
+                if (Files.exists(backupFile)) {
+                    Files.copy(backupFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                throw e;
+            }
+        } finally {
+            saveSettings.endWrite();
+        }
+    }
+
+    /**
+     * Writes the node to a temporary file, which then replaces the data file. The data file is never partially written,
+     * so it only needs backing up occasionally, rather than on every save.
+     */
+    private void saveAtomically(ConfigurationNode node) throws IOException {
+        try {
+            this.provider.apply(tempFile).save(node);
+            FsyncMode fsyncMode = saveSettings.getFsyncMode();
+            if (fsyncMode != FsyncMode.NONE) {
+                // The new file must be on the disk before it replaces the old one, or a crash could leave it empty.
+                FileSaveSettings.force(tempFile);
+            }
+
+            backupIfRequired();
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (fsyncMode == FsyncMode.ALWAYS) {
+                FileSaveSettings.forceDirectory(file.toAbsolutePath().getParent());
+            } else if (fsyncMode == FsyncMode.BATCHED) {
+                saveSettings.markDirectoryUnsynced(file.toAbsolutePath().getParent());
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void backupIfRequired() throws IOException {
+        if (Files.notExists(file)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (lastBackup < 0) {
+            lastBackup = Files.exists(backupFile) ? Files.getLastModifiedTime(backupFile).toMillis() : 0;
+        }
+
+        int backupEvery = saveSettings.getBackupEvery();
+        long backupInterval = saveSettings.getBackupIntervalMillis();
+        if (lastBackup == 0 || (backupEvery > 0 && ++savesSinceBackup >= backupEvery) || (backupInterval > 0 && now - lastBackup >= backupInterval)) {
+            // The data file is about to be replaced, so the backup can be a link to it, rather than a copy.
+            Files.deleteIfExists(backupFile);
+            try {
+                Files.createLink(backupFile, file);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(file, backupFile, StandardCopyOption.REPLACE_EXISTING);
             }
 
-            throw e;
+            savesSinceBackup = 0;
+            lastBackup = now;
         }
     }
 
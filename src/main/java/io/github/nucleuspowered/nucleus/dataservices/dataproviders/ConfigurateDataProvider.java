@@ -25,7 +25,8 @@ public class ConfigurateDataProvider<T> extends AbstractConfigurateDataProvider<
     private final Supplier<T> defaultSupplier;
 
     @SuppressWarnings("unchecked")
-    public ConfigurateDataProvider(TypeToken<T> type, Function<Path, ConfigurationLoader<?>>  loaderProvider, Path file, Logger logger) {
+    public ConfigurateDataProvider(TypeToken<T> type, Function<Path, ConfigurationLoader<?>>  loaderProvider, Path file, FileSaveSettings saveSettings,
+            Logger logger) {
         this(type, loaderProvider, () -> {
             try {
                 return (T)type.getRawType().newInstance();
@@ -33,11 +34,12 @@ public class ConfigurateDataProvider<T> extends AbstractConfigurateDataProvider<
                 e.printStackTrace();
                 return null;
             }
-        }, file, true, logger);
+        }, file, true, saveSettings, logger);
     }
 
-    public ConfigurateDataProvider(TypeToken<T> type, Function<Path, ConfigurationLoader<?>>  loaderProvider, Supplier<T> defaultSupplier, Path file, boolean requiresChildren, Logger logger) {
-        super(loaderProvider, file, requiresChildren, logger);
+    public ConfigurateDataProvider(TypeToken<T> type, Function<Path, ConfigurationLoader<?>>  loaderProvider, Supplier<T> defaultSupplier, Path file,
+            boolean requiresChildren, FileSaveSettings saveSettings, Logger logger) {
+        super(loaderProvider, file, requiresChildren, saveSettings, logger);
         this.typeToken = type;
         this.defaultSupplier = defaultSupplier;
     }
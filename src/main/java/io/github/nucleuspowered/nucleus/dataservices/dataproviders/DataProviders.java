@@ -16,37 +16,91 @@ import ninja.leaping.configurate.ConfigurationOptions;
 import ninja.leaping.configurate.gson.GsonConfigurationLoader;
 import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
 import ninja.leaping.configurate.loader.ConfigurationLoader;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.service.sql.SqlService;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public class DataProviders {
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+public class DataProviders implements UserDataSource {
 
     private final NucleusPlugin plugin;
         private final TypeToken<Map<String, ItemDataNode>> ttmsi = new TypeToken<Map<String, ItemDataNode>>() {};
     private final TypeToken<Map<String, String>> ttss = new TypeToken<Map<String, String>>() {};
+    private final TypeToken<Map<String, Map<String, Long>>> ttcd = new TypeToken<Map<String, Map<String, Long>>>() {};
     private final TypeToken<KitConfigDataNode> ttmk = TypeToken.of(KitConfigDataNode.class);
     private final TypeToken<UserCacheVersionNode> ttucv = TypeToken.of(UserCacheVersionNode.class);
 
     private final String userJson = "userdata%1$s%2$s%1$s%3$s.json";
     private final String worldJson = "worlddata%1$s%2$s%1$s%3$s.json";
 
+    private StorageEngine storageEngine = StorageEngine.FILES;
+    private KeyedDataStore userStore = null;
+    private KeyedDataStore worldStore = null;
+    private DataSource dataSource = null;
+    private UserCacheJournal userCacheJournal = null;
+    private final FileSaveSettings fileSaveSettings;
+
     public DataProviders(NucleusPlugin plugin) {
         this.plugin = plugin;
+        this.fileSaveSettings = new FileSaveSettings(plugin.getLogger());
+    }
+
+    public FileSaveSettings getFileSaveSettings() {
+        return this.fileSaveSettings;
+    }
+
+    /**
+     * Sets the {@link StorageEngine} that user and world data will be read from and written to. This should only be
+     * called before any user or world data is loaded.
+     *
+     * @param storageEngine The {@link StorageEngine}
+     */
+    public synchronized void setStorageEngine(StorageEngine storageEngine) {
+        Preconditions.checkNotNull(storageEngine);
+        this.storageEngine = storageEngine;
+    }
+
+    public StorageEngine getStorageEngine() {
+        return this.storageEngine;
     }
 
     public DataProvider<ConfigurationNode> getUserFileDataProviders(UUID uuid, boolean create) {
-        // For now, just the Configurate one.
         try {
+            if (storageEngine != StorageEngine.FILES) {
+                KeyedDataStore store = getUserStore();
+                if (create || store.has(uuid)) {
+                    return new KeyedStoreDataProvider(store, uuid, true, this::getGsonBuilder);
+                }
+
+                return null;
+            }
+
             Path p = getFile(userJson, uuid);
             if (create || doesUserFileExist(uuid)) {
-                return new SimpleConfigurateDataProvider(path -> getGsonBuilder().setPath(path).build(), p, true, plugin.getLogger());
+                return new JsonFileDataProvider(this::getGsonBuilder, p, true, fileSaveSettings, plugin.getLogger());
             }
         } catch (Exception e) {
             // ignored
@@ -57,6 +111,10 @@ public class DataProviders {
 
     public boolean doesUserFileExist(UUID uuid) {
         try {
+            if (storageEngine != StorageEngine.FILES) {
+                return getUserStore().has(uuid);
+            }
+
             return Files.exists(getFile(userJson, uuid));
         } catch (Exception e) {
             return false;
@@ -64,11 +122,19 @@ public class DataProviders {
     }
 
     public DataProvider<ConfigurationNode> getWorldFileDataProvider(UUID uuid, boolean create) {
-        // For now, just the Configurate one.
         try {
+            if (storageEngine != StorageEngine.FILES) {
+                KeyedDataStore store = getWorldStore();
+                if (create || store.has(uuid)) {
+                    return new KeyedStoreDataProvider(store, uuid, false, this::getGsonBuilder);
+                }
+
+                return null;
+            }
+
             Path p = getFile(worldJson, uuid);
             if (create || doesWorldFileExist(uuid)) {
-                return new SimpleConfigurateDataProvider(path -> getGsonBuilder().setPath(path).build(), p, false, plugin.getLogger());
+                return new SimpleConfigurateDataProvider(path -> getGsonBuilder().setPath(path).build(), p, false, fileSaveSettings, plugin.getLogger());
             }
         } catch (Exception e) {
             // ignored
@@ -79,17 +145,109 @@ public class DataProviders {
 
     public boolean doesWorldFileExist(UUID uuid) {
         try {
+            if (storageEngine != StorageEngine.FILES) {
+                return getWorldStore().has(uuid);
+            }
+
             return Files.exists(getFile(worldJson, uuid));
         } catch (Exception e) {
             return false;
         }
     }
 
+    @Override
+    public Collection<UUID> getStoredUsers() throws IOException {
+        if (storageEngine != StorageEngine.FILES) {
+            try {
+                return getUserStore().keys();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        Path directory = plugin.getDataPath().resolve("userdata");
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+
+        try (Stream<Path> files = getDataFiles(directory)) {
+            return files.map(this::getDataFileKey).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Optional<Reader> openUserData(UUID uuid) throws IOException {
+        if (storageEngine != StorageEngine.FILES) {
+            try {
+                return getUserStore().read(uuid).map(x -> new InputStreamReader(new ByteArrayInputStream(x), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        String u = uuid.toString();
+        Path file = plugin.getDataPath().resolve(String.format(userJson, File.separator, u.substring(0, 2), u));
+        if (Files.exists(file)) {
+            return Optional.of(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the user store if user data is being held in a database, which can be queried for users by IP address,
+     * name, jail and mute state.
+     *
+     * @return The {@link SqlDataStore}, if the {@link StorageEngine#H2} engine is in use.
+     */
+    public Optional<SqlDataStore> getIndexedUserStore() {
+        if (storageEngine == StorageEngine.H2) {
+            try {
+                return Optional.of((SqlDataStore) getUserStore());
+            } catch (Exception e) {
+                plugin.getLogger().error("Could not open the user database.", e);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Closes any stores that have been opened.
+     */
+    public synchronized void close() {
+        for (KeyedDataStore store : new KeyedDataStore[] { userStore, worldStore }) {
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    plugin.getLogger().error("Could not close the data store.", e);
+                }
+            }
+        }
+
+        if (userCacheJournal != null) {
+            try {
+                userCacheJournal.close();
+            } catch (IOException e) {
+                plugin.getLogger().error("Could not close the user cache journal.", e);
+            }
+        }
+
+        userStore = null;
+        worldStore = null;
+        userCacheJournal = null;
+    }
+
     public DataProvider<KitConfigDataNode> getKitsDataProvider() {
         // For now, just the Configurate one.
         try {
             Path p = plugin.getDataPath().resolve("kits.json");
-            return new ConfigurateDataProvider<>(ttmk, path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), p, plugin.getLogger());
+            return new ConfigurateDataProvider<>(ttmk, path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), p, fileSaveSettings, plugin.getLogger());
         } catch (Exception e) {
             return null;
         }
@@ -99,19 +257,50 @@ public class DataProviders {
         try {
             Path p = plugin.getDataPath().resolve("nucleususercache.json");
             return new ConfigurateDataProvider<>(ttucv,
-                    path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), p, plugin.getLogger());
+                    path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), p, fileSaveSettings, plugin.getLogger());
         } catch (Exception e) {
             return null;
         }
     }
 
 
+    /**
+     * Gets the journal of changes to the user cache, which is held alongside the file from
+     * {@link #getUserCacheDataProvider()}.
+     *
+     * @return The {@link UserCacheJournal}.
+     */
+    public synchronized UserCacheJournal getUserCacheJournal() {
+        if (userCacheJournal == null) {
+            userCacheJournal = new UserCacheJournal(plugin.getDataPath().resolve("nucleususercache.journal"), fileSaveSettings, plugin.getLogger());
+        }
+
+        return userCacheJournal;
+    }
+
     public DataProvider<ConfigurationNode> getGeneralDataProvider() {
         // For now, just the Configurate one.
         try {
             Path p = plugin.getDataPath().resolve("general.json");
             return new SimpleConfigurateDataProvider(path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), p,
-                    false, plugin.getLogger());
+                    false, fileSaveSettings, plugin.getLogger());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the {@link DataProvider} for a shard of the general data, which is kept in the {@code general} directory.
+     *
+     * @param name The name of the shard.
+     * @return The {@link DataProvider}, or {@code null} if it could not be created.
+     */
+    public DataProvider<ConfigurationNode> getGeneralShardDataProvider(String name) {
+        try {
+            Path p = plugin.getDataPath().resolve("general").resolve(name + ".json");
+            Files.createDirectories(p.getParent());
+            return new SimpleConfigurateDataProvider(path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), p,
+                    false, fileSaveSettings, plugin.getLogger());
         } catch (Exception e) {
             return null;
         }
@@ -121,7 +310,7 @@ public class DataProviders {
         // For now, just the Configurate one.
         try {
             Path p = plugin.getConfigDirPath().resolve("items.conf");
-            return new ConfigurateDataProvider<>(ttmsi, path -> new LazyConfigurationLoader<>(() -> getHoconBuilder().setPath(path).build()), HashMap::new, p, false, plugin.getLogger());
+            return new ConfigurateDataProvider<>(ttmsi, path -> new LazyConfigurationLoader<>(() -> getHoconBuilder().setPath(path).build()), HashMap::new, p, false, fileSaveSettings, plugin.getLogger());
         } catch (Exception e) {
             return null;
         }
@@ -131,12 +320,148 @@ public class DataProviders {
         // For now, just the Configurate one.
         try {
             Path p = plugin.getDataPath().resolve("namebans.json");
-            return new ConfigurateDataProvider<>(ttss, path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), HashMap::new, p, false, plugin.getLogger());
+            return new ConfigurateDataProvider<>(ttss, path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), HashMap::new, p, false, fileSaveSettings, plugin.getLogger());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public DataProvider<Map<String, Map<String, Long>>> getCooldownDataProvider() {
+        try {
+            Path p = plugin.getDataPath().resolve("cooldowns.json");
+            return new ConfigurateDataProvider<>(ttcd, path -> new LazyConfigurationLoader<>(() -> getGsonBuilder().setPath(path).build()), HashMap::new, p, false, fileSaveSettings, plugin.getLogger());
         } catch (Exception e) {
             return null;
         }
     }
 
+    private synchronized KeyedDataStore getUserStore() throws Exception {
+        if (userStore == null) {
+            userStore = openStore("userdata", true);
+        }
+
+        return userStore;
+    }
+
+    private synchronized KeyedDataStore getWorldStore() throws Exception {
+        if (worldStore == null) {
+            worldStore = openStore("worlddata", false);
+        }
+
+        return worldStore;
+    }
+
+    private KeyedDataStore openStore(String name, boolean users) throws Exception {
+        Path directory = plugin.getDataPath().resolve(name);
+        if (storageEngine == StorageEngine.H2) {
+            if (dataSource == null) {
+                dataSource = Sponge.getServiceManager().provideUnchecked(SqlService.class)
+                        .getDataSource("jdbc:h2:" + plugin.getDataPath().resolve("nucleusdata").toAbsolutePath().toString());
+            }
+
+            SqlDataStore store = users ? SqlDataStore.users(dataSource, "nucleus_users") : SqlDataStore.worlds(dataSource, "nucleus_worlds");
+            if (store.isEmpty() && Files.isDirectory(directory)) {
+                importFiles(directory, store);
+            }
+
+            return store;
+        }
+
+        Path store = plugin.getDataPath().resolve(name + ".store");
+        if (Files.notExists(store) && Files.isDirectory(directory)) {
+            importFiles(directory, store);
+        }
+
+        return new LogStructuredStore(store, fileSaveSettings, plugin.getLogger());
+    }
+
+    /**
+     * Copies every file in the per-file data directory into a new store. The files are left where they are, so that
+     * switching back to {@link StorageEngine#FILES} is possible.
+     */
+    private void importFiles(Path directory, Path store) throws IOException {
+        logImportStart(directory, store.getFileName().toString());
+        Path importing = store.resolveSibling(store.getFileName().toString() + ".importing");
+        Files.deleteIfExists(importing);
+
+        int count = 0;
+        try (LogStructuredStore target = new LogStructuredStore(importing, plugin.getLogger());
+                Stream<Path> files = getDataFiles(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                target.write(getDataFileKey(file), Files.readAllBytes(file));
+                count++;
+            }
+
+            target.sync();
+        }
+
+        Files.move(importing, store, StandardCopyOption.ATOMIC_MOVE);
+        logImportEnd(count, store.getFileName().toString());
+    }
+
+    /**
+     * Copies every file in the per-file data directory into the database in one transaction, so that a failed import
+     * will be attempted again on the next start. The files are left where they are.
+     */
+    private void importFiles(Path directory, SqlDataStore store) throws IOException {
+        logImportStart(directory, "the database");
+        AtomicInteger count = new AtomicInteger();
+        try (Stream<Path> files = getDataFiles(directory)) {
+            store.writeAll(files.map(file -> {
+                try {
+                    byte[] payload = Files.readAllBytes(file);
+                    count.incrementAndGet();
+                    return new SqlDataStore.Document(getDataFileKey(file), parse(payload), payload);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })::iterator);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        logImportEnd(count.get(), "the database");
+    }
+
+    private void logImportStart(Path directory, String target) {
+        plugin.getLogger().info("Importing data from " + directory.toAbsolutePath().toString() + " into " + target
+                + ". This will only happen once.");
+    }
+
+    private void logImportEnd(int count, String target) {
+        plugin.getLogger().info("Imported " + count + " entries into " + target + ".");
+    }
+
+    private Stream<Path> getDataFiles(Path directory) throws IOException {
+        return Files.walk(directory, 2).filter(file -> Files.isRegularFile(file) && getDataFileKey(file) != null);
+    }
+
+    @Nullable
+    private UUID getDataFileKey(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".json")) {
+            try {
+                return UUID.fromString(name.substring(0, name.length() - 5));
+            } catch (IllegalArgumentException e) {
+                // ignored
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private ConfigurationNode parse(byte[] payload) {
+        try {
+            GsonConfigurationLoader loader = getGsonBuilder().setSource(() ->
+                    new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8))).build();
+            return loader.load(ConfigurateHelper.setOptions(loader.getDefaultOptions()));
+        } catch (IOException e) {
+            // The indexed columns will be filled in when the data is next saved.
+            return null;
+        }
+    }
+
     private Path getFile(String template, UUID uuid) throws Exception {
         String u = uuid.toString();
         String f = u.substring(0, 2);
@@ -0,0 +1,210 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.Nullable;
+
+/**
+ * Controls how {@link AbstractConfigurateDataProvider}s write their files, and tracks the files that are waiting for a
+ * {@link FsyncMode#BATCHED} flush.
+ */
+public final class FileSaveSettings {
+
+    private final Logger logger;
+    private final Set<Path> unsynced = ConcurrentHashMap.newKeySet();
+    private final Set<Path> unsyncedDirectories = ConcurrentHashMap.newKeySet();
+
+    // Held for reading while a file is written, and for writing while the data files are copied for a backup.
+    private final ReadWriteLock writeBarrier = new ReentrantReadWriteLock();
+
+    // The files that have been written since a backup started recording them, or null if none is.
+    @Nullable private volatile Set<Path> written = null;
+
+    private volatile boolean atomic = true;
+    private volatile FsyncMode fsyncMode = FsyncMode.BATCHED;
+    private volatile int backupEvery = 10;
+    private volatile long backupIntervalMillis = TimeUnit.MINUTES.toMillis(10);
+
+    public FileSaveSettings(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Sets how files are written.
+     *
+     * @param atomic If true, files are written to a temporary file which then replaces the original file. If false, the
+     *               original file is copied to a backup and then overwritten, on every save.
+     * @param fsyncMode When atomically written files are flushed to the disk.
+     * @param backupEvery When writing atomically, the number of saves of a file between backups, zero to not back up
+     *                    based on the number of saves.
+     * @param backupInterval When writing atomically, the time between backups of a file, zero to not back up based on
+     *                       time.
+     * @param unit The {@link TimeUnit} of the backup interval.
+     */
+    public void set(boolean atomic, FsyncMode fsyncMode, int backupEvery, long backupInterval, TimeUnit unit) {
+        Preconditions.checkNotNull(fsyncMode);
+        this.atomic = atomic;
+        this.fsyncMode = fsyncMode;
+        this.backupEvery = Math.max(0, backupEvery);
+        this.backupIntervalMillis = unit.toMillis(Math.max(0, backupInterval));
+        if (fsyncMode != FsyncMode.BATCHED) {
+            sync();
+        }
+    }
+
+    boolean isAtomic() {
+        return this.atomic;
+    }
+
+    FsyncMode getFsyncMode() {
+        return this.fsyncMode;
+    }
+
+    int getBackupEvery() {
+        return this.backupEvery;
+    }
+
+    long getBackupIntervalMillis() {
+        return this.backupIntervalMillis;
+    }
+
+    /**
+     * Must be called before a data file is written, and followed by a call to {@link #endWrite()}.
+     *
+     * @param files The files that will be written.
+     */
+    void beginWrite(Path... files) {
+        this.writeBarrier.readLock().lock();
+        Set<Path> written = this.written;
+        if (written != null) {
+            Collections.addAll(written, files);
+        }
+    }
+
+    void endWrite() {
+        this.writeBarrier.readLock().unlock();
+    }
+
+    /**
+     * Runs an action while no data files are being written, waiting for any writes in progress to finish first. Writes
+     * that are started while the action runs wait for it to finish, so the action should be quick.
+     *
+     * @param action The action.
+     * @param <T> The type of result.
+     * @return The result of the action.
+     * @throws Exception if the action threw an exception.
+     */
+    public <T> T whileWritesPaused(Callable<T> action) throws Exception {
+        this.writeBarrier.writeLock().lock();
+        try {
+            return action.call();
+        } finally {
+            this.writeBarrier.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording the files that are written, waiting for any writes in progress to finish first. If files were
+     * already being recorded, recording starts again, and every file written since is in either the returned set or the
+     * next one.
+     *
+     * @return The files that have been written since this was last called, or an empty set if none were being recorded.
+     */
+    public Set<Path> recordWrites() {
+        this.writeBarrier.writeLock().lock();
+        try {
+            Set<Path> written = this.written;
+            this.written = ConcurrentHashMap.newKeySet();
+            return written == null ? Collections.emptySet() : written;
+        } finally {
+            this.writeBarrier.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops recording the files that are written. When called from {@link #whileWritesPaused(Callable)}, no file can be
+     * written after those that are returned until the action has finished.
+     *
+     * @return The files that have been written since {@link #recordWrites()} was last called.
+     */
+    public Set<Path> stopRecordingWrites() {
+        Set<Path> written = this.written;
+        this.written = null;
+        return written == null ? Collections.emptySet() : written;
+    }
+
+    void markUnsynced(Path file) {
+        this.unsynced.add(file);
+    }
+
+    /**
+     * Marks the directory that a flushed file has been moved into, so that the move is flushed with the next batch.
+     */
+    void markDirectoryUnsynced(Path directory) {
+        this.unsyncedDirectories.add(directory);
+    }
+
+    /**
+     * Flushes any files that have been written since the last call to the disk, along with the directories that they
+     * are in or have been moved into.
+     */
+    public void sync() {
+        if (this.unsynced.isEmpty() && this.unsyncedDirectories.isEmpty()) {
+            return;
+        }
+
+        Set<Path> directories = new HashSet<>();
+        for (Path directory : this.unsyncedDirectories) {
+            this.unsyncedDirectories.remove(directory);
+            directories.add(directory);
+        }
+
+        for (Path file : this.unsynced) {
+            this.unsynced.remove(file);
+            try {
+                force(file);
+                directories.add(file.toAbsolutePath().getParent());
+            } catch (IOException e) {
+                this.logger.warn("Could not flush " + file.toAbsolutePath().toString() + " to disk.", e);
+            }
+        }
+
+        directories.forEach(FileSaveSettings::forceDirectory);
+    }
+
+    static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Flushes a directory so that a file that has been moved into it survives a crash. This is not possible on all
+     * platforms, so errors are ignored.
+     */
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // ignored
+        }
+    }
+}
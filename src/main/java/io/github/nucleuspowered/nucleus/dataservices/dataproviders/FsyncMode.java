@@ -0,0 +1,28 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+/**
+ * When data files that have been written atomically, and writes to a {@link LogStructuredStore}, are flushed to the
+ * disk.
+ */
+public enum FsyncMode {
+
+    /**
+     * Leave it to the operating system.
+     */
+    NONE,
+
+    /**
+     * Flush every file before it replaces the old one, but flush the directories, and the writes to stores, once a
+     * group of saves has been written.
+     */
+    BATCHED,
+
+    /**
+     * Flush every file before it replaces the old one, and every write to a store before it returns.
+     */
+    ALWAYS
+}
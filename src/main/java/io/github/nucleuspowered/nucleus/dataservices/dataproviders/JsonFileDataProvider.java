@@ -0,0 +1,51 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import ninja.leaping.configurate.gson.GsonConfigurationLoader;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SimpleConfigurateDataProvider} for JSON files that can be partially loaded.
+ */
+public class JsonFileDataProvider extends SimpleConfigurateDataProvider implements PartialDataProvider {
+
+    private final Path file;
+    private final Supplier<GsonConfigurationLoader.Builder> builder;
+
+    public JsonFileDataProvider(Supplier<GsonConfigurationLoader.Builder> builder, Path file, boolean requiresChildren,
+            FileSaveSettings saveSettings, Logger logger) {
+        super(path -> builder.get().setPath(path).build(), file, requiresChildren, saveSettings, logger);
+        this.file = file;
+        this.builder = builder;
+    }
+
+    @Override
+    public PartialDocument loadPartial() throws Exception {
+        if (Files.exists(this.file)) {
+            try {
+                return PartialDocument.read(new String(Files.readAllBytes(this.file), StandardCharsets.UTF_8), this.builder);
+            } catch (IOException e) {
+                // Let the full load deal with it, it will try the backup.
+            }
+        }
+
+        return PartialDocument.of(load());
+    }
+
+    @Override
+    public Optional<Path> keepUnreadable(String entries) throws Exception {
+        Path copy = this.file.resolveSibling(this.file.getFileName().toString() + ".unreadable-" + System.currentTimeMillis());
+        Files.write(copy, entries.getBytes(StandardCharsets.UTF_8));
+        return Optional.of(copy);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import ninja.leaping.configurate.ConfigurationNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A store that holds a serialised document for each {@link UUID}, used by {@link KeyedStoreDataProvider}.
+ */
+public interface KeyedDataStore extends Closeable {
+
+    boolean has(UUID key);
+
+    Set<UUID> keys() throws IOException;
+
+    Optional<byte[]> read(UUID key) throws IOException;
+
+    void write(UUID key, byte[] payload) throws IOException;
+
+    /**
+     * Writes the serialised form of a node. Stores that index parts of the document can read them from the node,
+     * rather than parsing the payload again.
+     *
+     * @param key The key.
+     * @param node The node that was serialised.
+     * @param payload The serialised node.
+     * @throws IOException if the write failed.
+     */
+    default void write(UUID key, ConfigurationNode node, byte[] payload) throws IOException {
+        write(key, payload);
+    }
+
+    void delete(UUID key) throws IOException;
+}
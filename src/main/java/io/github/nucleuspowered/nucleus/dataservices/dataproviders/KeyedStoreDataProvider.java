@@ -0,0 +1,95 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import static io.github.nucleuspowered.nucleus.configurate.ConfigurateHelper.setOptions;
+
+import com.google.common.base.Preconditions;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.gson.GsonConfigurationLoader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * A {@link DataProvider} that keeps a JSON document for a single key in a {@link KeyedDataStore}.
+ */
+public class KeyedStoreDataProvider implements PartialDataProvider {
+
+    private final KeyedDataStore store;
+    private final UUID key;
+    private final boolean requiresChildren;
+    private final Supplier<GsonConfigurationLoader.Builder> builder;
+
+    public KeyedStoreDataProvider(KeyedDataStore store, UUID key, boolean requiresChildren, Supplier<GsonConfigurationLoader.Builder> builder) {
+        this.store = store;
+        this.key = key;
+        this.requiresChildren = requiresChildren;
+        this.builder = builder;
+    }
+
+    @Override
+    public boolean has() {
+        return store.has(key);
+    }
+
+    @Override
+    public ConfigurationNode load() throws Exception {
+        Optional<byte[]> data = store.read(key);
+        GsonConfigurationLoader.Builder b = builder.get();
+        if (!data.isPresent()) {
+            return b.build().createEmptyNode(setOptions(b.getDefaultOptions()));
+        }
+
+        GsonConfigurationLoader loader = b.setSource(() ->
+                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data.get()), StandardCharsets.UTF_8))).build();
+        return loader.load(setOptions(loader.getDefaultOptions()));
+    }
+
+    @Override
+    public PartialDocument loadPartial() throws Exception {
+        Optional<byte[]> data = store.read(key);
+        if (data.isPresent()) {
+            try {
+                return PartialDocument.read(new String(data.get(), StandardCharsets.UTF_8), builder);
+            } catch (IOException e) {
+                // Let the full load report the problem.
+            }
+        }
+
+        return PartialDocument.of(load());
+    }
+
+    @Override
+    public void save(ConfigurationNode node) throws Exception {
+        Preconditions.checkNotNull(node);
+        if (node.isVirtual()) {
+            throw getException("Configuration Node is virtual.");
+        } else if (requiresChildren && (!node.hasMapChildren() && !node.hasListChildren())) {
+            throw getException("Configuration Node has no children.");
+        }
+
+        StringWriter writer = new StringWriter();
+        builder.get().setIndent(0).setSink(() -> new BufferedWriter(writer)).build().save(node);
+        store.write(key, node, writer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void delete() throws Exception {
+        store.delete(key);
+    }
+
+    private IllegalStateException getException(String message) {
+        return new IllegalStateException("The data for " + key.toString() + " has not been saved.\n" + message);
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import org.slf4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+/**
+ * A key-value store that keeps every entry in one append only file.
+ *
+ * <p>Each write appends a record to the end of the file, and the location of the latest record for each key is held in
+ * memory. Records that have been superseded are removed by compacting the file on a background thread once they make
+ * up more than half of it. A record is laid out as:</p>
+ *
+ * <pre>
+ * [int payload length][byte type][long key msb][long key lsb][int crc32][payload]
+ * </pre>
+ *
+ * <p>A torn record at the end of the file, such as one left by a crash, is discarded when the store is opened. A
+ * corrupt record elsewhere is skipped, so that the records after it are kept. In that case, a copy of the file is
+ * kept before the store is compacted to remove the corrupt data.</p>
+ *
+ * <p>Writes are flushed to the disk according to the {@link FsyncMode} of the {@link FileSaveSettings} that the store
+ * was opened with, and go through its write barrier so that backups see a consistent file. A store opened without
+ * settings is only flushed by {@link #sync()} and when it is closed.</p>
+ */
+public final class LogStructuredStore implements KeyedDataStore {
+
+    private static final byte[] MAGIC = "NUCSTOR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 4;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final long MIN_COMPACT_GARBAGE = 4 * 1024 * 1024;
+
+    private final Path file;
+    @Nullable private final FileSaveSettings settings;
+    private final Logger logger;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    private FileChannel channel;
+    private volatile Map<UUID, Entry> index = new ConcurrentHashMap<>();
+    private volatile long end;
+    private volatile long liveBytes = 0;
+    private boolean closed = false;
+
+    public LogStructuredStore(Path file, Logger logger) throws IOException {
+        this(file, null, logger);
+    }
+
+    public LogStructuredStore(Path file, @Nullable FileSaveSettings settings, Logger logger) throws IOException {
+        this.file = file;
+        this.settings = settings;
+        this.logger = logger;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (recover()) {
+            // The corrupt data is left in the file until it is compacted, and would be skipped again on every start.
+            compact();
+        }
+    }
+
+    @Override
+    public boolean has(UUID key) {
+        return this.index.containsKey(key);
+    }
+
+    @Override
+    public Set<UUID> keys() {
+        return ImmutableSet.copyOf(this.index.keySet());
+    }
+
+    public int size() {
+        return this.index.size();
+    }
+
+    public long getFileSize() {
+        return this.end;
+    }
+
+    public long getLiveBytes() {
+        return this.liveBytes;
+    }
+
+    @Override
+    public Optional<byte[]> read(UUID key) throws IOException {
+        this.lock.readLock().lock();
+        try {
+            checkOpen();
+            Entry entry = this.index.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(entry.length);
+            readFully(this.channel, record, entry.offset);
+            record.flip();
+            int length = record.getInt();
+            byte type = record.get();
+            long msb = record.getLong();
+            long lsb = record.getLong();
+            int crc = record.getInt();
+            byte[] payload = new byte[length];
+            record.get(payload);
+            if (type != PUT || msb != key.getMostSignificantBits() || lsb != key.getLeastSignificantBits()
+                    || crc != checksum(type, msb, lsb, payload)) {
+                throw new IOException("The record for " + key.toString() + " in " + this.file.getFileName() + " is corrupt.");
+            }
+
+            return Optional.of(payload);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void write(UUID key, byte[] payload) throws IOException {
+        Preconditions.checkNotNull(payload);
+        append(PUT, key, payload);
+    }
+
+    @Override
+    public void delete(UUID key) throws IOException {
+        if (this.index.containsKey(key)) {
+            append(DELETE, key, new byte[0]);
+        }
+    }
+
+    /**
+     * Flushes all writes to the disk.
+     *
+     * @throws IOException if the flush failed.
+     */
+    public void sync() throws IOException {
+        this.lock.readLock().lock();
+        try {
+            checkOpen();
+            this.channel.force(false);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            if (!this.closed) {
+                this.closed = true;
+                this.channel.force(true);
+                this.channel.close();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void append(byte type, UUID key, byte[] payload) throws IOException {
+        ByteBuffer record = record(type, key, payload);
+        boolean compact;
+        beginWrite();
+        this.lock.writeLock().lock();
+        try {
+            checkOpen();
+            long offset = this.end;
+            writeFully(this.channel, record, offset);
+            this.end += record.capacity();
+            apply(type, key, new Entry(offset, record.capacity()));
+            compact = this.end - MAGIC.length - this.liveBytes > Math.max(MIN_COMPACT_GARBAGE, this.liveBytes);
+        } finally {
+            this.lock.writeLock().unlock();
+            endWrite();
+        }
+
+        if (this.settings != null) {
+            switch (this.settings.getFsyncMode()) {
+                case ALWAYS:
+                    // If the file has been compacted since, the new file was flushed with this record in it.
+                    sync();
+                    break;
+                case BATCHED:
+                    this.settings.markUnsynced(this.file);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (compact && this.compacting.compareAndSet(false, true)) {
+            Thread thread = new Thread(() -> {
+                try {
+                    compactInternal();
+                } catch (Exception e) {
+                    this.logger.error("Could not compact " + this.file.getFileName(), e);
+                } finally {
+                    this.compacting.set(false);
+                }
+            }, "Nucleus Store Compaction - " + this.file.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    // Must be called under the write lock, or before the store is published.
+    private void apply(byte type, UUID key, Entry entry) {
+        Entry old = type == PUT ? this.index.put(key, entry) : this.index.remove(key);
+        if (old != null) {
+            this.liveBytes -= old.length;
+        }
+
+        if (type == PUT) {
+            this.liveBytes += entry.length;
+        }
+    }
+
+    /**
+     * Rewrites the file so that it only contains the latest record for each key. Writes may continue while the live
+     * records are copied, they are then replayed on to the new file before it replaces the old one.
+     *
+     * <p>This is normally run automatically, on its own thread. If a compaction is already running, this does
+     * nothing.</p>
+     *
+     * @throws IOException if the file could not be compacted.
+     */
+    public void compact() throws IOException {
+        if (this.compacting.compareAndSet(false, true)) {
+            try {
+                compactInternal();
+            } finally {
+                this.compacting.set(false);
+            }
+        }
+    }
+
+    private void compactInternal() throws IOException {
+        Path tmp = this.file.resolveSibling(this.file.getFileName().toString() + ".compact");
+        Map<UUID, Entry> snapshot;
+        long copyEnd;
+        this.lock.readLock().lock();
+        try {
+            checkOpen();
+            snapshot = new HashMap<>(this.index);
+            copyEnd = this.end;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.wrap(MAGIC), 0);
+            long position = MAGIC.length;
+            Map<UUID, Entry> newIndex = new ConcurrentHashMap<>();
+            long newLive = 0;
+            for (Map.Entry<UUID, Entry> entry : snapshot.entrySet()) {
+                ByteBuffer record = ByteBuffer.allocate(entry.getValue().length);
+                this.lock.readLock().lock();
+                try {
+                    checkOpen();
+                    readFully(this.channel, record, entry.getValue().offset);
+                } finally {
+                    this.lock.readLock().unlock();
+                }
+
+                record.flip();
+                writeFully(out, record, position);
+                newIndex.put(entry.getKey(), new Entry(position, entry.getValue().length));
+                position += entry.getValue().length;
+                newLive += entry.getValue().length;
+            }
+
+            beginWrite();
+            this.lock.writeLock().lock();
+            try {
+                checkOpen();
+
+                // Replay anything that was written while we were copying.
+                long replay = copyEnd;
+                while (replay < this.end) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    readFully(this.channel, header, replay);
+                    header.flip();
+                    int length = HEADER_SIZE + header.getInt();
+                    byte type = header.get();
+                    UUID key = new UUID(header.getLong(), header.getLong());
+
+                    ByteBuffer record = ByteBuffer.allocate(length);
+                    readFully(this.channel, record, replay);
+                    record.flip();
+                    writeFully(out, record, position);
+
+                    Entry old = type == PUT ? newIndex.put(key, new Entry(position, length)) : newIndex.remove(key);
+                    if (old != null) {
+                        newLive -= old.length;
+                    }
+
+                    if (type == PUT) {
+                        newLive += length;
+                    }
+
+                    position += length;
+                    replay += length;
+                }
+
+                out.force(true);
+                this.channel.close();
+                try {
+                    Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    // Whether or not the move worked, we need a channel to the store.
+                    this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+
+                this.index = newIndex;
+                this.end = position;
+                this.liveBytes = newLive;
+            } finally {
+                this.lock.writeLock().unlock();
+                endWrite();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads the index from the file.
+     *
+     * @return true if a corrupt record was skipped.
+     * @throws IOException if the file could not be read.
+     */
+    private boolean recover() throws IOException {
+        long size = this.channel.size();
+        if (size == 0) {
+            writeFully(this.channel, ByteBuffer.wrap(MAGIC), 0);
+            this.channel.force(true);
+            this.end = MAGIC.length;
+            return false;
+        }
+
+        if (size < MAGIC.length) {
+            throw new IOException(this.file.getFileName() + " is not a Nucleus data store.");
+        }
+
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        readFully(this.channel, magic, 0);
+        if (!Arrays.equals(magic.array(), MAGIC)) {
+            throw new IOException(this.file.getFileName() + " is not a Nucleus data store.");
+        }
+
+        long position = MAGIC.length;
+        boolean skipped = false;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position < size) {
+            int length = readRecord(header, position, size);
+            if (length < 0) {
+                // If there is a good record after this one, the file is corrupt rather than torn by a crash.
+                long next = findRecord(header, position + 1, size);
+                if (next < 0) {
+                    break;
+                }
+
+                if (!skipped) {
+                    Path copy = this.file.resolveSibling(this.file.getFileName().toString() + ".corrupt-" + System.currentTimeMillis());
+                    Files.copy(this.file, copy);
+                    this.logger.error(this.file.getFileName() + " is corrupt, a copy has been saved to " + copy.getFileName());
+                    skipped = true;
+                }
+
+                this.logger.error("Skipping " + (next - position) + " bytes of corrupt data at offset " + position + " of "
+                        + this.file.getFileName() + ", the latest changes to one or more entries may be lost.");
+                position = next;
+                continue;
+            }
+
+            header.flip();
+            header.getInt();
+            byte type = header.get();
+            apply(type, new UUID(header.getLong(), header.getLong()), new Entry(position, length));
+            position += length;
+        }
+
+        if (position < size) {
+            this.logger.warn("Discarding " + (size - position) + " bytes of incomplete data at the end of " + this.file.getFileName());
+            this.channel.truncate(position);
+            this.channel.force(true);
+        }
+
+        this.end = position;
+        return skipped;
+    }
+
+    /**
+     * Reads the header of the record at the given position into the given buffer, and checks the record.
+     *
+     * @return The length of the record, or -1 if there is no complete and valid record at the position.
+     */
+    private int readRecord(ByteBuffer header, long position, long size) throws IOException {
+        if (position + HEADER_SIZE > size) {
+            return -1;
+        }
+
+        header.clear();
+        readFully(this.channel, header, position);
+        int length = header.getInt(0);
+        byte type = header.get(4);
+        if (length < 0 || (type != PUT && type != DELETE) || position + HEADER_SIZE + length > size) {
+            return -1;
+        }
+
+        byte[] payload = new byte[length];
+        readFully(this.channel, ByteBuffer.wrap(payload), position + HEADER_SIZE);
+        if (header.getInt(21) != checksum(type, header.getLong(5), header.getLong(13), payload)) {
+            return -1;
+        }
+
+        return HEADER_SIZE + length;
+    }
+
+    /**
+     * Finds the first valid record at or after the given position.
+     *
+     * @return The position of the record, or -1 if there is none.
+     */
+    private long findRecord(ByteBuffer header, long from, long size) throws IOException {
+        // Only positions that could start a record are checked in full, and the file is read a chunk at a time.
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        long chunkStart = from;
+        for (long candidate = from; candidate + HEADER_SIZE <= size; candidate++) {
+            if (candidate == from || candidate + 5 > chunkStart + chunk.limit()) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), size - candidate));
+                readFully(this.channel, chunk, candidate);
+                chunkStart = candidate;
+            }
+
+            int offset = (int) (candidate - chunkStart);
+            int length = chunk.getInt(offset);
+            byte type = chunk.get(offset + 4);
+            if (length >= 0 && (type == PUT || type == DELETE) && candidate + HEADER_SIZE + length <= size
+                    && readRecord(header, candidate, size) > 0) {
+                return candidate;
+            }
+        }
+
+        return -1;
+    }
+
+    // Backups copy the file while writes are paused, so the file must only be changed between these calls. They must be
+    // called before the lock is taken.
+    private void beginWrite() {
+        if (this.settings != null) {
+            this.settings.beginWrite(this.file);
+        }
+    }
+
+    private void endWrite() {
+        if (this.settings != null) {
+            this.settings.endWrite();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException(this.file.getFileName() + " has been closed.");
+        }
+    }
+
+    private static ByteBuffer record(byte type, UUID key, byte[] payload) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).put(type).putLong(msb).putLong(lsb).putInt(checksum(type, msb, lsb, payload)).put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int checksum(byte type, long msb, long lsb, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(17).put(type).putLong(msb).putLong(lsb).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static final class Entry {
+
+        private final long offset;
+        private final int length;
+
+        private Entry(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
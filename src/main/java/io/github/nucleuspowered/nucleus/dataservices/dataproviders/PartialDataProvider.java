@@ -0,0 +1,35 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import ninja.leaping.configurate.ConfigurationNode;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A {@link DataProvider} of JSON documents that can be loaded without parsing all of their content.
+ */
+public interface PartialDataProvider extends DataProvider<ConfigurationNode> {
+
+    /**
+     * Loads the document, leaving its top level entries unparsed until they are needed.
+     *
+     * @return The {@link PartialDocument}.
+     * @throws Exception if the document could not be loaded.
+     */
+    PartialDocument loadPartial() throws Exception;
+
+    /**
+     * Keeps a copy of entries of the document that could not be parsed, before the document is saved without them.
+     *
+     * @param entries The raw text of the entries, as a JSON object.
+     * @return The file the copy was written to, if this provider keeps one.
+     * @throws Exception if the copy could not be written.
+     */
+    default Optional<Path> keepUnreadable(String entries) throws Exception {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import static io.github.nucleuspowered.nucleus.configurate.ConfigurateHelper.setOptions;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.gson.GsonConfigurationLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A JSON document whose top level entries are only parsed into its {@link ConfigurationNode} when they are asked for.
+ *
+ * <p>When the document is read, the top level object is scanned to find where each entry starts and ends, but the
+ * values are not parsed. Each entry is held as its raw text until {@link #materialise(Collection)} is called with its
+ * key, at which point it is parsed and added to the node. As {@link io.github.nucleuspowered.nucleus.dataservices.modular.DataModule}s
+ * keep their data under a small number of top level keys, reading one module only parses that module's part of the
+ * file. Before the node is saved, {@link #materialiseAll()} must be called so that nothing is lost.</p>
+ */
+public final class PartialDocument {
+
+    private final ConfigurationNode node;
+    private final Map<String, String> raw;
+    @Nullable private final Supplier<GsonConfigurationLoader.Builder> builder;
+    private int rawLength;
+
+    private PartialDocument(ConfigurationNode node, Map<String, String> raw, @Nullable Supplier<GsonConfigurationLoader.Builder> builder) {
+        this.node = node;
+        this.raw = raw;
+        this.builder = builder;
+        this.rawLength = raw.values().stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * Creates a document from a node that has already been fully parsed.
+     *
+     * @param node The node.
+     * @return The document.
+     */
+    public static PartialDocument of(ConfigurationNode node) {
+        return new PartialDocument(node, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Scans a JSON document, without parsing the values of its top level entries.
+     *
+     * @param json The JSON.
+     * @param builder Supplies the loader builder that is used to parse the entries.
+     * @return The document.
+     * @throws IOException if the top level of the document is not a JSON object.
+     */
+    public static PartialDocument read(String json, Supplier<GsonConfigurationLoader.Builder> builder) throws IOException {
+        Map<String, String> raw = new LinkedHashMap<>();
+        int position = skipWhitespace(json, 0);
+        expect(json, position, '{');
+        position = skipWhitespace(json, position + 1);
+        if (position < json.length() && json.charAt(position) == '}') {
+            position++;
+        } else {
+            while (true) {
+                int keyStart = position;
+                expect(json, position, '"');
+                position = endOfString(json, position);
+                String key = unquote(json.substring(keyStart, position));
+                position = skipWhitespace(json, position);
+                expect(json, position, ':');
+                position = endOfValue(json, skipWhitespace(json, position + 1));
+
+                // Keep the key with the value, so that entries can be joined back into an object to be parsed.
+                raw.put(key, json.substring(keyStart, position));
+                position = skipWhitespace(json, position);
+                if (position < json.length() && json.charAt(position) == ',') {
+                    position = skipWhitespace(json, position + 1);
+                } else {
+                    expect(json, position, '}');
+                    position++;
+                    break;
+                }
+            }
+        }
+
+        if (skipWhitespace(json, position) != json.length()) {
+            throw new IOException("Unexpected content after the end of the document.");
+        }
+
+        GsonConfigurationLoader.Builder b = builder.get();
+        return new PartialDocument(b.build().createEmptyNode(setOptions(b.getDefaultOptions())), raw, builder);
+    }
+
+    /**
+     * Gets the node that holds the entries that have been parsed.
+     *
+     * @return The node.
+     */
+    public ConfigurationNode getNode() {
+        return this.node;
+    }
+
+    /**
+     * Gets the total length of the entries that have not been parsed.
+     *
+     * @return The number of characters.
+     */
+    public int getRawLength() {
+        return this.rawLength;
+    }
+
+    /**
+     * Parses the given top level entries into the node, if they have not been already.
+     *
+     * @param keys The keys of the entries.
+     * @throws IOException if the entries could not be parsed.
+     */
+    public void materialise(Collection<String> keys) throws IOException {
+        if (this.raw.isEmpty()) {
+            return;
+        }
+
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        Map<String, String> parsing = new LinkedHashMap<>();
+        for (String key : keys) {
+            String entry = this.raw.get(key);
+            if (entry != null) {
+                joiner.add(entry);
+                parsing.put(key, entry);
+            }
+        }
+
+        if (parsing.isEmpty()) {
+            return;
+        }
+
+        Preconditions.checkState(this.builder != null);
+        String text = joiner.toString();
+        GsonConfigurationLoader loader = this.builder.get().setSource(() -> new BufferedReader(new StringReader(text))).build();
+        ConfigurationNode parsed = loader.load(setOptions(loader.getDefaultOptions()));
+        parsed.getChildrenMap().forEach((k, v) -> this.node.getNode(k).setValue(v.getValue()));
+
+        // Only forget the raw text once it has been parsed.
+        parsing.forEach((k, v) -> {
+            this.raw.remove(k);
+            this.rawLength -= v.length();
+        });
+    }
+
+    /**
+     * Parses all remaining entries into the node.
+     *
+     * @throws IOException if the entries could not be parsed.
+     */
+    public void materialiseAll() throws IOException {
+        materialise(this.raw.keySet());
+    }
+
+    /**
+     * Parses each remaining entry on its own, and removes those that cannot be parsed so that the rest of the document
+     * can still be used and saved.
+     *
+     * @return The raw text of the entries that were removed, by key, as it would appear in the document.
+     */
+    public Map<String, String> removeUnreadable() {
+        Map<String, String> unreadable = new LinkedHashMap<>();
+        for (String key : new ArrayList<>(this.raw.keySet())) {
+            try {
+                materialise(Collections.singleton(key));
+            } catch (IOException e) {
+                String entry = this.raw.remove(key);
+                this.rawLength -= entry.length();
+                unreadable.put(key, entry);
+            }
+        }
+
+        return unreadable;
+    }
+
+    private static void expect(String json, int position, char c) throws IOException {
+        if (position >= json.length() || json.charAt(position) != c) {
+            throw new IOException("Expected '" + c + "' at position " + position + ".");
+        }
+    }
+
+    private static int skipWhitespace(String json, int position) {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * Finds the end of the string that starts at the given position.
+     *
+     * @return The position after the closing quote.
+     */
+    private static int endOfString(String json, int position) throws IOException {
+        for (int i = position + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+
+        throw new IOException("Unterminated string at position " + position + ".");
+    }
+
+    /**
+     * Finds the end of the value that starts at the given position.
+     *
+     * @return The position after the value.
+     */
+    private static int endOfValue(String json, int position) throws IOException {
+        if (position >= json.length()) {
+            throw new IOException("Expected a value at position " + position + ".");
+        }
+
+        char first = json.charAt(position);
+        if (first == '"') {
+            return endOfString(json, position);
+        }
+
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            for (int i = position; i < json.length(); i++) {
+                char c = json.charAt(i);
+                if (c == '"') {
+                    i = endOfString(json, i) - 1;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    return i + 1;
+                }
+            }
+
+            throw new IOException("Unterminated value at position " + position + ".");
+        }
+
+        int i = position;
+        while (i < json.length() && ",}] \t\r\n".indexOf(json.charAt(i)) < 0) {
+            i++;
+        }
+
+        if (i == position) {
+            throw new IOException("Expected a value at position " + position + ".");
+        }
+
+        return i;
+    }
+
+    private static String unquote(String literal) throws IOException {
+        if (literal.indexOf('\\') < 0) {
+            return literal.substring(1, literal.length() - 1);
+        }
+
+        try (JsonReader reader = new JsonReader(new StringReader(literal))) {
+            reader.setLenient(true);
+            return reader.nextString();
+        }
+    }
+}
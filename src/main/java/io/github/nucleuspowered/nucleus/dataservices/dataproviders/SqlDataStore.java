@@ -0,0 +1,327 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import com.google.common.base.Preconditions;
+import ninja.leaping.configurate.ConfigurationNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+/**
+ * A {@link KeyedDataStore} that holds each document as JSON in a table in an embedded database.
+ *
+ * <p>A user table also holds the last IP address, last known name, jail and mute state of each user in their own
+ * indexed columns, so that they can be queried without loading every user.</p>
+ */
+public final class SqlDataStore implements KeyedDataStore {
+
+    // These paths are defined by the @DataKey annotations on CoreUserDataModule, JailUserDataModule and MuteUserDataModule.
+    private static final Object[] LAST_IP = { "lastIP" };
+    private static final Object[] LAST_NAME = { "lastKnownName" };
+    private static final Object[] JAIL_NAME = { "jailData", "jailName" };
+    private static final Object[] MUTE = { "muteData" };
+
+    private final DataSource dataSource;
+    private final String table;
+    private final boolean userTable;
+
+    private SqlDataStore(DataSource dataSource, String table, boolean userTable) {
+        this.dataSource = dataSource;
+        this.table = table;
+        this.userTable = userTable;
+    }
+
+    /**
+     * Creates a store for user data, creating the table and indexes if they do not exist.
+     *
+     * @param dataSource The {@link DataSource}.
+     * @param table The name of the table.
+     * @return The store.
+     * @throws SQLException if the table could not be created.
+     */
+    public static SqlDataStore users(DataSource dataSource, String table) throws SQLException {
+        SqlDataStore store = new SqlDataStore(dataSource, table, true);
+        store.execute(
+                "CREATE TABLE IF NOT EXISTS " + table + " (uuid CHAR(36) PRIMARY KEY, data CLOB NOT NULL, last_ip VARCHAR(64), "
+                        + "last_name VARCHAR(32), jail VARCHAR(255), muted BOOLEAN DEFAULT FALSE NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS " + table + "_last_ip ON " + table + " (last_ip)",
+                "CREATE INDEX IF NOT EXISTS " + table + "_last_name ON " + table + " (last_name)",
+                "CREATE INDEX IF NOT EXISTS " + table + "_jail ON " + table + " (jail)",
+                "CREATE INDEX IF NOT EXISTS " + table + "_muted ON " + table + " (muted)");
+        return store;
+    }
+
+    /**
+     * Creates a store for world data, creating the table if it does not exist.
+     *
+     * @param dataSource The {@link DataSource}.
+     * @param table The name of the table.
+     * @return The store.
+     * @throws SQLException if the table could not be created.
+     */
+    public static SqlDataStore worlds(DataSource dataSource, String table) throws SQLException {
+        SqlDataStore store = new SqlDataStore(dataSource, table, false);
+        store.execute("CREATE TABLE IF NOT EXISTS " + table + " (uuid CHAR(36) PRIMARY KEY, data CLOB NOT NULL)");
+        return store;
+    }
+
+    @Override
+    public boolean has(UUID key) {
+        try (Connection connection = this.dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM " + this.table + " WHERE uuid = ?")) {
+            statement.setString(1, key.toString());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<UUID> keys() throws IOException {
+        try (Connection connection = this.dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT uuid FROM " + this.table)) {
+            Set<UUID> keys = new HashSet<>();
+            while (resultSet.next()) {
+                keys.add(UUID.fromString(resultSet.getString(1)));
+            }
+
+            return keys;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> read(UUID key) throws IOException {
+        try (Connection connection = this.dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT data FROM " + this.table + " WHERE uuid = ?")) {
+            statement.setString(1, key.toString());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(resultSet.getString(1).getBytes(StandardCharsets.UTF_8));
+                }
+
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void write(UUID key, byte[] payload) throws IOException {
+        write(key, null, payload);
+    }
+
+    @Override
+    public void write(UUID key, @Nullable ConfigurationNode node, byte[] payload) throws IOException {
+        Preconditions.checkNotNull(payload);
+        try (Connection connection = this.dataSource.getConnection()) {
+            write(connection, key, node, payload);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void delete(UUID key) throws IOException {
+        try (Connection connection = this.dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("DELETE FROM " + this.table + " WHERE uuid = ?")) {
+            statement.setString(1, key.toString());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes a number of documents in one transaction.
+     *
+     * @param documents The documents to write.
+     * @throws IOException if the documents could not be written. None of them will have been written.
+     */
+    public void writeAll(Iterable<Document> documents) throws IOException {
+        try (Connection connection = this.dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (Document document : documents) {
+                    write(connection, document.key, document.node, document.payload);
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes a consistent copy of the whole database, not just this table, to a zip file.
+     *
+     * @param file The file to write to. It must not exist.
+     * @throws IOException if the copy could not be written.
+     */
+    public void backupTo(Path file) throws IOException {
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("BACKUP TO '" + file.toAbsolutePath().toString().replace("'", "''") + "'");
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Gets whether this store has any documents.
+     *
+     * @return {@code true} if the store is empty.
+     * @throws IOException if the store could not be queried.
+     */
+    public boolean isEmpty() throws IOException {
+        try (Connection connection = this.dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT 1 FROM " + this.table + " LIMIT 1")) {
+            return !resultSet.next();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public List<UUID> getUsersWithIp(String ip) throws IOException {
+        return queryUsers("last_ip = ?", ip.replace("/", ""));
+    }
+
+    public List<UUID> getUsersWithName(String name) throws IOException {
+        return queryUsers("last_name = ?", name.toLowerCase(Locale.ENGLISH));
+    }
+
+    public List<UUID> getJailed() throws IOException {
+        return queryUsers("jail IS NOT NULL");
+    }
+
+    public List<UUID> getJailedIn(String jail) throws IOException {
+        return queryUsers("jail = ?", jail.toLowerCase(Locale.ENGLISH));
+    }
+
+    public List<UUID> getMuted() throws IOException {
+        return queryUsers("muted = TRUE");
+    }
+
+    /**
+     * Does nothing, the connection pool is managed by the {@link DataSource}.
+     */
+    @Override
+    public void close() {
+    }
+
+    private List<UUID> queryUsers(String where, String... parameters) throws IOException {
+        Preconditions.checkState(this.userTable, "This is not a user store.");
+        try (Connection connection = this.dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT uuid FROM " + this.table + " WHERE " + where)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+
+            List<UUID> result = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    result.add(UUID.fromString(resultSet.getString(1)));
+                }
+            }
+
+            return result;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void write(Connection connection, UUID key, @Nullable ConfigurationNode node, byte[] payload) throws SQLException {
+        String data = new String(payload, StandardCharsets.UTF_8);
+        if (!this.userTable) {
+            try (PreparedStatement statement = connection.prepareStatement("MERGE INTO " + this.table + " (uuid, data) KEY (uuid) VALUES (?, ?)")) {
+                statement.setString(1, key.toString());
+                statement.setString(2, data);
+                statement.executeUpdate();
+            }
+
+            return;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("MERGE INTO " + this.table
+                + " (uuid, data, last_ip, last_name, jail, muted) KEY (uuid) VALUES (?, ?, ?, ?, ?, ?)")) {
+            statement.setString(1, key.toString());
+            statement.setString(2, data);
+            String ip = node == null ? null : node.getNode(LAST_IP).getString();
+            setNullableString(statement, 3, ip == null ? null : ip.replace("/", ""));
+            setNullableString(statement, 4, node == null ? null : getLowerCase(node, LAST_NAME));
+            setNullableString(statement, 5, node == null ? null : getLowerCase(node, JAIL_NAME));
+            statement.setBoolean(6, node != null && !node.getNode(MUTE).isVirtual());
+            statement.executeUpdate();
+        }
+    }
+
+    @Nullable
+    private static String getLowerCase(ConfigurationNode node, Object[] path) {
+        String value = node.getNode(path).getString();
+        return value == null ? null : value.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, @Nullable String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * A document to be written by {@link #writeAll(Iterable)}.
+     */
+    public static final class Document {
+
+        private final UUID key;
+        @Nullable private final ConfigurationNode node;
+        private final byte[] payload;
+
+        public Document(UUID key, @Nullable ConfigurationNode node, byte[] payload) {
+            this.key = key;
+            this.node = node;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+/**
+ * The storage engines that can hold user and world data.
+ */
+public enum StorageEngine {
+
+    /**
+     * One JSON file per user or world.
+     */
+    FILES,
+
+    /**
+     * A single, append only {@link LogStructuredStore} for all users, and another for all worlds.
+     */
+    SINGLE_FILE,
+
+    /**
+     * An embedded H2 database, provided by the {@link org.spongepowered.api.service.sql.SqlService}, with the user
+     * data that is searched on held in indexed columns.
+     */
+    H2
+}
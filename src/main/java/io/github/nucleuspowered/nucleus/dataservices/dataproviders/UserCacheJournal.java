@@ -0,0 +1,323 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+/**
+ * An append only journal of changes to the user cache, so that the user cache snapshot only needs to be rewritten
+ * occasionally.
+ *
+ * <p>Each record holds the whole cache entry of one user, so replaying a record more than once is harmless. To compact
+ * the journal, the owner {@link #rotate()}s it, which moves the records written so far aside and starts a new journal,
+ * writes a snapshot that contains everything up to the rotation, and then {@link #discardRotated()}s the old records.
+ * Should the snapshot not be written, the old records are replayed along with the new ones. A record is laid out as:</p>
+ *
+ * <pre>
+ * [int payload length][int crc32][long key msb][long key lsb][byte flags][ip, if present][jail, if present]
+ * </pre>
+ *
+ * <p>The CRC covers the payload, which is everything after it. A torn record at the end of the journal, such as one left
+ * by a crash, is discarded when the journal is replayed.</p>
+ */
+public final class UserCacheJournal implements AutoCloseable {
+
+    private static final byte[] MAGIC = "NUCJRNL1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 4 + 4;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+    private static final byte HAS_IP = 1;
+    private static final byte HAS_JAIL = 2;
+    private static final byte MUTED = 4;
+
+    private final Path file;
+    private final Path rotated;
+    private final FileSaveSettings settings;
+    private final Logger logger;
+
+    @Nullable private FileChannel channel;
+    private long end;
+    private long records = 0;
+    private boolean closed = false;
+
+    public UserCacheJournal(Path file, FileSaveSettings settings, Logger logger) {
+        this.file = file;
+        this.rotated = file.resolveSibling(file.getFileName().toString() + ".old");
+        this.settings = settings;
+        this.logger = logger;
+    }
+
+    /**
+     * Replays the rotated journal, if there is one, and then the journal. This must be called before anything is
+     * appended.
+     *
+     * @param consumer Called with each recorded entry, in the order that they were written.
+     * @throws IOException if the journal could not be read.
+     */
+    public synchronized void replay(BiConsumer<UUID, UserCacheDataNode> consumer) throws IOException {
+        if (Files.exists(this.rotated)) {
+            try (FileChannel old = FileChannel.open(this.rotated, StandardOpenOption.READ)) {
+                read(this.rotated, old, consumer);
+            }
+        }
+
+        FileChannel channel = open();
+        this.end = read(this.file, channel, consumer);
+        if (this.end < channel.size()) {
+            this.logger.warn("Discarding " + (channel.size() - this.end) + " bytes of incomplete data at the end of " + this.file.getFileName());
+            channel.truncate(this.end);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Appends the given entries to the journal.
+     *
+     * @param entries The entries.
+     * @throws IOException if the entries could not be written.
+     */
+    public synchronized void append(Map<UUID, UserCacheDataNode> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 64);
+        for (Map.Entry<UUID, UserCacheDataNode> entry : entries.entrySet()) {
+            bytes.write(record(entry.getKey(), entry.getValue()));
+        }
+
+        this.settings.beginWrite(this.file);
+        try {
+            FileChannel channel = open();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            long position = this.end;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+
+            this.end = position;
+            this.records += entries.size();
+            switch (this.settings.getFsyncMode()) {
+                case ALWAYS:
+                    channel.force(false);
+                    break;
+                case BATCHED:
+                    this.settings.markUnsynced(this.file);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            this.settings.endWrite();
+        }
+    }
+
+    /**
+     * Gets the number of records in the journal, not counting any that have been rotated.
+     *
+     * @return The number of records.
+     */
+    public synchronized long getRecordCount() {
+        return this.records;
+    }
+
+    /**
+     * Moves the records that have been written aside and starts a new journal. If records have already been rotated
+     * and not discarded, the records are added to them.
+     *
+     * @throws IOException if the journal could not be rotated. The journal will still be usable.
+     */
+    public synchronized void rotate() throws IOException {
+        this.settings.beginWrite(this.file, this.rotated);
+        try {
+            FileChannel channel = open();
+            channel.force(true);
+            if (Files.exists(this.rotated)) {
+                try (FileChannel old = FileChannel.open(this.rotated, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    long position = MAGIC.length;
+                    while (position < this.end) {
+                        position += channel.transferTo(position, this.end - position, old);
+                    }
+
+                    old.force(true);
+                }
+
+                channel.truncate(MAGIC.length);
+                channel.force(true);
+            } else {
+                channel.close();
+                this.channel = null;
+                Files.move(this.file, this.rotated, StandardCopyOption.ATOMIC_MOVE);
+                FileSaveSettings.forceDirectory(this.file.toAbsolutePath().getParent());
+                open();
+            }
+
+            this.end = MAGIC.length;
+            this.records = 0;
+        } finally {
+            this.settings.endWrite();
+        }
+    }
+
+    /**
+     * Deletes the rotated records, once a snapshot that contains them has been written.
+     *
+     * @throws IOException if the records could not be deleted.
+     */
+    public synchronized void discardRotated() throws IOException {
+        Files.deleteIfExists(this.rotated);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.closed) {
+            this.closed = true;
+            if (this.channel != null) {
+                this.channel.force(true);
+                this.channel.close();
+                this.channel = null;
+            }
+        }
+    }
+
+    // Must be called while synchronized.
+    private FileChannel open() throws IOException {
+        if (this.closed) {
+            throw new IOException(this.file.getFileName() + " has been closed.");
+        }
+
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (this.channel.size() < MAGIC.length) {
+                this.channel.truncate(0);
+                this.channel.write(ByteBuffer.wrap(MAGIC), 0);
+                this.channel.force(true);
+                this.end = MAGIC.length;
+            } else {
+                this.end = this.channel.size();
+            }
+        }
+
+        return this.channel;
+    }
+
+    /**
+     * Reads the records in a journal file.
+     *
+     * @return The position after the last complete record.
+     */
+    private long read(Path path, FileChannel channel, BiConsumer<UUID, UserCacheDataNode> consumer) throws IOException {
+        long size = channel.size();
+        if (size < MAGIC.length) {
+            return 0;
+        }
+
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        readFully(channel, magic, 0);
+        if (!Arrays.equals(magic.array(), MAGIC)) {
+            throw new IOException(path.getFileName() + " is not a Nucleus journal.");
+        }
+
+        long position = MAGIC.length;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > size) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            readFully(channel, ByteBuffer.wrap(payload), position + HEADER_SIZE);
+            if (crc != checksum(payload)) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            UUID uuid = new UUID(in.readLong(), in.readLong());
+            byte flags = in.readByte();
+            String ip = (flags & HAS_IP) != 0 ? in.readUTF() : null;
+            String jail = (flags & HAS_JAIL) != 0 ? in.readUTF() : null;
+            consumer.accept(uuid, new UserCacheDataNode(ip, jail, (flags & MUTED) != 0));
+
+            position += HEADER_SIZE + length;
+            if (path.equals(this.file)) {
+                this.records++;
+            }
+        }
+
+        return position;
+    }
+
+    private static byte[] record(UUID uuid, UserCacheDataNode node) throws IOException {
+        String ip = node.getIpAddress().orElse(null);
+        String jail = node.getJailName().orElse(null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        out.writeByte((ip == null ? 0 : HAS_IP) | (jail == null ? 0 : HAS_JAIL) | (node.isMuted() ? MUTED : 0));
+        if (ip != null) {
+            out.writeUTF(ip);
+        }
+
+        if (jail != null) {
+            out.writeUTF(jail);
+        }
+
+        byte[] record = bytes.toByteArray();
+        int length = record.length - HEADER_SIZE;
+        ByteBuffer.wrap(record).putInt(length).putInt(checksum(record, HEADER_SIZE, length));
+        return record;
+    }
+
+    private static int checksum(byte[] payload) {
+        return checksum(payload, 0, payload.length);
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+
+            position += read;
+        }
+    }
+}
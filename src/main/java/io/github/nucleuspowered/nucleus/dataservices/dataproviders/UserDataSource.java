@@ -0,0 +1,36 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.dataproviders;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Provides direct access to the stored JSON of each user, for tasks that need to read many users without loading them
+ * through the {@link io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager}. The methods of this
+ * interface may be called from any thread.
+ */
+public interface UserDataSource {
+
+    /**
+     * Gets the {@link UUID}s of all users that have stored data.
+     *
+     * @return The {@link UUID}s.
+     * @throws IOException if the store could not be read.
+     */
+    Collection<UUID> getStoredUsers() throws IOException;
+
+    /**
+     * Opens the stored JSON of a user. The caller must close the {@link Reader}.
+     *
+     * @param uuid The {@link UUID} of the user.
+     * @return The {@link Reader}, if the user has stored data.
+     * @throws IOException if the data could not be opened.
+     */
+    Optional<Reader> openUserData(UUID uuid) throws IOException;
+}
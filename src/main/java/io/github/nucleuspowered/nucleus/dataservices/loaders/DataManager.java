@@ -13,7 +13,11 @@ import io.github.nucleuspowered.nucleus.internal.TimingsDummy;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 
@@ -21,17 +25,26 @@ public abstract class DataManager<I, P, S extends Service> {
 
     private final Predicate<I> fileExists;
     private final BiFunction<I, Boolean, DataProvider<P>> dataProviderFactory;
-    final Map<I, S> dataStore = new ConcurrentHashMap<>();
+    final ServiceCache<I, S> dataStore = new ServiceCache<>(this::weigh);
+    final WriteBehindSaveQueue<I, S> saveQueue;
     final NucleusPlugin plugin;
 
     private Timing generalLoad = TimingsDummy.DUMMY;
     private Timing actualLoad = TimingsDummy.DUMMY;
     private Timing save = TimingsDummy.DUMMY;
+    private Runnable afterSave = () -> {};
+
+    private final Map<I, CompletableFuture<Optional<S>>> preloads = new ConcurrentHashMap<>();
+    private final AtomicLong preloaded = new AtomicLong();
+    private final AtomicLong blockingLoads = new AtomicLong();
+    private final AtomicLong blockingLoadNanos = new AtomicLong();
 
     DataManager(NucleusPlugin plugin, BiFunction<I, Boolean, DataProvider<P>> dataProviderFactory, Predicate<I> fileExistsPredicate) {
         this.dataProviderFactory = dataProviderFactory;
         this.plugin = plugin;
         this.fileExists = fileExistsPredicate;
+        this.saveQueue = new WriteBehindSaveQueue<>(this.getClass().getSimpleName(), plugin.getLogger());
+        this.saveQueue.setAfterSave(this.dataStore::reweigh);
 
         try {
             generalLoad = Timings.of(plugin, this.getClass().getSimpleName() + " - General");
@@ -46,6 +59,43 @@ public abstract class DataManager<I, P, S extends Service> {
         return this.dataStore.containsKey(data) || this.fileExists.test(data);
     }
 
+    /**
+     * Gets whether the data for the given key is held in memory, either because it is loaded or because it has been
+     * evicted but is still waiting to be saved. The data on disk may be out of date for these keys.
+     *
+     * @param data The key.
+     * @return {@code true} if the data is in memory.
+     */
+    public final boolean isLoaded(I data) {
+        return this.dataStore.containsKey(data) || this.saveQueue.getPending(data).isPresent();
+    }
+
+    /**
+     * Gets the data for the given key if it is held in memory, without loading it from disk or marking it as used.
+     *
+     * @param data The key.
+     * @return The service, if it is in memory.
+     */
+    public final Optional<S> getIfLoaded(I data) {
+        S loaded = this.dataStore.peek(data);
+        return loaded != null ? Optional.of(loaded) : this.saveQueue.getPending(data);
+    }
+
+    /**
+     * Calls the consumer for each service that is held in memory, either because it is loaded or because it has been
+     * evicted but is still waiting to be saved.
+     *
+     * @param consumer The consumer.
+     */
+    public final void forEachLoaded(BiConsumer<I, S> consumer) {
+        this.dataStore.forEach(consumer);
+        this.saveQueue.forEachPending((key, service) -> {
+            if (!this.dataStore.containsKey(key)) {
+                consumer.accept(key, service);
+            }
+        });
+    }
+
     public final Optional<S> get(I data) {
         return get(data, true);
     }
@@ -53,23 +103,37 @@ public abstract class DataManager<I, P, S extends Service> {
     public final Optional<S> get(I data, boolean create) {
         try {
             generalLoad.startTimingIfSync();
-            if (this.dataStore.containsKey(data)) {
-                return Optional.of(this.dataStore.get(data));
+            S loaded = this.dataStore.get(data);
+            if (loaded != null) {
+                return Optional.of(loaded);
             }
 
-            actualLoad.startTimingIfSync();
-            DataProvider<P> d = this.dataProviderFactory.apply(data, create);
-            if (d == null) {
-                return Optional.empty();
+            // If the service was unloaded but has yet to be written, the file on disk is out of date.
+            Optional<S> pending = this.saveQueue.getPending(data);
+            if (pending.isPresent()) {
+                this.dataStore.put(data, pending.get());
+                return pending;
             }
 
+            boolean serverThread = plugin.isServerThread();
+            long start = System.nanoTime();
             try {
-                Optional<S> us = getNew(data, d);
-                us.ifPresent(x -> dataStore.put(data, x));
-                return us;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return Optional.empty();
+                // If the service is being preloaded, wait for that rather than reading the file again.
+                CompletableFuture<Optional<S>> preload = this.preloads.get(data);
+                if (preload != null) {
+                    Optional<S> preloaded = preload.join();
+                    if (preloaded.isPresent() || !create) {
+                        return preloaded;
+                    }
+                }
+
+                actualLoad.startTimingIfSync();
+                return load(data, create);
+            } finally {
+                if (serverThread) {
+                    this.blockingLoads.incrementAndGet();
+                    this.blockingLoadNanos.addAndGet(System.nanoTime() - start);
+                }
             }
         } finally {
             generalLoad.stopTimingIfSync();
@@ -77,18 +141,215 @@ public abstract class DataManager<I, P, S extends Service> {
         }
     }
 
+    /**
+     * Loads the data for the given key into memory, if it exists and is not already loaded, so that a later call to
+     * {@link #get(Object)} does not have to read it from disk. This blocks, and so should be called off the server thread.
+     *
+     * @param data The key to load the data for.
+     */
+    public final void preload(I data) {
+        if (this.dataStore.containsKey(data) || this.saveQueue.getPending(data).isPresent() || !this.fileExists.test(data)) {
+            return;
+        }
+
+        CompletableFuture<Optional<S>> future = new CompletableFuture<>();
+        if (this.preloads.putIfAbsent(data, future) != null) {
+            return;
+        }
+
+        try {
+            Optional<S> loaded = load(data, false);
+            if (loaded.isPresent()) {
+                this.preloaded.incrementAndGet();
+            }
+
+            future.complete(loaded);
+        } catch (Throwable e) {
+            future.complete(Optional.empty());
+        } finally {
+            this.preloads.remove(data, future);
+        }
+    }
+
+    private Optional<S> load(I data, boolean create) {
+        DataProvider<P> d = this.dataProviderFactory.apply(data, create);
+        if (d == null) {
+            return Optional.empty();
+        }
+
+        try {
+            Optional<S> us = getNew(data, d);
+            if (us.isPresent()) {
+                // Another thread may have loaded this while we were, if so, that one wins.
+                S existing = this.dataStore.putLoaded(data, us.get());
+                if (existing != null) {
+                    return Optional.of(existing);
+                }
+
+                if (this.dataStore.isOverLimit()) {
+                    evict(this::isPinned, false);
+                }
+            }
+
+            return us;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Optional.empty();
+        }
+    }
+
     public abstract Optional<S> getNew(I data, DataProvider<P> dataProvider) throws Exception;
 
+    /**
+     * Gets whether a loaded service must be kept in memory.
+     *
+     * @param service The service.
+     * @return true if the service must not be evicted.
+     */
+    boolean isPinned(S service) {
+        return true;
+    }
+
+    /**
+     * Gets the approximate weight of a service, used when limiting the cache by weight.
+     *
+     * @param service The service.
+     * @return The weight.
+     */
+    int weigh(S service) {
+        return 1;
+    }
+
+    /**
+     * Evicts expired services, and then the least recently used services until the cache is back within its limits.
+     * Each service is handed to the save queue, so that the caller does not wait for the disk. If write-behind saving
+     * is disabled, the queue holds them until the next {@link #saveAll()}.
+     *
+     * @param pinned Whether a service must not be evicted.
+     * @param expireAll Whether all services that are not pinned should be evicted.
+     */
+    final void evict(Predicate<S> pinned, boolean expireAll) {
+        // The save queue keeps hold of the service until it's written, so it can't be reloaded from an old file.
+        this.dataStore.evict(pinned, expireAll, this.saveQueue::enqueue);
+    }
+
+    /**
+     * Saves all loaded data. If write-behind saving is enabled, the data is queued for the save worker and this
+     * returns immediately. Otherwise, services that were evicted since the last save are written too.
+     */
     public final void saveAll() {
+        if (this.saveQueue.isRunning()) {
+            dataStore.forEach(this.saveQueue::enqueue);
+            return;
+        }
+
         try {
             save.startTimingIfSync();
             dataStore.forEach((i, s) -> {
-                if (!s.save()) {
+                // Anything that is in the save queue is written by the flush below.
+                if (this.saveQueue.isQueued(i)) {
+                    return;
+                }
+
+                if (s.save()) {
+                    this.dataStore.reweigh(i, s);
+                } else {
                     plugin.getLogger().error("Could not save data for " + i.toString());
                 }
             });
+
+            this.saveQueue.flush();
+            afterSave.run();
         } finally {
             save.stopTimingIfSync();
         }
     }
+
+    /**
+     * Saves all loaded data, and writes anything that is waiting for the save worker on the calling thread, so that the
+     * data on disk is up to date when this returns.
+     */
+    public final void saveAllAndFlush() {
+        saveAll();
+
+        // If write-behind saving is enabled, saveAll only queued the services.
+        this.saveQueue.flush();
+    }
+
+    /**
+     * Enables or disables write-behind saving.
+     *
+     * @param writeBehind Whether saves should be performed by the save worker.
+     * @param maxWritesPerSecond The maximum number of files the save worker should write per second, zero for no limit.
+     * @param batchSize The number of files the save worker should take from the queue at once.
+     */
+    public final void setWriteBehind(boolean writeBehind, int maxWritesPerSecond, int batchSize) {
+        this.saveQueue.setLimits(maxWritesPerSecond, batchSize);
+        if (writeBehind) {
+            this.saveQueue.start();
+        } else {
+            // This is called on reload, so the worker is left to write what is still queued rather than waited for.
+            this.saveQueue.stop();
+        }
+    }
+
+    /**
+     * Sets an action to run after each group of saves has been written, such as flushing the written files to disk.
+     *
+     * @param afterSave The action.
+     */
+    public final void setAfterSave(Runnable afterSave) {
+        this.afterSave = afterSave;
+        this.saveQueue.setAfterBatch(afterSave);
+    }
+
+    /**
+     * Stops the save worker, if running, and writes anything that is still queued on the calling thread.
+     */
+    public final void shutdown() {
+        this.saveQueue.shutdown();
+    }
+
+    public final WriteBehindSaveQueue<I, S> getSaveQueue() {
+        return this.saveQueue;
+    }
+
+    /**
+     * Sets the limits on the services that are kept in memory.
+     *
+     * @param maxEntries The maximum number of services, zero for no limit.
+     * @param maxWeight The maximum approximate weight of all services, zero for no limit.
+     * @param expireAfter The time after which a service that is not pinned and has not been used is evicted.
+     * @param unit The {@link TimeUnit} of the expiry time.
+     */
+    public final void setCacheLimits(int maxEntries, long maxWeight, long expireAfter, TimeUnit unit) {
+        this.dataStore.setLimits(maxEntries, maxWeight, expireAfter, unit);
+    }
+
+    public final ServiceCache<I, S> getCache() {
+        return this.dataStore;
+    }
+
+    /**
+     * Gets the number of services that have been loaded by {@link #preload(Object)}.
+     *
+     * @return The number of services.
+     */
+    public final long getPreloadedCount() {
+        return this.preloaded.get();
+    }
+
+    /**
+     * Gets the number of times that the server thread has had to wait for data to be read from disk, either by loading
+     * it or by waiting for a preload to finish.
+     *
+     * @return The number of times.
+     */
+    public final long getBlockingLoadCount() {
+        return this.blockingLoads.get();
+    }
+
+    public final long getBlockingLoadTime(TimeUnit unit) {
+        return unit.convert(this.blockingLoadNanos.get(), TimeUnit.NANOSECONDS);
+    }
 }
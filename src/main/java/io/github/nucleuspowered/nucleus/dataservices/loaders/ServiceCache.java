@@ -0,0 +1,279 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.loaders;
+
+import io.github.nucleuspowered.nucleus.dataservices.Service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the {@link Service}s that a {@link DataManager} has loaded.
+ *
+ * <p>The cache can be limited by the number of entries and by their total approximate weight. When a limit is exceeded,
+ * the least recently used entries that are not pinned are evicted, and entries that are not pinned can be expired once
+ * they have not been used for a set time. Entries are only removed by {@link #evict(Predicate, boolean, BiConsumer)},
+ * which hands each entry to the caller before it goes, so that it can be saved.</p>
+ *
+ * <p>The entries are kept in the order that they were last used, so eviction only has to look at the least recently
+ * used entries, rather than sorting the whole cache. An entry's weight is worked out when it is added, and again by
+ * {@link #reweigh(Object, Service)} when it has been saved.</p>
+ *
+ * @param <I> The key type.
+ * @param <S> The {@link Service} type.
+ */
+public final class ServiceCache<I, S extends Service> {
+
+    private final Map<I, Entry<S>> map = new ConcurrentHashMap<>();
+    private final ToIntFunction<S> weigher;
+    private final AtomicLong weight = new AtomicLong();
+
+    // The same entries as the map, least recently used first. All changes to the cache are made while holding this.
+    private final LinkedHashMap<I, Entry<S>> order = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile int maxEntries = 0;
+    private volatile long maxWeight = 0;
+    private volatile long expireAfterNanos = TimeUnit.MINUTES.toNanos(2);
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    ServiceCache(ToIntFunction<S> weigher) {
+        this.weigher = weigher;
+    }
+
+    /**
+     * Sets the limits of this cache.
+     *
+     * @param maxEntries The maximum number of entries, zero for no limit.
+     * @param maxWeight The maximum total weight of the entries, zero for no limit.
+     * @param expireAfter The time after which an unused entry expires, zero for never.
+     * @param unit The {@link TimeUnit} of the expiry time.
+     */
+    void setLimits(int maxEntries, long maxWeight, long expireAfter, TimeUnit unit) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxWeight = Math.max(0, maxWeight);
+        this.expireAfterNanos = unit.toNanos(Math.max(0, expireAfter));
+    }
+
+    /**
+     * Gets an entry, counting the request as a hit or miss and marking the entry as used.
+     */
+    @Nullable
+    S get(I key) {
+        Entry<S> entry = this.map.get(key);
+        if (entry == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+
+        this.hits.incrementAndGet();
+        entry.lastAccess = System.nanoTime();
+        synchronized (this.order) {
+            // Moves the entry to the end of the order.
+            this.order.get(key);
+        }
+
+        return entry.service;
+    }
+
+    /**
+     * Gets an entry without counting the request or marking the entry as used.
+     */
+    @Nullable
+    S peek(I key) {
+        Entry<S> entry = this.map.get(key);
+        return entry == null ? null : entry.service;
+    }
+
+    boolean containsKey(I key) {
+        return this.map.containsKey(key);
+    }
+
+    void put(I key, S service) {
+        Entry<S> entry = new Entry<>(service, this.weigher.applyAsInt(service));
+        synchronized (this.order) {
+            this.weight.addAndGet(entry.weight);
+            this.order.put(key, entry);
+            Entry<S> old = this.map.put(key, entry);
+            if (old != null) {
+                this.weight.addAndGet(-old.weight);
+            }
+        }
+    }
+
+    /**
+     * Adds a service that has been loaded from disk, unless there is already one for the key.
+     *
+     * @return The service that was already in the cache, or null if the given one was added.
+     */
+    @Nullable
+    S putLoaded(I key, S service) {
+        Entry<S> entry = new Entry<>(service, this.weigher.applyAsInt(service));
+        synchronized (this.order) {
+            Entry<S> existing = this.map.putIfAbsent(key, entry);
+            if (existing != null) {
+                return existing.service;
+            }
+
+            this.order.put(key, entry);
+            this.weight.addAndGet(entry.weight);
+        }
+
+        this.loads.incrementAndGet();
+        return null;
+    }
+
+    @Nullable
+    S remove(I key) {
+        synchronized (this.order) {
+            Entry<S> entry = this.map.remove(key);
+            if (entry == null) {
+                return null;
+            }
+
+            this.order.remove(key);
+            this.weight.addAndGet(-entry.weight);
+            return entry.service;
+        }
+    }
+
+    /**
+     * Works out the weight of an entry again, as its data may have grown or shrunk since it was added.
+     *
+     * @param key The key.
+     * @param service The service that has changed. If it is no longer the entry for the key, this does nothing.
+     */
+    void reweigh(I key, S service) {
+        int newWeight = this.weigher.applyAsInt(service);
+        synchronized (this.order) {
+            Entry<S> entry = this.map.get(key);
+            if (entry != null && entry.service == service) {
+                this.weight.addAndGet(newWeight - entry.weight);
+                entry.weight = newWeight;
+            }
+        }
+    }
+
+    void forEach(BiConsumer<I, S> consumer) {
+        this.map.forEach((k, v) -> consumer.accept(k, v.service));
+    }
+
+    Collection<S> values() {
+        return this.map.values().stream().map(x -> x.service).collect(Collectors.toList());
+    }
+
+    boolean isOverLimit() {
+        int maxEntries = this.maxEntries;
+        long maxWeight = this.maxWeight;
+        return (maxEntries > 0 && this.map.size() > maxEntries) || (maxWeight > 0 && this.weight.get() > maxWeight);
+    }
+
+    /**
+     * Removes expired entries, then the least recently used entries until the cache is within its limits. Pinned
+     * entries are never removed.
+     *
+     * <p>Entries are checked from the least recently used, and the check stops at the first entry that is not pinned,
+     * has not expired and does not need to go to bring the cache within its limits, as every entry after it has been
+     * used more recently.</p>
+     *
+     * @param pinned Whether an entry must stay in the cache.
+     * @param expireAll If true, every entry that is not pinned is removed.
+     * @param beforeEvict Called with each entry before it is removed. This is called while the cache is locked, so must
+     *                    not block.
+     */
+    void evict(Predicate<S> pinned, boolean expireAll, BiConsumer<I, S> beforeEvict) {
+        long now = System.nanoTime();
+        long expireAfter = this.expireAfterNanos;
+        synchronized (this.order) {
+            Iterator<Map.Entry<I, Entry<S>>> iterator = this.order.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<I, Entry<S>> next = iterator.next();
+                Entry<S> entry = next.getValue();
+                if (pinned.test(entry.service)) {
+                    continue;
+                }
+
+                boolean expired = expireAll || (expireAfter > 0 && now - entry.lastAccess >= expireAfter);
+                if (!expired && !isOverLimit()) {
+                    return;
+                }
+
+                beforeEvict.accept(next.getKey(), entry.service);
+                iterator.remove();
+                this.map.remove(next.getKey());
+                this.weight.addAndGet(-entry.weight);
+                if (expired) {
+                    this.expirations.incrementAndGet();
+                } else {
+                    this.evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return this.map.size();
+    }
+
+    public long getWeight() {
+        return this.weight.get();
+    }
+
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    public long getLoadCount() {
+        return this.loads.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    public long getExpirationCount() {
+        return this.expirations.get();
+    }
+
+    private static final class Entry<S> {
+
+        private final S service;
+        private int weight; // Guarded by the order map.
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(S service, int weight) {
+            this.service = service;
+            this.weight = weight;
+        }
+    }
+}
@@ -16,10 +16,7 @@ import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.service.user.UserStorageService;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BiFunction;
@@ -77,18 +74,34 @@ public class UserDataManager extends DataManager<UUID, ConfigurationNode, Modula
         removeOfflinePlayers(false);
     }
 
+    /**
+     * Evicts offline users that have expired from the cache. Users are queued to be saved as they are evicted.
+     *
+     * @param allOffline If true, all offline users are evicted, whether they have expired or not.
+     */
     public void removeOfflinePlayers(boolean allOffline) {
-        saveAll();
-
-        // If allOffline is false, then remove only if it was loaded over two minutes ago.
-        this.dataStore.entrySet().removeIf(x -> !x.getValue().getUser().isOnline() && (allOffline || x.getValue().serviceLoadTime().plus(2, ChronoUnit.MINUTES).isBefore(Instant.now())));
+        evict(this::isPinned, allOffline);
     }
 
     public List<ModularUserService> getOnlineUsersInternal() {
-        return ImmutableList.copyOf(dataStore.entrySet().stream().filter(x -> x.getValue().getUser().isOnline()).map(Map.Entry::getValue).collect(Collectors.toList()));
+        return ImmutableList.copyOf(dataStore.values().stream().filter(x -> x.getPlayer().isPresent()).collect(Collectors.toList()));
+    }
+
+    /**
+     * Online players are never evicted.
+     */
+    @Override
+    boolean isPinned(ModularUserService service) {
+        return service.getPlayer().isPresent();
+    }
+
+    @Override
+    int weigh(ModularUserService service) {
+        return service.getApproximateWeight();
     }
 
     public void forceUnloadAndDelete(UUID uuid) {
+        this.saveQueue.cancel(uuid);
         ModularUserService service = this.dataStore.remove(uuid);
         if (service != null) {
             service.delete();
@@ -0,0 +1,408 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.dataservices.loaders;
+
+import com.google.common.base.Preconditions;
+import io.github.nucleuspowered.nucleus.dataservices.Service;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds {@link Service}s that need saving and writes them to disk on a dedicated thread, so that the callers of
+ * {@link DataManager#saveAll()} do not have to wait for the disk. Services that are evicted from the cache are always
+ * given to this queue. If it has not been started, they are held until {@link #flush()} writes them on the calling
+ * thread, and once it has been shut down, they are written as they are queued.
+ *
+ * <p>A service is only ever queued once - queuing it again before it has been written is a no-op. Services that are
+ * waiting to be written, are being written, or could not be written can be retrieved through
+ * {@link #getPending(Object)}, so that an evicted service is never reloaded from an out of date file. A service that
+ * could not be written is queued again.</p>
+ *
+ * @param <I> The key type.
+ * @param <S> The {@link Service} type.
+ */
+public final class WriteBehindSaveQueue<I, S extends Service> {
+
+    private final String name;
+    private final Logger logger;
+
+    private final BlockingQueue<I> queue = new LinkedBlockingQueue<>();
+    private final Map<I, S> pending = new ConcurrentHashMap<>();
+    private final Map<I, S> inFlight = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private volatile int maxWritesPerSecond = 100;
+    private volatile int batchSize = 25;
+    private volatile boolean running = false;
+    private volatile boolean shutdown = false;
+    private volatile Runnable afterBatch = () -> {};
+    private volatile BiConsumer<I, S> afterSave = (key, service) -> {};
+
+    // The worker keeps running after the queue is stopped until it has written everything that was queued.
+    private final Object workerLock = new Object();
+    private Thread worker = null;
+
+    // Metrics
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos = 0;
+    private volatile long maxFlushNanos = 0;
+
+    WriteBehindSaveQueue(String name, Logger logger) {
+        this.name = name;
+        this.logger = logger;
+    }
+
+    /**
+     * Sets the maximum number of services to write per second, and the maximum number of services that should be
+     * written in one batch.
+     *
+     * @param maxWritesPerSecond The maximum number of writes per second, or zero for no limit.
+     * @param batchSize The number of services to write in one batch.
+     */
+    void setLimits(int maxWritesPerSecond, int batchSize) {
+        this.maxWritesPerSecond = Math.max(0, maxWritesPerSecond);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Sets an action to run each time a batch of services has been written.
+     *
+     * @param afterBatch The action.
+     */
+    void setAfterBatch(Runnable afterBatch) {
+        this.afterBatch = Preconditions.checkNotNull(afterBatch);
+    }
+
+    /**
+     * Sets an action to run each time a service has been written successfully.
+     *
+     * @param afterSave The action.
+     */
+    void setAfterSave(BiConsumer<I, S> afterSave) {
+        this.afterSave = Preconditions.checkNotNull(afterSave);
+    }
+
+    void start() {
+        synchronized (this.workerLock) {
+            if (this.shutdown) {
+                return;
+            }
+
+            this.running = true;
+
+            // Anything that was held while the queue was stopped.
+            this.pending.keySet().forEach(this.queue::offer);
+            startWorker();
+        }
+    }
+
+    // Must be called while holding the worker lock.
+    private void startWorker() {
+        if (this.worker == null) {
+            this.worker = new Thread(this::run, "Nucleus " + this.name + " Save Worker");
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+    }
+
+    /**
+     * Stops the queue without waiting for it. The worker thread writes anything that is left in the queue, ignoring
+     * the write rate limit, and then stops.
+     */
+    void stop() {
+        this.running = false;
+    }
+
+    /**
+     * Stops the worker thread, waiting for it to finish, and writes anything that is left in the queue on the calling
+     * thread.
+     */
+    void shutdown() {
+        Thread worker;
+        synchronized (this.workerLock) {
+            this.running = false;
+            this.shutdown = true;
+            worker = this.worker;
+        }
+
+        if (worker != null) {
+            try {
+                // We don't interrupt the worker, interrupting NIO writes closes the channel mid-write.
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    void enqueue(I key, S service) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(service);
+        if (this.pending.put(key, service) == null) {
+            this.queued.incrementAndGet();
+            if (this.running) {
+                this.queue.offer(key);
+            } else if (this.shutdown) {
+                // There is no worker any more, and nothing will flush the queue again.
+                flush();
+            }
+        }
+    }
+
+    void cancel(I key) {
+        this.pending.remove(key);
+    }
+
+    /**
+     * Gets whether the service for the given key is waiting to be written, and so will be written with its latest data.
+     */
+    boolean isQueued(I key) {
+        return this.pending.containsKey(key);
+    }
+
+    /**
+     * Calls the consumer for each service that is waiting to be written or is being written.
+     */
+    void forEachPending(BiConsumer<I, S> consumer) {
+        Map<I, S> services = new HashMap<>(this.inFlight);
+        services.putAll(this.pending);
+        services.forEach(consumer);
+    }
+
+    Optional<S> getPending(I key) {
+        S service = this.pending.get(key);
+        if (service == null) {
+            service = this.inFlight.get(key);
+        }
+
+        return Optional.ofNullable(service);
+    }
+
+    /**
+     * Writes everything that is waiting to be written on the calling thread, ignoring the write rate limit.
+     */
+    void flush() {
+        Set<I> keys = new LinkedHashSet<>();
+        this.queue.drainTo(keys);
+
+        // Services held while the queue was stopped are not in the queue.
+        keys.addAll(this.pending.keySet());
+        synchronized (this.flushLock) {
+            writeBatch(keys, false);
+        }
+    }
+
+    private void run() {
+        List<I> keys = new ArrayList<>();
+        long nextWrite = System.nanoTime();
+        try {
+            while (true) {
+                I first = this.queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    synchronized (this.workerLock) {
+                        if (!this.running && this.queue.isEmpty()) {
+                            this.worker = null;
+                            return;
+                        }
+                    }
+
+                    continue;
+                }
+
+                keys.add(first);
+                this.queue.drainTo(keys, this.batchSize - 1);
+                long failed = this.failures.get();
+                try {
+                    synchronized (this.flushLock) {
+                        nextWrite = writeBatch(keys, true, nextWrite);
+                    }
+                } catch (Exception e) {
+                    this.logger.error("The " + this.name + " save worker encountered an error.", e);
+                } finally {
+                    keys.clear();
+                }
+
+                // Failed services have been queued again, don't retry them straight away.
+                if (this.running && this.failures.get() != failed) {
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this.workerLock) {
+                if (this.worker == Thread.currentThread()) {
+                    this.worker = null;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(Collection<I> keys, boolean rateLimit) {
+        writeBatch(keys, rateLimit, System.nanoTime());
+    }
+
+    private long writeBatch(Collection<I> keys, boolean rateLimit, long nextWrite) {
+        if (keys.isEmpty()) {
+            return nextWrite;
+        }
+
+        long start = System.nanoTime();
+        for (I key : keys) {
+            if (!this.pending.containsKey(key)) {
+                // Cancelled, or already written.
+                continue;
+            }
+
+            // Once the queue has been stopped, what is left is written as quickly as possible. The service stays in
+            // the pending map while we wait, so that it is not reloaded from the old file.
+            if (rateLimit && this.running && this.maxWritesPerSecond > 0) {
+                long now = System.nanoTime();
+                if (nextWrite > now) {
+                    LockSupport.parkNanos(nextWrite - now);
+                }
+
+                nextWrite = Math.max(now, nextWrite) + TimeUnit.SECONDS.toNanos(1) / this.maxWritesPerSecond;
+            }
+
+            S service = take(key);
+            if (service == null) {
+                continue;
+            }
+
+            boolean saved = false;
+            try {
+                saved = service.save();
+                if (!saved) {
+                    this.logger.error("Could not save data for " + key.toString());
+                }
+            } catch (Exception e) {
+                this.logger.error("Could not save data for " + key.toString(), e);
+            }
+
+            try {
+                if (saved) {
+                    this.written.incrementAndGet();
+                    this.afterSave.accept(key, service);
+                } else {
+                    this.failures.incrementAndGet();
+
+                    // Keep the changes, they are written again later.
+                    if (this.pending.putIfAbsent(key, service) == null && this.running) {
+                        this.queue.offer(key);
+                    }
+                }
+            } finally {
+                this.inFlight.remove(key, service);
+            }
+        }
+
+        try {
+            this.afterBatch.run();
+        } catch (Exception e) {
+            this.logger.error("Could not complete the " + this.name + " save batch.", e);
+        }
+
+        long taken = System.nanoTime() - start;
+        this.batches.incrementAndGet();
+        this.totalFlushNanos.addAndGet(taken);
+        this.lastFlushNanos = taken;
+        if (taken > this.maxFlushNanos) {
+            this.maxFlushNanos = taken;
+        }
+
+        return nextWrite;
+    }
+
+    /**
+     * Moves the service for the given key from the pending map to the in flight map. It is put in flight before it
+     * is removed from the pending map, so that {@link #getPending(Object)} always finds it.
+     *
+     * @param key The key.
+     * @return The service, or null if it was cancelled.
+     */
+    @Nullable
+    private S take(I key) {
+        S service = this.pending.get(key);
+        if (service == null) {
+            return null;
+        }
+
+        this.inFlight.put(key, service);
+        S current = this.pending.remove(key);
+        if (current != service) {
+            if (current == null) {
+                // Cancelled in the meantime.
+                this.inFlight.remove(key, service);
+                return null;
+            }
+
+            // Replaced in the meantime.
+            this.inFlight.put(key, current);
+        }
+
+        return current;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getQueueDepth() {
+        return this.pending.size();
+    }
+
+    public long getQueuedCount() {
+        return this.queued.get();
+    }
+
+    public long getWrittenCount() {
+        return this.written.get();
+    }
+
+    public long getFailureCount() {
+        return this.failures.get();
+    }
+
+    public long getLastFlushLatency(TimeUnit unit) {
+        return unit.convert(this.lastFlushNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxFlushLatency(TimeUnit unit) {
+        return unit.convert(this.maxFlushNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMeanFlushLatency(TimeUnit unit) {
+        long b = this.batches.get();
+        return b == 0 ? 0 : unit.convert(this.totalFlushNanos.get() / b, TimeUnit.NANOSECONDS);
+    }
+}
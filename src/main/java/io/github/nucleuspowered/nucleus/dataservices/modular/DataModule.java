@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -27,12 +28,25 @@ import javax.annotation.Nonnull;
  */
 public abstract class DataModule<S extends ModularDataService<S>> {
 
-    private static final Map<Class<? extends DataModule<?>>, List<FieldData>> fieldData = Maps.newHashMap();
+    private static final Map<Class<? extends DataModule<?>>, List<FieldData>> fieldData = Maps.newConcurrentMap();
 
     private final List<FieldData> data;
 
+    // Counts the changes made through the module, so that a save can tell whether it needs to write anything.
+    private volatile int modifications = 0;
+    private int savedModifications = 0;
+
     @SuppressWarnings("unchecked") protected DataModule() {
-        data = fieldData.computeIfAbsent((Class<? extends DataModule<?>>) this.getClass(), this::init);
+        data = fieldData.computeIfAbsent((Class<? extends DataModule<?>>) this.getClass(), DataModule::init);
+    }
+
+    /**
+     * Gets the top level keys that this module keeps its data under.
+     *
+     * @return The keys.
+     */
+    Set<String> getRootKeys() {
+        return data.stream().map(x -> x.path[0]).collect(Collectors.toSet());
     }
 
     void loadFrom(ConfigurationNode node) {
@@ -69,6 +83,32 @@ public abstract class DataModule<S extends ModularDataService<S>> {
         }
     }
 
+    /**
+     * Marks this module as changed, so that it is written on the next save. Any method that changes a {@link DataKey}
+     * field, or an object that is held in one, must call this.
+     */
+    protected final void markChanged() {
+        this.modifications++;
+    }
+
+    /**
+     * Writes this module to the given node if it has been changed since it was last loaded or saved.
+     *
+     * @param node The node to save to.
+     * @return <code>true</code> if the node was changed.
+     */
+    boolean saveToIfChanged(ConfigurationNode node) {
+        // Read first, so that a change made while this is saving is written by the next save.
+        int modifications = this.modifications;
+        if (modifications == this.savedModifications) {
+            return false;
+        }
+
+        saveTo(node);
+        this.savedModifications = modifications;
+        return true;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> void getObj(TypeToken<T> typeToken, Field field, String[] path, ConfigurationNode node) throws ObjectMappingException {
         T t;
@@ -81,7 +121,7 @@ public abstract class DataModule<S extends ModularDataService<S>> {
         node.getNode((Object[])path).setValue(typeToken, t);
     }
 
-    private List<FieldData> init(Class<? extends DataModule<?>> clazz) {
+    private static List<FieldData> init(Class<? extends DataModule<?>> clazz) {
         // Get the fields.
         List<Field> fields = Arrays.stream(clazz.getDeclaredFields())
             .filter(x -> x.isAnnotationPresent(DataKey.class))
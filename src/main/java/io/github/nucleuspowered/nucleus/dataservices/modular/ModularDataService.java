@@ -6,34 +6,105 @@ package io.github.nucleuspowered.nucleus.dataservices.modular;
 
 import co.aikar.timings.Timing;
 import co.aikar.timings.Timings;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import io.github.nucleuspowered.nucleus.Nucleus;
 import io.github.nucleuspowered.nucleus.dataservices.AbstractService;
 import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.PartialDataProvider;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.PartialDocument;
 import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.SimpleConfigurationNode;
+import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
 public abstract class ModularDataService<S extends ModularDataService<S>> extends AbstractService<ConfigurationNode> {
 
+    private static final AtomicLong skippedSaves = new AtomicLong();
+    private static final AtomicLong performedSaves = new AtomicLong();
+
+    /**
+     * Gets the number of saves that were skipped because none of the loaded modules had changed.
+     *
+     * @return The number of skipped saves.
+     */
+    public static long getSkippedSaveCount() {
+        return skippedSaves.get();
+    }
+
+    /**
+     * Gets the number of saves that resulted in data being written.
+     *
+     * @return The number of saves that were written.
+     */
+    public static long getPerformedSaveCount() {
+        return performedSaves.get();
+    }
+
     private final Map<Class<?>, DataModule<S>> cached = new HashMap<>();
     private final Map<Class<?>, TransientModule<S>> transientCache = new HashMap<>();
     private final Timing saveTimings = Timings.of(Nucleus.getNucleus(), "Data Modules - Saving");
     private final Timing loadTimings = Timings.of(Nucleus.getNucleus(), "Data Modules - Loading");
     private final Timing loadTransientTimings = Timings.of(Nucleus.getNucleus(), "Transient Modules - Loading");
 
+    // Set if the last write failed, as the data node will already contain the changes that need writing.
+    private boolean requiresSave = false;
+
+    // If the provider supports it, the parts of the data that no module has asked for yet are left unparsed.
+    @Nullable private PartialDocument partial = null;
+
     ModularDataService(DataProvider<ConfigurationNode> dataProvider) throws Exception {
         this(dataProvider, true);
     }
 
     ModularDataService(DataProvider<ConfigurationNode> dataProvider, boolean loadNow) throws Exception {
-        super(dataProvider, loadNow);
+        super(dataProvider, loadNow && !(dataProvider instanceof PartialDataProvider));
+        if (loadNow && dataProvider instanceof PartialDataProvider) {
+            loadPartial();
+        }
+    }
+
+    /**
+     * Gets an approximate measure of the memory this service is using, as the number of nodes in its data.
+     *
+     * @return The weight.
+     */
+    public int getApproximateWeight() {
+        if (data == null) {
+            return 1;
+        }
+
+        // Roughly the length of a small node in the JSON, for the data that has not been parsed.
+        return countNodes(data) + (partial == null ? 0 : partial.getRawLength() / 32);
+    }
+
+    private static int countNodes(ConfigurationNode node) {
+        int count = 1;
+        if (node.hasMapChildren()) {
+            for (ConfigurationNode child : node.getChildrenMap().values()) {
+                count += countNodes(child);
+            }
+        } else if (node.hasListChildren()) {
+            for (ConfigurationNode child : node.getChildrenList()) {
+                count += countNodes(child);
+            }
+        }
+
+        return count;
     }
 
     public <T extends DataModule<S>, R> R quickGet(Class<T> module, Function<T, R> getter) {
@@ -102,8 +173,17 @@ public abstract class ModularDataService<S extends ModularDataService<S>> extend
                 }
             }
 
-            dm.loadFrom(data);
-            set(dm);
+            if (partial != null) {
+                try {
+                    partial.materialise(dm.getRootKeys());
+                } catch (IOException e) {
+                    Nucleus.getNucleus().getLogger().error("Could not read the data for " + module.getSimpleName() + ".", e);
+                    recoverUnreadable();
+                }
+            }
+
+            dm.loadFrom(getNode(dm));
+            cached.put(module, dm);
             return dm;
         } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException | InstantiationException e) {
             e.printStackTrace();
@@ -115,8 +195,99 @@ public abstract class ModularDataService<S extends ModularDataService<S>> extend
 
     abstract <T extends DataModule<S>> Optional<T> tryGet(Class<T> module);
 
+    /**
+     * Copies the data of a module into a new node. Modules must only be used on the server thread, but the copy can be
+     * read anywhere.
+     *
+     * @param module The module.
+     * @param <T> The type of module.
+     * @return The node.
+     */
+    public final <T extends DataModule<S>> ConfigurationNode copyModule(Class<T> module) {
+        ConfigurationNode node = SimpleConfigurationNode.root(data.getOptions());
+        get(module).saveTo(node);
+        return node;
+    }
+
+    /**
+     * Gets the node that the given module is read from and saved to.
+     *
+     * @param module The module.
+     * @return The node.
+     */
+    ConfigurationNode getNode(DataModule<S> module) {
+        return data;
+    }
+
+    /**
+     * Gets the modules that have been loaded since the data was last loaded.
+     *
+     * @return The modules.
+     */
+    final Collection<DataModule<S>> getLoadedModules() {
+        return ImmutableList.copyOf(cached.values());
+    }
+
+    private void loadPartial() throws Exception {
+        PartialDocument document = ((PartialDataProvider) getDataProvider()).loadPartial();
+        partial = document;
+        data = document.getNode();
+    }
+
+    /**
+     * Takes the entries of the partially loaded data that cannot be parsed out of it, so that the rest can be used and
+     * saved. A copy of their text is kept, and they are replaced with what the full load, which falls back to the
+     * backup, has for them. The data is then saved on the next save, so that the file no longer holds them.
+     */
+    private void recoverUnreadable() {
+        Preconditions.checkState(partial != null);
+        Map<String, String> unreadable = partial.removeUnreadable();
+        if (unreadable.isEmpty()) {
+            return;
+        }
+
+        requiresSave = true;
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        unreadable.values().forEach(joiner::add);
+        String entries = joiner.toString();
+        Logger logger = Nucleus.getNucleus().getLogger();
+        try {
+            Optional<Path> copy = ((PartialDataProvider) getDataProvider()).keepUnreadable(entries);
+            if (copy.isPresent()) {
+                logger.error("The unreadable entries " + unreadable.keySet() + " have been copied to " + copy.get() + ".");
+            } else {
+                logger.error("The unreadable entries " + unreadable.keySet() + " were: " + entries);
+            }
+        } catch (Exception e) {
+            logger.error("Could not keep a copy of the unreadable entries " + unreadable.keySet() + ", which were: " + entries, e);
+        }
+
+        ConfigurationNode full;
+        try {
+            full = getDataProvider().load();
+        } catch (Exception e) {
+            logger.error("Could not load the data or its backup, so the defaults will be used for " + unreadable.keySet() + ".", e);
+            return;
+        }
+
+        for (String key : unreadable.keySet()) {
+            ConfigurationNode node = full.getNode(key);
+            if (!node.isVirtual()) {
+                data.getNode(key).setValue(node.getValue());
+            }
+        }
+    }
+
+    /**
+     * Puts the module into this service and marks it as changed. This must be called after changing an object that a
+     * module holds, such as a list that was returned from it, as the module cannot see that change.
+     *
+     * @param dataModule The module.
+     * @param <T> The type of module.
+     */
     public <T extends DataModule<S>> void set(T dataModule) {
         cached.put(dataModule.getClass(), dataModule);
+        dataModule.markChanged();
     }
 
     private <T extends TransientModule<S>> void setTransient(T dataModule) {
@@ -124,20 +295,45 @@ public abstract class ModularDataService<S extends ModularDataService<S>> extend
     }
 
     @Override public void loadInternal() throws Exception {
-        super.loadInternal();
+        if (getDataProvider() instanceof PartialDataProvider) {
+            loadPartial();
+        } else {
+            super.loadInternal();
+            partial = null;
+        }
+
         cached.clear(); // Only clear if no exception was caught.
+        requiresSave = false;
     }
 
     @Override public boolean save() {
         try {
             saveTimings.startTimingIfSync();
 
-            // If there is nothing in the cache, don't save (because we don't need to).
-            if (!cached.isEmpty() || !(data.isVirtual() || data.getValue() == null)) {
-                ImmutableMap.copyOf(cached).values().forEach(x -> x.saveTo(data));
-                return super.save();
+            // Only modules that have been changed since the last save are written, and if none of them have, the file
+            // on disk is already up to date - so we don't need to save.
+            boolean changed = requiresSave;
+            for (DataModule<S> module : getLoadedModules()) {
+                changed |= module.saveToIfChanged(data);
+            }
+
+            if (changed) {
+                if (partial != null) {
+                    // Everything has to be in the node for it to be written.
+                    try {
+                        partial.materialiseAll();
+                    } catch (IOException e) {
+                        Nucleus.getNucleus().getLogger().error("Could not read all of the data that is being saved.", e);
+                        recoverUnreadable();
+                    }
+                }
+
+                performedSaves.incrementAndGet();
+                requiresSave = !super.save();
+                return !requiresSave;
             }
 
+            skippedSaves.incrementAndGet();
             return true;
         } finally {
             saveTimings.stopTimingIfSync();
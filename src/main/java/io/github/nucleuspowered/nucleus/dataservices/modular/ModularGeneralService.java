@@ -4,15 +4,49 @@
  */
 package io.github.nucleuspowered.nucleus.dataservices.modular;
 
+import io.github.nucleuspowered.nucleus.Nucleus;
 import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
 import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.SimpleConfigurationNode;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
+/**
+ * Holds the data that is not specific to a user or world, such as warps and jails.
+ *
+ * <p>Each {@link DataModule} is kept in a shard of its own, so that a change to one module, such as to the description
+ * of a warp, only rewrites that module's file. Each shard is only written when its module has changed. Earlier versions
+ * kept all modules in {@code general.json}. A module's data is moved from there into its shard the first time the
+ * module is loaded, and is removed from {@code general.json} once the shard has been written.</p>
+ */
 public class ModularGeneralService extends ModularDataService<ModularGeneralService> {
 
-    public ModularGeneralService(DataProvider<ConfigurationNode> dataProvider) throws Exception {
+    private static final String MODULE_SUFFIX = "GeneralDataModule";
+
+    private final Function<String, DataProvider<ConfigurationNode>> shardProviderFactory;
+    private final Map<Class<?>, Shard> shards = new HashMap<>();
+
+    // Set when data that has been moved into a shard needs removing from general.json.
+    private boolean generalChanged = false;
+
+    /**
+     * Creates the service.
+     *
+     * @param dataProvider The {@link DataProvider} for {@code general.json}, which data is migrated from.
+     * @param shardProviderFactory Gets the {@link DataProvider} for the shard with the given name.
+     * @throws Exception if the service could not be created.
+     */
+    public ModularGeneralService(DataProvider<ConfigurationNode> dataProvider,
+            Function<String, DataProvider<ConfigurationNode>> shardProviderFactory) throws Exception {
         super(dataProvider, false);
+        this.shardProviderFactory = shardProviderFactory;
     }
 
     @Override <T extends TransientModule<ModularGeneralService>> Optional<T> tryGetTransient(Class<T> module) {
@@ -22,4 +56,133 @@ public class ModularGeneralService extends ModularDataService<ModularGeneralServ
     @Override <T extends DataModule<ModularGeneralService>> Optional<T> tryGet(Class<T> module) {
         return DataModuleFactory.get(module, this);
     }
+
+    @Override public synchronized void loadInternal() throws Exception {
+        super.loadInternal();
+        this.shards.clear();
+        this.generalChanged = false;
+    }
+
+    @Override synchronized ConfigurationNode getNode(DataModule<ModularGeneralService> module) {
+        return this.shards.computeIfAbsent(module.getClass(), k -> openShard(module)).node;
+    }
+
+    @Override public synchronized boolean save() {
+        boolean success = true;
+        for (DataModule<ModularGeneralService> module : getLoadedModules()) {
+            Shard shard = this.shards.get(module.getClass());
+            if (shard == null || shard.readOnly) {
+                continue;
+            }
+
+            if (shard.provider == null) {
+                this.generalChanged |= module.saveToIfChanged(data);
+                continue;
+            }
+
+            boolean changed = module.saveToIfChanged(shard.node) || shard.dirty;
+            if (changed) {
+                try {
+                    shard.provider.save(shard.node);
+                    shard.dirty = false;
+                } catch (Exception e) {
+                    // Write the shard next time, even if the module doesn't change again.
+                    shard.dirty = true;
+                    success = false;
+                    Nucleus.getNucleus().getLogger().error("Could not save the " + shard.name + " data.", e);
+                    continue;
+                }
+            }
+
+            if (!shard.migratedKeys.isEmpty()) {
+                // The data is now safely in the shard.
+                shard.migratedKeys.forEach(x -> data.removeChild(x));
+                shard.migratedKeys.clear();
+                this.generalChanged = true;
+            }
+        }
+
+        if (this.generalChanged) {
+            try {
+                if (data.hasMapChildren()) {
+                    getDataProvider().save(data);
+                } else if (getDataProvider().has()) {
+                    // Everything has been moved into shards.
+                    getDataProvider().delete();
+                }
+
+                this.generalChanged = false;
+            } catch (Exception e) {
+                success = false;
+                Nucleus.getNucleus().getLogger().error("Could not remove the migrated data from general.json.", e);
+            }
+        }
+
+        return success;
+    }
+
+    private Shard openShard(DataModule<ModularGeneralService> module) {
+        String name = getShardName(module.getClass());
+        DataProvider<ConfigurationNode> provider = this.shardProviderFactory.apply(name);
+        if (provider == null) {
+            // Keep the module in general.json, as it always has been.
+            Nucleus.getNucleus().getLogger().warn("Could not create the " + name + " data file, the data will stay in general.json.");
+            return new Shard(name, null, data);
+        }
+
+        Set<String> legacyKeys = new HashSet<>();
+        if (data != null) {
+            module.getRootKeys().stream().filter(x -> !data.getNode(x).isVirtual()).forEach(legacyKeys::add);
+        }
+
+        try {
+            // If the shard already exists, anything left in general.json is out of date, and just needs removing.
+            boolean migrate = !provider.has();
+            Shard shard = new Shard(name, provider, provider.load());
+            if (migrate && !legacyKeys.isEmpty()) {
+                legacyKeys.forEach(x -> shard.node.getNode(x).setValue(data.getNode(x).getValue()));
+                shard.dirty = true;
+            }
+
+            shard.migratedKeys.addAll(legacyKeys);
+            return shard;
+        } catch (Exception e) {
+            // Don't write over the shard with the defaults, it might be possible to recover it.
+            Nucleus.getNucleus().getLogger().error("Could not load the " + name + " data. Changes to it will not be saved.", e);
+            Shard shard = new Shard(name, provider, SimpleConfigurationNode.root());
+            shard.readOnly = true;
+            return shard;
+        }
+    }
+
+    /**
+     * Gets the name of the shard that a module is kept in, such as {@code warp} for the {@code WarpGeneralDataModule}.
+     *
+     * @param module The class of the module.
+     * @return The name.
+     */
+    static String getShardName(Class<?> module) {
+        String name = module.getSimpleName();
+        if (name.endsWith(MODULE_SUFFIX) && name.length() > MODULE_SUFFIX.length()) {
+            name = name.substring(0, name.length() - MODULE_SUFFIX.length());
+        }
+
+        return name.toLowerCase();
+    }
+
+    private static class Shard {
+
+        private final String name;
+        @Nullable private final DataProvider<ConfigurationNode> provider;
+        private final ConfigurationNode node;
+        private final Set<String> migratedKeys = new HashSet<>();
+        private boolean dirty = false;
+        private boolean readOnly = false;
+
+        private Shard(String name, @Nullable DataProvider<ConfigurationNode> provider, ConfigurationNode node) {
+            this.name = name;
+            this.provider = provider;
+            this.node = node;
+        }
+    }
 }
@@ -6,7 +6,6 @@ package io.github.nucleuspowered.nucleus.dataservices.modular;
 
 import com.google.common.base.Preconditions;
 import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
-import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
 import ninja.leaping.configurate.ConfigurationNode;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.living.player.Player;
@@ -53,7 +52,7 @@ public class ModularUserService extends ModularDataService<ModularUserService> {
     }
 
     /**
-     * Primarily used internally to determine if the {@link UserDataManager#removeOfflinePlayers()} method should really remove this.
+     * Gets when this service was loaded.
      *
      * @return The {@link Instant} the service was loaded.
      */
@@ -17,6 +17,7 @@ import io.github.nucleuspowered.nucleus.internal.annotations.command.Permissions
 import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCommand;
 import io.github.nucleuspowered.nucleus.internal.command.StandardAbstractCommand;
 import io.github.nucleuspowered.nucleus.internal.permissions.PermissionInformation;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
 import io.github.nucleuspowered.nucleus.modules.core.CoreModule;
 import io.github.nucleuspowered.nucleus.modules.core.config.CoreConfig;
@@ -48,8 +49,10 @@ public class CommandPermissionHandler {
     private final String others;
 
     private final boolean justReturnTrue;
+    private final SessionPermissionCache permissionCache;
 
     public CommandPermissionHandler(Class<? extends StandardAbstractCommand> cab, Nucleus plugin) {
+        permissionCache = plugin.getPermissionCache();
         justReturnTrue = cab.isAnnotationPresent(NoPermissions.class);
 
         // If there are no permissions to assign, we just return true.
@@ -251,7 +254,7 @@ public class CommandPermissionHandler {
     }
 
     private boolean test(Subject src, String permission) {
-        return justReturnTrue || src.hasPermission(permission);
+        return justReturnTrue || permissionCache.hasPermission(src, permission);
     }
 
     private <X extends Exception> void check(Subject src, String permission, Supplier<X> exception) throws X {
@@ -0,0 +1,212 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.command;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Runs the commands that are marked with {@link io.github.nucleuspowered.nucleus.internal.annotations.RunAsync}.
+ *
+ * <p>Commands run on a fixed number of threads of their own. The commands of each source run one at a time, in the
+ * order they were entered, so that two commands from the same player never change their data at the same time. Other
+ * sources' commands run alongside. Each source's next command goes to the back of the pool's queue, so one source
+ * cannot hold a thread while others wait.</p>
+ *
+ * <p>The number of commands that may wait, both in total and for each source, is limited. A command that would go over
+ * either limit is rejected, rather than left to wait for an unbounded time.</p>
+ *
+ * <p>Rejections and the time each command waits for a thread are recorded in the {@link CommandMetrics}.</p>
+ */
+public final class AsyncCommandExecutor {
+
+    /**
+     * The key that the commands of sources that are not players, such as the console, are queued under.
+     */
+    public static final UUID SERVER = new UUID(0, 0);
+
+    private final ThreadPoolExecutor pool;
+    private final CommandMetrics metrics;
+    private final Logger logger;
+
+    @GuardedBy("queues")
+    private final Map<UUID, SourceQueue> queues = new HashMap<>();
+
+    @GuardedBy("queues")
+    private int queued = 0;
+
+    private volatile int maxQueued;
+    private volatile int maxQueuedPerSource;
+
+    public AsyncCommandExecutor(int threads, int maxQueued, int maxQueuedPerSource, CommandMetrics metrics, Logger logger) {
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Nucleus Async Command Thread - %d").build());
+        this.metrics = metrics;
+        this.logger = logger;
+        setLimits(threads, maxQueued, maxQueuedPerSource);
+    }
+
+    /**
+     * Changes the number of threads and the queue limits. Commands that are already queued are not affected.
+     *
+     * @param threads The number of threads to run commands on.
+     * @param maxQueued The maximum number of commands that may be queued or running across all sources.
+     * @param maxQueuedPerSource The maximum number of commands that may be queued or running for one source.
+     */
+    public void setLimits(int threads, int maxQueued, int maxQueuedPerSource) {
+        Preconditions.checkArgument(threads > 0);
+        Preconditions.checkArgument(maxQueued > 0);
+        Preconditions.checkArgument(maxQueuedPerSource > 0);
+
+        // The core size must never exceed the maximum size.
+        if (threads > this.pool.getMaximumPoolSize()) {
+            this.pool.setMaximumPoolSize(threads);
+            this.pool.setCorePoolSize(threads);
+        } else {
+            this.pool.setCorePoolSize(threads);
+            this.pool.setMaximumPoolSize(threads);
+        }
+
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerSource = maxQueuedPerSource;
+    }
+
+    /**
+     * Queues a command to run after the other commands from the same source.
+     *
+     * @param source The {@link UUID} of the source, or {@link #SERVER} if it is not a player.
+     * @param command The command, that its {@link CommandMetrics} are recorded against.
+     * @param task The command to run.
+     * @return <code>true</code> if the command was queued, <code>false</code> if it was rejected because too many
+     *         commands are waiting.
+     */
+    public boolean submit(UUID source, String command, Runnable task) {
+        CommandMetrics.CommandStatistics stats = this.metrics.get(command);
+        synchronized (this.queues) {
+            SourceQueue queue = this.queues.get(source);
+            if (this.queued >= this.maxQueued || (queue != null && queue.jobs.size() >= this.maxQueuedPerSource) || this.pool.isShutdown()) {
+                stats.rejected();
+                return false;
+            }
+
+            if (queue == null) {
+                queue = new SourceQueue(source);
+                this.queues.put(source, queue);
+            }
+
+            this.queued++;
+            queue.jobs.add(new Job(task, stats, System.nanoTime()));
+            if (queue.jobs.size() == 1) {
+                // Nothing is running for this source.
+                schedule(queue);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the number of commands that are queued or running.
+     *
+     * @return The number of commands.
+     */
+    public int getQueued() {
+        synchronized (this.queues) {
+            return this.queued;
+        }
+    }
+
+    public int getActive() {
+        return this.pool.getActiveCount();
+    }
+
+    /**
+     * Stops accepting commands, and waits a short time for those that are queued to finish.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+        try {
+            if (!this.pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                this.logger.warn("Some asynchronous commands did not finish before the server stopped.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @GuardedBy("queues")
+    private void schedule(SourceQueue queue) {
+        try {
+            this.pool.execute(() -> runNext(queue));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, drop what is left for this source.
+            this.queued -= queue.jobs.size();
+            queue.jobs.clear();
+            this.queues.remove(queue.source);
+        }
+    }
+
+    private void runNext(SourceQueue queue) {
+        Job job;
+        synchronized (this.queues) {
+            job = queue.jobs.peek();
+        }
+
+        job.statistics.record(CommandMetrics.Stage.QUEUE, System.nanoTime() - job.queued);
+        try {
+            job.task.run();
+        } catch (Throwable e) {
+            this.logger.error("An asynchronous command threw an exception.", e);
+        } finally {
+            synchronized (this.queues) {
+                queue.jobs.poll();
+                this.queued--;
+                if (queue.jobs.isEmpty()) {
+                    this.queues.remove(queue.source);
+                } else {
+                    schedule(queue);
+                }
+            }
+        }
+    }
+
+    private static final class SourceQueue {
+
+        private final UUID source;
+
+        // The head is the command that is running.
+        private final Queue<Job> jobs = new ArrayDeque<>();
+
+        private SourceQueue(UUID source) {
+            this.source = source;
+        }
+    }
+
+    private static final class Job {
+
+        private final Runnable task;
+        private final CommandMetrics.CommandStatistics statistics;
+        private final long queued;
+
+        private Job(Runnable task, CommandMetrics.CommandStatistics statistics, long queued) {
+            this.task = task;
+            this.statistics = statistics;
+            this.queued = queued;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.command;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each command is run, and how long each stage of running it takes.
+ *
+ * <p>Times are recorded in histograms with a bucket for each power of two microseconds, so recording a time is a
+ * couple of additions that never block, on whichever thread the stage ran. Percentiles are read from the buckets, so
+ * are accurate to within a factor of two.</p>
+ */
+public final class CommandMetrics {
+
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS");
+    private static final String FILE_PREFIX = "commands-";
+
+    private final Map<String, CommandStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the {@link CommandStatistics} of a command, creating them if the command has not been seen before.
+     *
+     * @param command The command, such as {@code nucleus stats commands}.
+     * @return The statistics.
+     */
+    public CommandStatistics get(String command) {
+        return this.statistics.computeIfAbsent(command, k -> new CommandStatistics());
+    }
+
+    /**
+     * Gets the {@link CommandStatistics} of every command that has been seen, in order of command.
+     *
+     * @return The statistics.
+     */
+    public Map<String, CommandStatistics> getAll() {
+        return ImmutableSortedMap.copyOf(this.statistics);
+    }
+
+    /**
+     * Writes the statistics to a new file in the given directory, then removes the oldest exported files so that no
+     * more than the given number are kept.
+     *
+     * @param directory The directory to write to.
+     * @param format The {@link Format} to write.
+     * @param keep The number of exported files to keep, or zero to keep them all.
+     * @return The file that was written.
+     * @throws IOException if the file could not be written.
+     */
+    public Path export(Path directory, Format format, int keep) throws IOException {
+        Files.createDirectories(directory);
+        String name = FILE_PREFIX + LocalDateTime.now().format(FILE_NAME_FORMAT);
+        Path file = directory.resolve(name + format.extension);
+        for (int i = 1; Files.exists(file); i++) {
+            file = directory.resolve(name + "-" + i + format.extension);
+        }
+
+        Map<String, CommandStatistics> all = getAll();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format == Format.JSON) {
+                writeJson(writer, all);
+            } else {
+                writeCsv(writer, all);
+            }
+        }
+
+        if (keep > 0) {
+            List<Path> exported = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*{.csv,.json}")) {
+                stream.forEach(exported::add);
+            }
+
+            // The names sort by the time they were written.
+            Collections.sort(exported);
+            for (int i = 0; i < exported.size() - keep; i++) {
+                Files.deleteIfExists(exported.get(i));
+            }
+        }
+
+        return file;
+    }
+
+    private static void writeCsv(BufferedWriter writer, Map<String, CommandStatistics> all) throws IOException {
+        writer.write("command,stage,count,mean_us,p50_us,p95_us,p99_us,max_us,failures,rejected");
+        writer.newLine();
+        for (Map.Entry<String, CommandStatistics> entry : all.entrySet()) {
+            for (Stage stage : Stage.values()) {
+                Histogram h = entry.getValue().get(stage);
+                writer.write(String.join(",", "\"" + entry.getKey() + "\"", stage.name().toLowerCase(), String.valueOf(h.getCount()),
+                        String.valueOf(h.getMean(TimeUnit.MICROSECONDS)), String.valueOf(h.getPercentile(0.5, TimeUnit.MICROSECONDS)),
+                        String.valueOf(h.getPercentile(0.95, TimeUnit.MICROSECONDS)),
+                        String.valueOf(h.getPercentile(0.99, TimeUnit.MICROSECONDS)), String.valueOf(h.getMax(TimeUnit.MICROSECONDS)),
+                        String.valueOf(entry.getValue().getFailures()), String.valueOf(entry.getValue().getRejected())));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static void writeJson(Writer writer, Map<String, CommandStatistics> all) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+        for (Map.Entry<String, CommandStatistics> entry : all.entrySet()) {
+            json.name(entry.getKey()).beginObject();
+            json.name("failures").value(entry.getValue().getFailures());
+            json.name("rejected").value(entry.getValue().getRejected());
+            for (Stage stage : Stage.values()) {
+                Histogram h = entry.getValue().get(stage);
+                json.name(stage.name().toLowerCase()).beginObject()
+                        .name("count").value(h.getCount())
+                        .name("mean_us").value(h.getMean(TimeUnit.MICROSECONDS))
+                        .name("p50_us").value(h.getPercentile(0.5, TimeUnit.MICROSECONDS))
+                        .name("p95_us").value(h.getPercentile(0.95, TimeUnit.MICROSECONDS))
+                        .name("p99_us").value(h.getPercentile(0.99, TimeUnit.MICROSECONDS))
+                        .name("max_us").value(h.getMax(TimeUnit.MICROSECONDS))
+                        .endObject();
+            }
+
+            json.endObject();
+        }
+
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * The stages of running a command that are timed.
+     */
+    public enum Stage {
+
+        /**
+         * Parsing the arguments.
+         */
+        PARSE,
+
+        /**
+         * The checks before the command runs: cooldowns, warmups and costs.
+         */
+        CHECKS,
+
+        /**
+         * Waiting for an async command thread.
+         */
+        QUEUE,
+
+        /**
+         * Running the command.
+         */
+        EXECUTE
+    }
+
+    public enum Format {
+        CSV(".csv"),
+        JSON(".json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * The times and counts of one command.
+     */
+    public static final class CommandStatistics {
+
+        private final Map<Stage, Histogram> stages = new EnumMap<>(Stage.class);
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private CommandStatistics() {
+            for (Stage stage : Stage.values()) {
+                this.stages.put(stage, new Histogram());
+            }
+        }
+
+        public void record(Stage stage, long nanos) {
+            this.stages.get(stage).record(nanos);
+        }
+
+        /**
+         * Records that the arguments of the command could not be parsed, or that the command threw an error when it
+         * ran. Commands that run and return an empty result have not failed.
+         */
+        public void failed() {
+            this.failures.increment();
+        }
+
+        /**
+         * Records that the command was refused because too many async commands were waiting.
+         */
+        public void rejected() {
+            this.rejected.increment();
+        }
+
+        public Histogram get(Stage stage) {
+            return this.stages.get(stage);
+        }
+
+        /**
+         * Gets the number of times the command has run, whether or not it succeeded.
+         *
+         * @return The number of runs.
+         */
+        public long getRuns() {
+            return get(Stage.EXECUTE).getCount();
+        }
+
+        public long getFailures() {
+            return this.failures.sum();
+        }
+
+        public long getRejected() {
+            return this.rejected.sum();
+        }
+    }
+
+    /**
+     * A histogram of times, with a bucket for each power of two microseconds.
+     */
+    public static final class Histogram {
+
+        // Bucket 0 holds times under a microsecond, bucket i holds times from 2^(i-1) up to 2^i microseconds. The last
+        // bucket holds everything from about eighteen minutes.
+        private static final int BUCKETS = 32;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos) / 1000;
+            this.buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))].increment();
+            this.total.add(nanos);
+            this.max.accumulate(nanos);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : this.buckets) {
+                count += bucket.sum();
+            }
+
+            return count;
+        }
+
+        public long getMean(TimeUnit unit) {
+            long count = getCount();
+            return count == 0 ? 0 : unit.convert(this.total.sum() / count, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMax(TimeUnit unit) {
+            return unit.convert(this.max.get(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Gets the time that the given fraction of the recorded times were below. This is the upper bound of the
+         * bucket that the percentile falls in, capped at the longest time recorded.
+         *
+         * @param fraction The percentile, as a fraction between 0 and 1.
+         * @param unit The {@link TimeUnit} to return the time in.
+         * @return The time.
+         */
+        public long getPercentile(double fraction, TimeUnit unit) {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.buckets[i].sum();
+                count += counts[i];
+            }
+
+            if (count == 0) {
+                return 0;
+            }
+
+            long target = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(unit.convert((1L << i) * 1000, TimeUnit.NANOSECONDS), getMax(unit));
+                }
+            }
+
+            return getMax(unit);
+        }
+    }
+}
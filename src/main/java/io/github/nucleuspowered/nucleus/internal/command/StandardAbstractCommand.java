@@ -7,6 +7,7 @@ package io.github.nucleuspowered.nucleus.internal.command;
 import co.aikar.timings.Timing;
 import co.aikar.timings.Timings;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -32,6 +33,7 @@ import io.github.nucleuspowered.nucleus.internal.annotations.command.NoModifiers
 import io.github.nucleuspowered.nucleus.internal.annotations.command.NoTimings;
 import io.github.nucleuspowered.nucleus.internal.annotations.command.NoWarmup;
 import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCommand;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
 import io.github.nucleuspowered.nucleus.internal.permissions.PermissionInformation;
 import io.github.nucleuspowered.nucleus.internal.permissions.SubjectPermissionCache;
 import io.github.nucleuspowered.nucleus.modules.core.config.WarmupConfig;
@@ -81,8 +83,7 @@ import org.spongepowered.api.world.storage.WorldProperties;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -113,14 +114,16 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
     private final boolean isAsync = this.getClass().getAnnotation(RunAsync.class) != null;
 
     private Timing commandTimings = TimingsDummy.DUMMY;
+    private CommandMetrics.CommandStatistics statistics;
     // A period separated list of parent commands, starting with the prefix. Period terminated.
     private final String commandPath;
 
+    // The command path as it is shown to the user, such as "world border set".
+    private final String commandName;
+
     // Null until set, then should be considered immutable.
     @Nullable private Set<Class<? extends StandardAbstractCommand<?>>> moduleCommands = null;
 
-    private final Map<UUID, Instant> cooldownStore = Maps.newHashMap();
-
     protected final CommandPermissionHandler permissions;
     protected final String[] aliases;
     private final String[] forcedAliases;
@@ -138,6 +141,9 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
     private final SimpleDispatcher dispatcher = new SimpleDispatcher(SimpleDispatcher.FIRST_DISAMBIGUATOR);
 
+    // The children in the dispatcher, by lower case alias. Built in postInit, so that dispatch is a single lookup.
+    private ImmutableSortedMap<String, ChildCommand> children = ImmutableSortedMap.of();
+
     private final UsageCommand usageCommand = new UsageCommand();
 
     protected final Nucleus plugin;
@@ -149,6 +155,9 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
     private final String warmupKey;
     private final String cooldownKey;
+
+    // The key of this command's cooldowns in the CooldownService.
+    private final String cooldownServiceKey;
     private final String costKey;
 
     private final Predicate<CommandSource> sourceTypePredicate;
@@ -183,6 +192,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
         }
 
         this.commandPath = getSubcommandOf();
+        this.commandName = this.commandPath.replace(".", " ");
 
         // Now, if this is
         RegisterCommand rc = this.getClass().getAnnotation(RegisterCommand.class);
@@ -253,6 +263,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
         this.warmupKey = "nucleus." + configSection + ".warmup";
         this.cooldownKey = "nucleus." + configSection + ".cooldown";
+        this.cooldownServiceKey = "nucleus:command." + this.commandPath;
         this.costKey = "nucleus." + configSection + ".cost";
 
         this.requiresEconomy = this.getClass().isAnnotationPresent(RequiresEconomy.class);
@@ -273,6 +284,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
         // Injector
         this.plugin = Nucleus.getNucleus();
+        this.statistics = this.plugin.getCommandMetrics().get(this.commandName);
     }
 
     /**
@@ -319,6 +331,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
         this.argumentParser = GenericArguments.seq(getArguments());
         createChildCommands();
+        compileChildCommands();
 
         afterPostInit();
 
@@ -338,35 +351,36 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
         // Create the arguments
         CommandArgs args = new CommandArgs(arguments, tokeniser.tokenize(arguments, false));
 
-        return process(source, this.commandPath.replace(".", " "), arguments, args);
+        return process(source, this.commandName, arguments, args);
     }
 
     public CommandResult process(CommandSource source, String command, String arguments, CommandArgs args) throws CommandException {
-        // Phase one: child command processing. Keep track of all thrown arguments.
-        List<Tuple<String, CommandException>> thrown = Lists.newArrayList();
+        // Phase one: child command processing. Keep track of all thrown arguments. Most commands succeed, so the list is
+        // only created when something is thrown.
+        List<Tuple<String, CommandException>> thrown = null;
 
         CommandContext context;
         SubjectPermissionCache<T> sourceSubjectPermissionCache;
 
         try {
             // If we have a child command to execute, then we execute it.
-            if (args.hasNext() && this.dispatcher.containsAlias(args.peek())) {
+            ChildCommand child = args.hasNext() && !this.children.isEmpty() ? this.children.get(args.peek().toLowerCase()) : null;
+            if (child != null) {
                 Object state = args.getState();
-                String next = args.next();
+                args.next();
                 try {
                     // If this works, then we're A-OK.
-                    CommandCallable callable = this.dispatcher.get(next.toLowerCase()).get().getCallable();
-                    if (callable instanceof StandardAbstractCommand) {
-                        return ((StandardAbstractCommand) callable).process(source, command + " " + next, arguments, args);
+                    if (child.callable instanceof StandardAbstractCommand) {
+                        return ((StandardAbstractCommand<?>) child.callable).process(source, child.name, arguments, args);
                     }
 
-                    return callable.process(source, arguments);
+                    return child.callable.process(source, arguments);
                 } catch (NucleusCommandException e) {
                     // Didn't work out. Let's move on.
-                    thrown.addAll(e.getExceptions());
+                    thrown = Lists.newArrayList(e.getExceptions());
                 } catch (CommandException e) {
                     // If the Exception is _not_ of right type, wrap it and add it. This shouldn't happen though.
-                    thrown.add(Tuple.of(command + " " + next, e));
+                    thrown = addThrown(null, child.name, e);
                 } finally {
                     args.setState(state);
                 }
@@ -387,7 +401,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
             }
 
             if (!this.hasExecutor) {
-                if (thrown.isEmpty()) {
+                if (thrown == null) {
                     // OK, we just process the usage command instead.
                     return this.usageCommand.process(source, "", args.nextIfPresent().map(String::toLowerCase).orElse(null));
                 } else {
@@ -397,27 +411,35 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
             // Phase four - create the context and parse the arguments.
             context = new CommandContext();
-            this.argumentParser.parse(source, args, context);
+            long parseStart = System.nanoTime();
+            try {
+                this.argumentParser.parse(source, args, context);
+            } catch (ArgumentParseException e) {
+                this.statistics.failed();
+                throw e;
+            } finally {
+                this.statistics.record(CommandMetrics.Stage.PARSE, System.nanoTime() - parseStart);
+            }
+
             if (args.hasNext()) {
-                thrown.add(Tuple.of(command, new NucleusArgumentParseException(
+                this.statistics.failed();
+                throw new NucleusCommandException(addThrown(thrown, command, new NucleusArgumentParseException(
                     Text.of(TextColors.RED, "Too many arguments"),
                     args.getRaw(),
                     args.getRawPosition(),
                     Text.of(getSimpleUsage(source)),
                     getChildrenUsage(source).orElse(null),
                     true)));
-                throw new NucleusCommandException(thrown);
             }
         } catch (NucleusCommandException nce) {
             throw nce;
         } catch (ArgumentParseException ape) {
             // get the command to get the usage/subs from.
-            thrown.add(Tuple.of(command, NucleusArgumentParseException.from(ape, Text.of(getSimpleUsage(source)),
+            throw new NucleusCommandException(addThrown(thrown, command, NucleusArgumentParseException.from(ape, Text.of(getSimpleUsage(source)),
                 getChildrenUsage(source).orElse(null))));
-            throw new NucleusCommandException(thrown);
         } catch (CommandException ex) {
-            thrown.add(Tuple.of(command, ex)); // Errors at this point are expected, so we'll run with it - no need for debug mode checks.
-            throw new NucleusCommandException(thrown);
+            // Errors at this point are expected, so we'll run with it - no need for debug mode checks.
+            throw new NucleusCommandException(addThrown(thrown, command, ex));
         } catch (Throwable throwable) {
             String m;
             if (throwable.getMessage() == null) {
@@ -426,9 +448,8 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
                 m = throwable.getMessage();
             }
 
-            thrown.add(
-                Tuple.of(command, new CommandException(
-                    Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat("command.exception.unexpected", m), throwable)));
+            thrown = addThrown(thrown, command, new CommandException(
+                    Nucleus.getNucleus().getMessageProvider().getTextMessageWithFormat("command.exception.unexpected", m), throwable));
 
             if (plugin.isDebugMode()) {
                 throwable.printStackTrace();
@@ -439,25 +460,30 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
         try {
             commandTimings.startTimingIfSync();
-            ContinueMode mode = preProcessChecks(sourceSubjectPermissionCache, context);
-            if (!mode.cont) {
-                return mode.returnType;
+            ContinueMode mode;
+            long checksStart = System.nanoTime();
+            try {
+                mode = preProcessChecks(sourceSubjectPermissionCache, context);
+                if (mode.cont && sourceSubjectPermissionCache.getSubject() instanceof Player) {
+                    @SuppressWarnings("unchecked")
+                    ContinueMode cm = runChecks((SubjectPermissionCache<Player>) sourceSubjectPermissionCache, context);
+                    mode = cm;
+                }
+            } finally {
+                this.statistics.record(CommandMetrics.Stage.CHECKS, System.nanoTime() - checksStart);
             }
 
-            if (sourceSubjectPermissionCache.getSubject() instanceof Player) {
-                @SuppressWarnings("unchecked")
-                ContinueMode cm = runChecks((SubjectPermissionCache<Player>) sourceSubjectPermissionCache, context);
-
-                if (!cm.cont) {
-                    return cm.returnType;
-                }
+            if (!mode.cont) {
+                return mode.returnType;
             }
 
             // If we're running async...
             if (isAsync) {
                 // Create an executor that runs the command async.
                 plugin.getLogger().debug("Running " + this.getClass().getName() + " in async mode.");
-                Sponge.getScheduler().createAsyncExecutor(plugin).execute(() -> onExecute(sourceSubjectPermissionCache, context));
+                if (!submitAsync(sourceSubjectPermissionCache, context)) {
+                    return CommandResult.empty();
+                }
 
                 // Tell Sponge we're done.
                 return CommandResult.success();
@@ -469,11 +495,51 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
         }
     }
 
+    private static List<Tuple<String, CommandException>> addThrown(@Nullable List<Tuple<String, CommandException>> thrown, String command,
+            CommandException exception) {
+        List<Tuple<String, CommandException>> list = thrown == null ? Lists.newArrayList() : thrown;
+        list.add(Tuple.of(command, exception));
+        return list;
+    }
+
+    /**
+     * Queues the command on the {@link AsyncCommandExecutor}. If too many commands are waiting, the source is told, and
+     * any cost that was taken is refunded.
+     *
+     * @param src The {@link SubjectPermissionCache} of the source.
+     * @param context The {@link CommandContext}.
+     * @return <code>true</code> if the command was queued.
+     */
+    private boolean submitAsync(SubjectPermissionCache<T> src, CommandContext context) {
+        UUID source = src.getSubject() instanceof Player ? ((Player) src.getSubject()).getUniqueId() : AsyncCommandExecutor.SERVER;
+        if (plugin.getAsyncCommandExecutor().submit(source, commandName, () -> onExecute(src, context))) {
+            return true;
+        }
+
+        src.getSubject().sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.async.rejected"));
+        if (src.getSubject() instanceof Player) {
+            double cost = getCost(src, context);
+            if (cost > 0) {
+                plugin.getEconHelper().depositInPlayer((Player) src.getSubject(), cost);
+            }
+        }
+
+        return false;
+    }
+
     private CommandResult onExecute(SubjectPermissionCache<T> sourceSubjectPermissionCache, CommandContext context) {
+        long start = System.nanoTime();
+        CommandResult result = runExecute(sourceSubjectPermissionCache, context);
+        this.statistics.record(CommandMetrics.Stage.EXECUTE, System.nanoTime() - start);
+        return result;
+    }
+
+    private CommandResult runExecute(SubjectPermissionCache<T> sourceSubjectPermissionCache, CommandContext context) {
         // Phase five - let's execute! As we got this far,
         try {
             return startExecute(sourceSubjectPermissionCache, context);
         } catch (TextMessageException ex) {
+            this.statistics.failed();
             if (plugin.isDebugMode()) {
                 ex.printStackTrace();
             }
@@ -482,6 +548,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
                     plugin.getMessageProvider().getTextMessageWithTextFormat("command.exception.unexpected", ex.getText()));
             return CommandResult.empty();
         } catch (Throwable throwable) {
+            this.statistics.failed();
             if (plugin.isDebugMode()) {
                 throwable.printStackTrace();
             }
@@ -517,6 +584,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
                 args.<Action>getAll(NucleusProcessing.SUCCESS_KEY).forEach(Action::action);
             }
         } catch (ReturnMessageException e) {
+            this.statistics.failed();
             Text t = e.getText();
             src.getSubject()
                     .sendMessage((t == null) ? NucleusPlugin.getNucleus().getMessageProvider().getTextMessageWithFormat("command.error") : t);
@@ -560,13 +628,41 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
 
         // Subcommand
         Object state = args.getState();
-        options.addAll(this.dispatcher.getSuggestions(source, arguments, targetPosition));
+        options.addAll(getChildSuggestions(source, arguments, args, targetPosition));
         args.setState(state);
 
         options.addAll(this.argumentParser.complete(source, args, context));
         return options.stream().distinct().collect(Collectors.toList());
     }
 
+    /**
+     * Gets the suggestions from the children, as the {@link SimpleDispatcher} would, without splitting the arguments
+     * again.
+     */
+    private List<String> getChildSuggestions(CommandSource source, String arguments, CommandArgs args,
+            @Nullable Location<World> targetPosition) throws CommandException {
+        if (this.children.isEmpty() || !args.hasNext()) {
+            return Lists.newArrayList();
+        }
+
+        String alias = args.next().toLowerCase();
+        if (!args.hasNext()) {
+            // Still typing the alias of the child.
+            return this.children.subMap(alias, true, alias + Character.MAX_VALUE, true).entrySet().stream()
+                    .filter(x -> x.getValue().callable.testPermission(source))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+
+        ChildCommand child = this.children.get(alias);
+        if (child == null || !child.callable.testPermission(source)) {
+            return Lists.newArrayList();
+        }
+
+        String[] split = arguments.split(" ", 2);
+        return child.callable.getSuggestions(source, split.length == 2 ? split[1] : "", targetPosition);
+    }
+
     /**
      * Checks to see if this command can be run by this {@link CommandSource}
      *
@@ -878,7 +974,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
     private SubjectPermissionCache<T> checkSourceType(CommandSource source) throws CommandException {
         if (sourceTypePredicate.test(source)) {
             // Yep, we're OK.
-            return new SubjectPermissionCache<>((T)source);
+            return new SubjectPermissionCache<>((T)source, plugin.getPermissionCache());
         }
 
         if (sourceType.equals(Player.class) && !(source instanceof Player)) {
@@ -1024,7 +1120,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
         }
 
         // Get the warmup time.
-        return Util.getPositiveIntOptionFromSubject(src.getSubject(), warmupKey)
+        return plugin.getPermissionCache().getOption(src.getSubject(), OptionParser.POSITIVE_INT, warmupKey)
             .orElseGet(() -> this.plugin.getCommandsConfig().getCommandNode(configSection).getNode("warmup").getInt());
     }
 
@@ -1050,15 +1146,16 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
                     public void accept(Task task) {
                         src.getSubject().sendMessage(NucleusPlugin.getNucleus().getMessageProvider().getTextMessageWithFormat("warmup.end"));
                         plugin.getWarmupManager().removeWarmup(src.getSubject().getUniqueId());
-                        onExecute((SubjectPermissionCache<T>)src, args);
+
+                        // Run an async command async, of course!
+                        if (isAsync) {
+                            submitAsync((SubjectPermissionCache<T>)src, args);
+                        } else {
+                            onExecute((SubjectPermissionCache<T>)src, args);
+                        }
                     }
                 }).name("Command Warmup - " + src.getSubject().getName());
 
-        // Run an async command async, of course!
-        if (isAsync) {
-            tb.async();
-        }
-
         // Add the warmup to the service so we can cancel it if we need to.
         plugin.getWarmupManager().addWarmup(src.getSubject().getUniqueId(), tb.submit(plugin));
 
@@ -1083,18 +1180,14 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
     // Cooldowns
     // -------------------------------------
     private ContinueMode checkCooldown(SubjectPermissionCache<Player> src, CommandContext args) {
-        // Remove any expired cooldowns.
-        cleanCooldowns();
-
-        // If they are still in there, then tell them they are still cooling
-        // down.
-        if (!bypassCooldown && !args.hasAny(NoModifiersArgument.NO_COOLDOWN_ARGUMENT) &&
-            !permissions.testCooldownExempt(src) && cooldownStore.containsKey(src.getSubject().getUniqueId())) {
-
-            Instant l = cooldownStore.get(src.getSubject().getUniqueId());
-            src.getSubject().sendMessage(NucleusPlugin.getNucleus().getMessageProvider().getTextMessageWithFormat("cooldown.message",
-                    Util.getTimeStringFromSeconds(l.until(Instant.now(), ChronoUnit.SECONDS))));
-            return ContinueMode.STOP;
+        // If they are still cooling down, then tell them.
+        if (!bypassCooldown && !args.hasAny(NoModifiersArgument.NO_COOLDOWN_ARGUMENT) && !permissions.testCooldownExempt(src)) {
+            Optional<Duration> remaining = plugin.getCooldownService().getRemainingCooldown(src.getSubject().getUniqueId(), cooldownServiceKey);
+            if (remaining.isPresent()) {
+                src.getSubject().sendMessage(NucleusPlugin.getNucleus().getMessageProvider().getTextMessageWithFormat("cooldown.message",
+                        Util.getTimeStringFromSeconds(remaining.get().getSeconds())));
+                return ContinueMode.STOP;
+            }
         }
 
         return ContinueMode.CONTINUE;
@@ -1103,23 +1196,17 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
     private void setCooldown(SubjectPermissionCache<Player> src, CommandContext args) {
         if (!args.hasAny(NoModifiersArgument.NO_COOLDOWN_ARGUMENT) && !permissions.testCooldownExempt(src)) {
             // Get the cooldown time.
-            int cooldownTime = Util.getPositiveIntOptionFromSubject(src.getSubject(), cooldownKey)
+            int cooldownTime = plugin.getPermissionCache().getOption(src.getSubject(), OptionParser.POSITIVE_INT, cooldownKey)
                 .orElseGet(() -> plugin.getCommandsConfig().getCommandNode(configSection).getNode("cooldown").getInt());
             if (cooldownTime > 0) {
-                // If there is a cooldown, add the cooldown to the list, with
-                // the end time as an Instant.
-                cooldownStore.put(src.getSubject().getUniqueId(), Instant.now().plus(cooldownTime, ChronoUnit.SECONDS));
+                // If there is a cooldown, start it.
+                plugin.getCooldownService().setCooldown(src.getSubject().getUniqueId(), cooldownServiceKey, Duration.ofSeconds(cooldownTime));
             }
         }
     }
 
     protected void removeCooldown(UUID uuid) {
-        cooldownStore.remove(uuid);
-    }
-
-    private void cleanCooldowns() {
-        // If the cooldown end is in the past, remove it.
-        cooldownStore.entrySet().removeIf(k -> k.getValue().isBefore(Instant.now()));
+        plugin.getCooldownService().removeCooldown(uuid, cooldownServiceKey);
     }
 
     // -------------------------------------
@@ -1163,7 +1250,7 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
             }
 
             // Return the cost if positive, else, zero.
-            double cost = Util.getDoubleOptionFromSubject(src, costKey)
+            double cost = plugin.getPermissionCache().getOption(src.getSubject(), OptionParser.DOUBLE, costKey)
                 .orElseGet(() -> plugin.getCommandsConfig().getCommandNode(configSection).getNode("cost").getDouble(0.));
             if (cost <= 0.) {
                 return 0.;
@@ -1207,6 +1294,34 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
         }
     }
 
+    private void compileChildCommands() {
+        ImmutableSortedMap.Builder<String, ChildCommand> builder = ImmutableSortedMap.naturalOrder();
+        for (String alias : this.dispatcher.getAliases()) {
+            this.dispatcher.get(alias).ifPresent(x -> {
+                String name = x.getCallable() instanceof StandardAbstractCommand ?
+                        ((StandardAbstractCommand<?>) x.getCallable()).commandName : this.commandName + " " + alias;
+                builder.put(alias.toLowerCase(), new ChildCommand(x.getCallable(), name));
+            });
+        }
+
+        this.children = builder.build();
+    }
+
+    /**
+     * Gets the child command that the given alias runs, with the same lookup that {@link #process} uses.
+     *
+     * @param alias The alias of the child.
+     * @return The child, or <code>null</code> if there is no child with that alias.
+     */
+    @Nullable CommandCallable getChildCommand(String alias) {
+        ChildCommand child = this.children.get(alias.toLowerCase());
+        return child == null ? null : child.callable;
+    }
+
+    SimpleDispatcher getDispatcher() {
+        return this.dispatcher;
+    }
+
     void setModuleName(String id, String module) {
         if (this.module == null) {
             this.moduleId = id;
@@ -1323,6 +1438,19 @@ public abstract class StandardAbstractCommand<T extends CommandSource> implement
         }
     }
 
+    private static final class ChildCommand {
+
+        private final CommandCallable callable;
+
+        // The name to report errors against.
+        private final String name;
+
+        private ChildCommand(CommandCallable callable, String name) {
+            this.callable = callable;
+            this.name = name;
+        }
+    }
+
     /**
      * If this is implemented, signifies that this command should be run on reload.
      */
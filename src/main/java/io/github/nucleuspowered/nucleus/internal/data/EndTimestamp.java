@@ -51,11 +51,19 @@ public abstract class EndTimestamp implements TimedEntry {
         this.endtimestamp = null;
     }
 
-    public void nextLoginToTimestamp() {
+    /**
+     * Starts the timer if it was waiting for the next login.
+     *
+     * @return <code>true</code> if this was changed, and so needs saving.
+     */
+    public boolean nextLoginToTimestamp() {
         if (timeFromNextLogin != null && endtimestamp == null) {
             endtimestamp = Instant.now().plus(timeFromNextLogin, ChronoUnit.SECONDS).getEpochSecond();
             timeFromNextLogin = null;
+            return true;
         }
+
+        return false;
     }
 
     @Override public Optional<Duration> getRemainingTime() {
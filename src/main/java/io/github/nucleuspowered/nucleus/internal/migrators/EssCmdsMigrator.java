@@ -16,6 +16,7 @@ import io.github.hsyyid.essentialcmds.utils.Mail;
 import io.github.hsyyid.essentialcmds.utils.Utils;
 import io.github.nucleuspowered.nucleus.Nucleus;
 import io.github.nucleuspowered.nucleus.api.service.NucleusWarpService;
+import io.github.nucleuspowered.nucleus.configurate.datatypes.ItemDataNode;
 import io.github.nucleuspowered.nucleus.configurate.datatypes.item.BlacklistNode;
 import io.github.nucleuspowered.nucleus.dataservices.ItemDataService;
 import io.github.nucleuspowered.nucleus.modules.environment.datamodule.EnvironmentWorldDataModule;
@@ -77,11 +78,12 @@ public class EssCmdsMigrator extends DataMigrator {
             ItemType itemType = Sponge.getRegistry().getType(ItemType.class, item).orElse(ItemTypes.NONE);
 
             if (itemType != ItemTypes.NONE) {
-                BlacklistNode bn = ids.getDataForItem(itemType.getId()).getBlacklist();
+                ItemDataNode idn = ids.getDataForItem(itemType.getId());
+                BlacklistNode bn = idn.getBlacklist();
                 bn.setUse(true);
                 bn.setEnvironment(true);
                 bn.setInventory(true);
-                ids.save();
+                ids.setDataForItem(itemType.getId(), idn);
             }
         }
 
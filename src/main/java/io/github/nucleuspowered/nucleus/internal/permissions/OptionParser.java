@@ -0,0 +1,50 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.permissions;
+
+import io.github.nucleuspowered.nucleus.util.ThrownFunction;
+
+import java.util.Optional;
+
+/**
+ * Turns the value of a permission option into the type it is used as.
+ *
+ * <p>The {@link SessionPermissionCache} caches parsed values separately for each parser, so each parser should be
+ * created once and kept, rather than created for each lookup.</p>
+ *
+ * @param <T> The type of the parsed value.
+ */
+public final class OptionParser<T> {
+
+    public static final OptionParser<String> STRING = of(x -> x);
+    public static final OptionParser<Integer> INT = of(Integer::parseInt);
+    public static final OptionParser<Integer> POSITIVE_INT = of(Integer::parseUnsignedInt);
+    public static final OptionParser<Long> POSITIVE_LONG = of(Long::parseUnsignedLong);
+    public static final OptionParser<Double> DOUBLE = of(Double::parseDouble);
+
+    public static <T> OptionParser<T> of(ThrownFunction<String, T, Exception> parser) {
+        return new OptionParser<>(parser);
+    }
+
+    private final ThrownFunction<String, T, Exception> parser;
+
+    private OptionParser(ThrownFunction<String, T, Exception> parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Parses the value of an option.
+     *
+     * @param value The value.
+     * @return The parsed value, or {@link Optional#empty()} if it could not be parsed.
+     */
+    public Optional<T> parse(String value) {
+        try {
+            return Optional.ofNullable(this.parser.accept(value));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.permissions;
+
+import com.google.common.collect.ImmutableSet;
+import org.spongepowered.api.entity.living.player.User;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.permission.Subject;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Caches the permission and option checks of each online player for as long as they are online, so that listeners
+ * that run for every chat message or command do not go to the permission plugin every time.
+ *
+ * <p>Options are cached after they have been parsed by an {@link OptionParser}, so a number, colour or style is only
+ * parsed once, and each {@link OptionParser} has its own cache.</p>
+ *
+ * <p>A result is only used if it was checked in the same contexts that are being asked about, and it is thrown away
+ * after the expiry time, so changes made by a permission plugin are seen within that time. Everything cached for a
+ * player is thrown away when they join or leave, and everything is thrown away when Nucleus is reloaded.</p>
+ *
+ * <p>Subjects that are not online players, such as the console, groups or offline users, are always checked
+ * directly.</p>
+ */
+public class SessionPermissionCache {
+
+    private final LongSupplier clock;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean enabled = true;
+    private volatile long expiryNanos = TimeUnit.SECONDS.toNanos(30);
+
+    public SessionPermissionCache() {
+        this(System::nanoTime);
+    }
+
+    public SessionPermissionCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets whether results are cached, and for how long, throwing away everything that is cached.
+     *
+     * @param enabled Whether results are cached.
+     * @param expirySeconds The number of seconds to keep each result for.
+     */
+    public void setExpiry(boolean enabled, long expirySeconds) {
+        this.enabled = enabled && expirySeconds > 0;
+        this.expiryNanos = TimeUnit.SECONDS.toNanos(Math.max(0, expirySeconds));
+        invalidateAll();
+    }
+
+    /**
+     * Starts caching the checks of a player, such as when they join.
+     *
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void startSession(UUID uuid) {
+        this.sessions.put(uuid, new Session());
+    }
+
+    /**
+     * Stops caching the checks of a player, such as when they leave.
+     *
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void endSession(UUID uuid) {
+        this.sessions.remove(uuid);
+    }
+
+    /**
+     * Throws away everything that has been cached for a player.
+     *
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void invalidate(UUID uuid) {
+        // Swap the session rather than clearing it, so a check that is running now cannot put an old result back.
+        this.sessions.replace(uuid, new Session());
+    }
+
+    /**
+     * Throws away everything that has been cached.
+     */
+    public void invalidateAll() {
+        this.sessions.replaceAll((k, v) -> new Session());
+    }
+
+    public boolean hasPermission(Subject subject, String permission) {
+        return hasPermission(subject, subject.getActiveContexts(), permission);
+    }
+
+    public boolean hasPermission(Subject subject, Set<Context> contexts, String permission) {
+        Session session = getSession(subject);
+        if (session == null) {
+            return subject.hasPermission(contexts, permission);
+        }
+
+        return get(session.permissions, permission, contexts, () -> subject.hasPermission(contexts, permission));
+    }
+
+    public Optional<String> getOption(Subject subject, String key) {
+        return getOption(subject, subject.getActiveContexts(), OptionParser.STRING, key);
+    }
+
+    public Optional<String> getOption(Subject subject, Set<Context> contexts, String key) {
+        return getOption(subject, contexts, OptionParser.STRING, key);
+    }
+
+    /**
+     * Gets the first of the given options that is set on a {@link Subject} in its active contexts, and can be parsed.
+     *
+     * @param subject The {@link Subject}.
+     * @param parser The {@link OptionParser} to parse the option with.
+     * @param keys The options to check, in order.
+     * @param <T> The type of the parsed option.
+     * @return The parsed option, if there is one.
+     */
+    public <T> Optional<T> getOption(Subject subject, OptionParser<T> parser, String... keys) {
+        Set<Context> contexts = subject.getActiveContexts();
+        for (String key : keys) {
+            Optional<T> value = getOption(subject, contexts, parser, key.toLowerCase());
+            if (value.isPresent()) {
+                return value;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private <T> Optional<T> getOption(Subject subject, Set<Context> contexts, OptionParser<T> parser, String key) {
+        Session session = getSession(subject);
+        if (session == null) {
+            return subject.getOption(contexts, key).flatMap(parser::parse);
+        }
+
+        return get(session.getOptions(parser), key, contexts, () -> subject.getOption(contexts, key).flatMap(parser::parse));
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public int getSessions() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Gets the number of results that are cached, including those that have expired but have not yet been checked
+     * again.
+     *
+     * @return The number of results.
+     */
+    public int getSize() {
+        return this.sessions.values().stream()
+                .mapToInt(x -> x.permissions.size() + x.options.values().stream().mapToInt(Map::size).sum()).sum();
+    }
+
+    @Nullable
+    private Session getSession(Subject subject) {
+        // An online player may be asked about as a User, which has the same permissions.
+        if (!this.enabled || !(subject instanceof User)) {
+            return null;
+        }
+
+        return this.sessions.get(((User) subject).getUniqueId());
+    }
+
+    private <T> T get(Map<String, Entry<T>> cache, String key, Set<Context> contexts, Supplier<T> check) {
+        long now = this.clock.getAsLong();
+        Entry<T> entry = cache.get(key);
+        if (entry != null && entry.expires - now > 0 && entry.contexts.equals(contexts)) {
+            this.hits.increment();
+            return entry.value;
+        }
+
+        this.misses.increment();
+        T value = check.get();
+        cache.put(key, new Entry<>(ImmutableSet.copyOf(contexts), value, now + this.expiryNanos));
+        return value;
+    }
+
+    private static final class Session {
+
+        private final Map<String, Entry<Boolean>> permissions = new ConcurrentHashMap<>();
+        private final Map<OptionParser<?>, Map<String, Entry<?>>> options = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private <T> Map<String, Entry<Optional<T>>> getOptions(OptionParser<T> parser) {
+            return (Map<String, Entry<Optional<T>>>) (Map<String, ?>) this.options.computeIfAbsent(parser, k -> new ConcurrentHashMap<>());
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final Set<Context> contexts;
+        private final T value;
+        private final long expires;
+
+        private Entry(Set<Context> contexts, T value, long expires) {
+            this.contexts = contexts;
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
@@ -18,9 +18,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 /**
  * An object to pass around that contains a {@link Subject} and caches all permission checks within it.
  *
+ * <p>Checks that are not yet cached here are passed to the {@link SessionPermissionCache}, if one is given, so that
+ * they are shared with later commands. Overrides only apply to this object.</p>
+ *
  * @param <S> The type of {@link Subject}
  */
 @NonnullByDefault
@@ -29,13 +34,19 @@ public class SubjectPermissionCache<S extends Subject> implements Subject {
     private final S subject;
     private final Map<String, Boolean> permissionCache = Maps.newHashMap();
     private final Map<String, Optional<String>> optionCache = Maps.newHashMap();
+    @Nullable private final SessionPermissionCache sessionCache;
 
     public SubjectPermissionCache(S subject) {
+        this(subject, (SessionPermissionCache) null);
+    }
+
+    public SubjectPermissionCache(S subject, @Nullable SessionPermissionCache sessionCache) {
         this.subject = subject;
+        this.sessionCache = sessionCache;
     }
 
     public SubjectPermissionCache(S subject, SubjectPermissionCache<? extends Subject> subjectCache) {
-        this(subject);
+        this(subject, subjectCache.sessionCache);
         permissionsFrom(subjectCache);
     }
 
@@ -71,12 +82,16 @@ public class SubjectPermissionCache<S extends Subject> implements Subject {
 
     // Overriden for performance reasons.
     @Override public boolean hasPermission(Set<Context> contexts, String permission) {
-        return permissionCache.computeIfAbsent(permission.toLowerCase(), k -> this.subject.hasPermission(contexts, k));
+        return permissionCache.computeIfAbsent(permission.toLowerCase(), k -> check(contexts, k));
     }
 
     @Override public Tristate getPermissionValue(Set<Context> contexts, String permission) {
-        return permissionCache.computeIfAbsent(permission.toLowerCase(), k -> this.subject.hasPermission(contexts, k))
-                ? Tristate.TRUE : Tristate.FALSE;
+        return permissionCache.computeIfAbsent(permission.toLowerCase(), k -> check(contexts, k)) ? Tristate.TRUE : Tristate.FALSE;
+    }
+
+    private boolean check(Set<Context> contexts, String permission) {
+        return this.sessionCache == null ? this.subject.hasPermission(contexts, permission)
+                : this.sessionCache.hasPermission(this.subject, contexts, permission);
     }
 
     @Override public boolean isChildOf(Set<Context> contexts, Subject parent) {
@@ -88,7 +103,8 @@ public class SubjectPermissionCache<S extends Subject> implements Subject {
     }
 
     @Override public Optional<String> getOption(Set<Context> contexts, String key) {
-        return optionCache.computeIfAbsent(key.toLowerCase(), subject::getOption);
+        return optionCache.computeIfAbsent(key.toLowerCase(),
+                k -> this.sessionCache == null ? this.subject.getOption(k) : this.sessionCache.getOption(this.subject, k));
     }
 
     @Override public String getIdentifier() {
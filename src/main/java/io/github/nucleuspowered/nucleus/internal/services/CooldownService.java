@@ -0,0 +1,359 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.internal.services;
+
+import com.google.common.base.Preconditions;
+import io.github.nucleuspowered.nucleus.api.service.NucleusCooldownService;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.DataProvider;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Holds all cooldowns, and removes them when they expire.
+ *
+ * <p>Cooldowns are looked up in a concurrent map, and checked against the current time, so a lookup never waits. To
+ * remove expired cooldowns without scanning them all, each one is also placed in a hierarchical timing wheel. The
+ * lowest level has a slot for each of the next 64 seconds, and each level above has 64 slots that each cover 64 times
+ * as long as those of the level below. A cooldown is placed in the slot for its expiry on the lowest level that
+ * reaches that far, and moves down a level each time the level below comes round to it. Adding, removing and expiring
+ * a cooldown each take constant time. The wheel is turned by whichever call first notices that a second has
+ * passed.</p>
+ */
+public class CooldownService implements NucleusCooldownService {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    // The furthest tick that can be placed on the wheel, relative to the next tick. Cooldowns that expire later go in
+    // the last slot that will be reached, and are placed again when it is.
+    private static final long SPAN = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Map<CooldownKey, Cooldown> cooldowns = new ConcurrentHashMap<>();
+    private final Object wheelLock = new Object();
+
+    @GuardedBy("wheelLock")
+    private final List<List<Set<Cooldown>>> wheel = new ArrayList<>(LEVELS);
+
+    // The last tick that has been processed.
+    private volatile long currentTick;
+
+    @Nullable private final DataProvider<Map<String, Map<String, Long>>> dataProvider;
+    private final Logger logger;
+    private final LongSupplier clock;
+    private volatile boolean persistent = false;
+    private boolean loaded = false;
+
+    public CooldownService(@Nullable DataProvider<Map<String, Map<String, Long>>> dataProvider, Logger logger) {
+        this(dataProvider, logger, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the service with the given clock. For testing.
+     *
+     * @param dataProvider The {@link DataProvider} that cooldowns are persisted to, if they are.
+     * @param logger The {@link Logger}.
+     * @param clock Supplies the current time, in milliseconds since the epoch.
+     */
+    public CooldownService(@Nullable DataProvider<Map<String, Map<String, Long>>> dataProvider, Logger logger, LongSupplier clock) {
+        this.dataProvider = dataProvider;
+        this.logger = logger;
+        this.clock = clock;
+        for (int i = 0; i < LEVELS; i++) {
+            List<Set<Cooldown>> level = new ArrayList<>(SLOTS);
+            for (int j = 0; j < SLOTS; j++) {
+                level.add(new HashSet<>());
+            }
+
+            this.wheel.add(level);
+        }
+
+        this.currentTick = clock.getAsLong() / TICK_MILLIS;
+    }
+
+    @Override public void setCooldown(UUID user, String key, Duration duration) {
+        Preconditions.checkNotNull(user);
+        Preconditions.checkNotNull(key);
+        if (duration.isZero() || duration.isNegative()) {
+            removeCooldown(user, key);
+            return;
+        }
+
+        set(new CooldownKey(user, key), this.clock.getAsLong() + duration.toMillis());
+    }
+
+    @Override public Optional<Duration> getRemainingCooldown(UUID user, String key) {
+        long now = this.clock.getAsLong();
+        advance(now);
+        Cooldown cooldown = this.cooldowns.get(new CooldownKey(user, key));
+        if (cooldown == null || cooldown.expiry <= now) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Duration.ofMillis(cooldown.expiry - now));
+    }
+
+    @Override public boolean removeCooldown(UUID user, String key) {
+        Cooldown cooldown = this.cooldowns.remove(new CooldownKey(user, key));
+        if (cooldown == null) {
+            return false;
+        }
+
+        synchronized (this.wheelLock) {
+            unschedule(cooldown);
+        }
+
+        return cooldown.expiry > this.clock.getAsLong();
+    }
+
+    @Override public void removeCooldowns(String key) {
+        this.cooldowns.values().stream().filter(x -> x.key.key.equals(key)).forEach(x -> {
+            if (this.cooldowns.remove(x.key, x)) {
+                synchronized (this.wheelLock) {
+                    unschedule(x);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the number of cooldowns that are being held, including any that have expired but not yet been removed.
+     *
+     * @return The number of cooldowns.
+     */
+    public int size() {
+        return this.cooldowns.size();
+    }
+
+    /**
+     * Sets whether cooldowns are kept across restarts. The first time that this is enabled, the cooldowns that were
+     * saved last time are loaded.
+     *
+     * @param persistent Whether cooldowns are kept.
+     */
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+        if (persistent && !this.loaded) {
+            this.loaded = true;
+            load();
+        }
+    }
+
+    /**
+     * Saves the cooldowns that have not expired, if they are kept across restarts.
+     */
+    public void save() {
+        if (!this.persistent || this.dataProvider == null) {
+            return;
+        }
+
+        long now = this.clock.getAsLong();
+        Map<String, Map<String, Long>> data = new HashMap<>();
+        this.cooldowns.values().stream().filter(x -> x.expiry > now)
+                .forEach(x -> data.computeIfAbsent(x.key.user.toString(), k -> new HashMap<>()).put(x.key.key, x.expiry));
+        try {
+            this.dataProvider.save(data);
+        } catch (Exception e) {
+            this.logger.error("Could not save the cooldowns.", e);
+        }
+    }
+
+    private void load() {
+        if (this.dataProvider == null) {
+            return;
+        }
+
+        try {
+            long now = this.clock.getAsLong();
+            for (Map.Entry<String, Map<String, Long>> user : this.dataProvider.load().entrySet()) {
+                UUID uuid = UUID.fromString(user.getKey());
+                user.getValue().forEach((k, v) -> {
+                    // Anything set since the server started is newer.
+                    if (v > now) {
+                        this.cooldowns.computeIfAbsent(new CooldownKey(uuid, k), x -> {
+                            Cooldown cooldown = new Cooldown(x, v);
+                            synchronized (this.wheelLock) {
+                                schedule(cooldown);
+                            }
+
+                            return cooldown;
+                        });
+                    }
+                });
+            }
+        } catch (Exception e) {
+            this.logger.error("Could not load the saved cooldowns.", e);
+        }
+    }
+
+    private void set(CooldownKey key, long expiry) {
+        advance(this.clock.getAsLong());
+        Cooldown cooldown = new Cooldown(key, expiry);
+        synchronized (this.wheelLock) {
+            Cooldown previous = this.cooldowns.put(key, cooldown);
+            if (previous != null) {
+                unschedule(previous);
+            }
+
+            schedule(cooldown);
+        }
+    }
+
+    /**
+     * Turns the wheel up to the given time, removing the cooldowns that have expired.
+     */
+    private void advance(long now) {
+        long tick = now / TICK_MILLIS;
+        if (tick <= this.currentTick) {
+            return;
+        }
+
+        synchronized (this.wheelLock) {
+            if (tick - this.currentTick > SPAN) {
+                // Nothing has been checked for a very long time. Start again, rather than turning the wheel that far.
+                List<Cooldown> all = new ArrayList<>(this.cooldowns.values());
+                this.wheel.forEach(x -> x.forEach(Set::clear));
+                this.currentTick = tick;
+                all.forEach(x -> reschedule(x, tick + 1));
+                return;
+            }
+
+            while (this.currentTick < tick) {
+                long next = this.currentTick + 1;
+
+                // When a level comes back to its first slot, bring the next slot of the level above down.
+                for (int level = 1; level < LEVELS; level++) {
+                    if ((next & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                        break;
+                    }
+
+                    Set<Cooldown> slot = this.wheel.get(level).get(slotFor(next, level));
+                    if (!slot.isEmpty()) {
+                        List<Cooldown> moving = new ArrayList<>(slot);
+                        slot.clear();
+                        moving.forEach(x -> reschedule(x, next));
+                    }
+                }
+
+                this.currentTick = next;
+                Set<Cooldown> due = this.wheel.get(0).get(slotFor(next, 0));
+                if (!due.isEmpty()) {
+                    List<Cooldown> expired = new ArrayList<>(due);
+                    due.clear();
+                    for (Cooldown cooldown : expired) {
+                        if (tickOf(cooldown.expiry) <= next) {
+                            this.cooldowns.remove(cooldown.key, cooldown);
+                        } else {
+                            reschedule(cooldown, next + 1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @GuardedBy("wheelLock")
+    private void schedule(Cooldown cooldown) {
+        // The current tick has been processed, so the earliest slot that can be used is the next one.
+        schedule(cooldown, this.currentTick + 1);
+    }
+
+    @GuardedBy("wheelLock")
+    private void reschedule(Cooldown cooldown, long base) {
+        if (this.cooldowns.get(cooldown.key) == cooldown) {
+            schedule(cooldown, base);
+        }
+    }
+
+    /**
+     * Places a cooldown on the wheel, where base is the earliest tick that has not been processed.
+     */
+    @GuardedBy("wheelLock")
+    private void schedule(Cooldown cooldown, long base) {
+        long delta = Math.min(Math.max(tickOf(cooldown.expiry) - base, 0), SPAN);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+
+        Set<Cooldown> slot = this.wheel.get(level).get(slotFor(base + delta, level));
+        slot.add(cooldown);
+        cooldown.slot = slot;
+    }
+
+    @GuardedBy("wheelLock")
+    private void unschedule(Cooldown cooldown) {
+        if (cooldown.slot != null) {
+            cooldown.slot.remove(cooldown);
+            cooldown.slot = null;
+        }
+    }
+
+    // The first tick at which the cooldown has expired.
+    private static long tickOf(long expiry) {
+        return (expiry + TICK_MILLIS - 1) / TICK_MILLIS;
+    }
+
+    private static int slotFor(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    private static final class CooldownKey {
+
+        private final UUID user;
+        private final String key;
+
+        private CooldownKey(UUID user, String key) {
+            this.user = user;
+            this.key = key;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            CooldownKey that = (CooldownKey) o;
+            return this.user.equals(that.user) && this.key.equals(that.key);
+        }
+
+        @Override public int hashCode() {
+            return 31 * this.user.hashCode() + this.key.hashCode();
+        }
+    }
+
+    private static final class Cooldown {
+
+        private final CooldownKey key;
+        private final long expiry;
+
+        @GuardedBy("wheelLock")
+        @Nullable private Set<Cooldown> slot;
+
+        private Cooldown(CooldownKey key, long expiry) {
+            this.key = key;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import io.github.nucleuspowered.nucleus.api.exceptions.NucleusException;
 import io.github.nucleuspowered.nucleus.api.exceptions.PluginAlreadyRegisteredException;
 import io.github.nucleuspowered.nucleus.api.service.NucleusMessageTokenService;
 import io.github.nucleuspowered.nucleus.api.text.NucleusTextTemplate;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
 import org.spongepowered.api.command.CommandSource;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.plugin.PluginContainer;
@@ -161,7 +162,7 @@ public class NucleusTokenServiceImpl implements NucleusMessageTokenService {
 
     private Optional<Text> getTextFromOption(CommandSource cs, String option, boolean addSpace, boolean prependSpace) {
         if (cs instanceof Player) {
-            Optional<String> os = Util.getOptionFromSubject(cs, option);
+            Optional<String> os = plugin.getPermissionCache().getOption(cs, OptionParser.STRING, option);
             if (os.isPresent() && !os.get().isEmpty()) {
                 String s = os.get();
                 if (addSpace) {
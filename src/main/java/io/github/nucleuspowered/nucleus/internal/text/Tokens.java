@@ -7,8 +7,8 @@ package io.github.nucleuspowered.nucleus.internal.text;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.github.nucleuspowered.nucleus.Nucleus;
-import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.api.service.NucleusMessageTokenService;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
 import io.github.nucleuspowered.nucleus.modules.core.datamodules.UniqueUserCountTransientModule;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.CommandSource;
@@ -93,7 +93,7 @@ public final class Tokens implements NucleusMessageTokenService.TokenParser {
 
     private static Text getTextFromOption(CommandSource cs, String option) {
         if (cs instanceof Player) {
-            Optional<String> os = Util.getOptionFromSubject(cs, option);
+            Optional<String> os = Nucleus.getNucleus().getPermissionCache().getOption(cs, OptionParser.STRING, option);
             if (os.isPresent() && !os.get().isEmpty()) {
                 return TextSerializers.FORMATTING_CODE.deserialize(os.get());
             }
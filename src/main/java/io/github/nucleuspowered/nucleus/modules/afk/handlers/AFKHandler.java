@@ -10,9 +10,9 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import io.github.nucleuspowered.nucleus.NucleusPlugin;
-import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.api.service.NucleusAFKService;
 import io.github.nucleuspowered.nucleus.internal.CommandPermissionHandler;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
 import io.github.nucleuspowered.nucleus.internal.text.NucleusTextTemplateImpl;
 import io.github.nucleuspowered.nucleus.modules.afk.commands.AFKCommand;
 import io.github.nucleuspowered.nucleus.modules.afk.config.AFKConfig;
@@ -361,13 +361,13 @@ public class AFKHandler implements NucleusAFKService {
                         if (AFKHandler.this.afkPermissionHandler.testSuffix(x, exempttoggle)) {
                             timeToAfk = -1;
                         } else {
-                            timeToAfk = Util.getPositiveLongOptionFromSubject(x, afkOption).orElseGet(() -> config.getAfkTime()) * 1000;
+                            timeToAfk = plugin.getPermissionCache().getOption(x, OptionParser.POSITIVE_LONG, afkOption).orElseGet(() -> config.getAfkTime()) * 1000;
                         }
 
                         if (AFKHandler.this.afkPermissionHandler.testSuffix(x, exemptkick)) {
                             timeToKick = -1;
                         } else {
-                            timeToKick = Util.getPositiveLongOptionFromSubject(x, afkKickOption).orElseGet(() -> config.getAfkTimeToKick()) * 1000;
+                            timeToKick = plugin.getPermissionCache().getOption(x, OptionParser.POSITIVE_LONG, afkKickOption).orElseGet(() -> config.getAfkTimeToKick()) * 1000;
                         }
 
                         cacheValid = true;
@@ -7,7 +7,6 @@ package io.github.nucleuspowered.nucleus.modules.chat.listeners;
 import com.google.common.collect.Maps;
 import io.github.nucleuspowered.nucleus.NameUtil;
 import io.github.nucleuspowered.nucleus.Nucleus;
-import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.api.chat.NucleusNoFormatChannel;
 import io.github.nucleuspowered.nucleus.api.service.NucleusMessageTokenService;
 import io.github.nucleuspowered.nucleus.internal.ListenerBase;
@@ -15,6 +14,7 @@ import io.github.nucleuspowered.nucleus.internal.PermissionRegistry;
 import io.github.nucleuspowered.nucleus.internal.annotations.ConditionalListener;
 import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
 import io.github.nucleuspowered.nucleus.internal.permissions.PermissionInformation;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
 import io.github.nucleuspowered.nucleus.internal.text.TextParsingUtils;
 import io.github.nucleuspowered.nucleus.modules.chat.ChatModule;
@@ -30,6 +30,8 @@ import org.spongepowered.api.event.message.MessageChannelEvent;
 import org.spongepowered.api.event.message.MessageEvent;
 import org.spongepowered.api.service.permission.Subject;
 import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColor;
+import org.spongepowered.api.text.format.TextStyle;
 import org.spongepowered.api.text.serializer.TextSerializers;
 import org.spongepowered.api.util.Tuple;
 
@@ -86,9 +88,10 @@ public class ChatListener extends ListenerBase.Reloadable {
 
     public static String stripPermissionless(Subject source, String message) {
         if (message.contains("&")) {
+            SessionPermissionCache permissionCache = Nucleus.getNucleus().getPermissionCache();
             String m = message.toLowerCase();
             for (Map.Entry<String, Tuple<String[], Function<String, String>>> r : replacements.entrySet()) {
-                if (m.contains(r.getKey()) && Arrays.stream(r.getValue().getFirst()).noneMatch(source::hasPermission)) {
+                if (m.contains(r.getKey()) && Arrays.stream(r.getValue().getFirst()).noneMatch(x -> permissionCache.hasPermission(source, x))) {
                     message = r.getValue().getSecond().apply(message);
                 }
             }
@@ -167,17 +170,19 @@ public class ChatListener extends ListenerBase.Reloadable {
         }
 
         Text result;
-        if (player.hasPermission(prefix + "url")) {
+        if (plugin.getPermissionCache().hasPermission(player, prefix + "url")) {
             result = TextParsingUtils.addUrls(m);
         } else {
             result = TextSerializers.FORMATTING_CODE.deserialize(m);
         }
 
-        String chatcol = Util.getOptionFromSubject(player, "chatcolour", "chatcolor").orElseGet(chatTemplateConfig::getChatcolour);
-        String chatstyle = Util.getOptionFromSubject(player, "chatstyle").orElseGet(chatTemplateConfig::getChatstyle);
-
         NameUtil nu = plugin.getNameUtil();
-        return Text.of(nu.getColourFromString(chatcol), nu.getTextStyleFromString(chatstyle), result);
+        SessionPermissionCache permissionCache = plugin.getPermissionCache();
+        TextColor chatcol = permissionCache.getOption(player, nu.getColourOption(), "chatcolour", "chatcolor")
+                .orElseGet(() -> nu.getColourFromString(chatTemplateConfig.getChatcolour()));
+        TextStyle chatstyle = permissionCache.getOption(player, nu.getStyleOption(), "chatstyle")
+                .orElseGet(() -> nu.getTextStyleFromString(chatTemplateConfig.getChatstyle()));
+        return Text.of(chatcol, chatstyle, result);
     }
 
     @Override public void onReload() throws Exception {
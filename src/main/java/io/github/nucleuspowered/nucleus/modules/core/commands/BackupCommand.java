@@ -0,0 +1,86 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.commands;
+
+import io.github.nucleuspowered.nucleus.dataservices.BackupService;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.NoModifiers;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.Permissions;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCommand;
+import io.github.nucleuspowered.nucleus.internal.command.AbstractCommand;
+import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a backup of the Nucleus data, reporting on its progress until it completes. If a backup is already running,
+ * its progress is shown instead.
+ */
+@NoModifiers
+@Permissions(prefix = "nucleus", suggestedLevel = SuggestedLevel.NONE)
+@NonnullByDefault
+@RegisterCommand(value = "backup", subcommandOf = NucleusCommand.class)
+public class BackupCommand extends AbstractCommand<CommandSource> {
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+
+    @Override
+    public CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+        BackupService service = plugin.getBackupService();
+        Optional<BackupService.Progress> started = service.start();
+        if (!started.isPresent()) {
+            src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.backup.running"));
+            service.getProgress().ifPresent(x -> sendProgress(src, x));
+            return CommandResult.empty();
+        }
+
+        BackupService.Progress progress = started.get();
+        src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.backup.start", progress.getName()));
+
+        // The backup runs on its own thread, so progress is reported by a task until it completes.
+        Task task = Sponge.getScheduler().createTaskBuilder().async()
+                .delay(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS).interval(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .execute(() -> {
+                    if (!progress.getCompletion().isDone()) {
+                        sendProgress(src, progress);
+                    }
+                })
+                .submit(plugin);
+        progress.getCompletion().thenAccept(x -> {
+            task.cancel();
+            sendResult(src, x);
+        });
+
+        return CommandResult.success();
+    }
+
+    private void sendResult(CommandSource src, BackupService.Progress progress) {
+        if (progress.getError().isPresent()) {
+            src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.backup.failed", progress.getError().get()));
+            return;
+        }
+
+        src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.backup.complete", progress.getName(),
+                String.valueOf(progress.getChangedFiles()), String.valueOf(progress.getTotalFiles()),
+                String.valueOf(progress.getStoredFiles()), toMegabytes(progress.getBytesRead()),
+                String.valueOf(progress.getElapsed(TimeUnit.SECONDS)), toMegabytes(progress.getBytesPerSecond())));
+    }
+
+    private void sendProgress(CommandSource src, BackupService.Progress progress) {
+        src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.backup.progress", progress.getName(),
+                progress.getPhase().name().toLowerCase(), String.valueOf(progress.getProcessedFiles()),
+                String.valueOf(progress.getChangedFiles()), toMegabytes(progress.getBytesRead()), toMegabytes(progress.getBytesPerSecond())));
+    }
+
+    private static String toMegabytes(long bytes) {
+        return String.format("%.2f", bytes / (1024.0 * 1024.0));
+    }
+}
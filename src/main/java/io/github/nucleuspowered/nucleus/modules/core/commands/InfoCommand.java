@@ -7,6 +7,9 @@ package io.github.nucleuspowered.nucleus.modules.core.commands;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.github.nucleuspowered.nucleus.PluginInfo;
+import io.github.nucleuspowered.nucleus.dataservices.loaders.ServiceCache;
+import io.github.nucleuspowered.nucleus.dataservices.loaders.WriteBehindSaveQueue;
+import io.github.nucleuspowered.nucleus.dataservices.modular.ModularDataService;
 import io.github.nucleuspowered.nucleus.internal.annotations.RunAsync;
 import io.github.nucleuspowered.nucleus.internal.annotations.command.NoModifiers;
 import io.github.nucleuspowered.nucleus.internal.annotations.command.Permissions;
@@ -33,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Permissions(prefix = "nucleus", suggestedLevel = SuggestedLevel.NONE)
 @RunAsync
@@ -134,6 +138,25 @@ public class InfoCommand extends AbstractCommand<CommandSource> {
             disabled.stream().sorted().forEach(information::add);
         }
 
+        information.add(sep);
+        information.add("Nucleus: Data Saving");
+        information.add(sep);
+
+        addSaveQueueInformation(information, plugin.getUserDataManager().getSaveQueue());
+        addSaveQueueInformation(information, plugin.getWorldDataManager().getSaveQueue());
+        information.add(String.format("Modular data saves written: %d, skipped as unchanged: %d",
+                ModularDataService.getPerformedSaveCount(), ModularDataService.getSkippedSaveCount()));
+        information.add(String.format("User data preloaded on connection: %d, server thread loads: %d (%d ms blocked)",
+                plugin.getUserDataManager().getPreloadedCount(), plugin.getUserDataManager().getBlockingLoadCount(),
+                plugin.getUserDataManager().getBlockingLoadTime(TimeUnit.MILLISECONDS)));
+
+        information.add(sep);
+        information.add("Nucleus: Data Cache");
+        information.add(sep);
+
+        addCacheInformation(information, "UserDataManager", plugin.getUserDataManager().getCache());
+        addCacheInformation(information, "WorldDataManager", plugin.getWorldDataManager().getCache());
+
 
         String fileName = "nucleus-info-" + DateTimeFormatter.BASIC_ISO_DATE.format(LocalDateTime.now()) + "-" + DateTimeFormatter.ofPattern("HHmmss").format(LocalDateTime.now()) + ".txt";
         try (BufferedWriter fw = new BufferedWriter(new FileWriter(fileName, false))) {
@@ -150,4 +173,22 @@ public class InfoCommand extends AbstractCommand<CommandSource> {
         src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.info.saved", fileName));
         return CommandResult.success();
     }
+
+    private void addCacheInformation(List<String> information, String name, ServiceCache<?, ?> cache) {
+        information.add(String.format("%s - entries: %d (max %s), weight: %d (max %s)", name,
+                cache.size(), cache.getMaxEntries() == 0 ? "unlimited" : String.valueOf(cache.getMaxEntries()),
+                cache.getWeight(), cache.getMaxWeight() == 0 ? "unlimited" : String.valueOf(cache.getMaxWeight())));
+        information.add(String.format("  Hits: %d, misses: %d, loads: %d, evictions: %d, expirations: %d",
+                cache.getHitCount(), cache.getMissCount(), cache.getLoadCount(), cache.getEvictionCount(), cache.getExpirationCount()));
+    }
+
+    private void addSaveQueueInformation(List<String> information, WriteBehindSaveQueue<?, ?> queue) {
+        information.add(queue.getName() + " - write-behind: " + (queue.isRunning() ? "on" : "off"));
+        information.add(String.format("  Queue depth: %d, queued: %d, written: %d, failures: %d",
+                queue.getQueueDepth(), queue.getQueuedCount(), queue.getWrittenCount(), queue.getFailureCount()));
+        information.add(String.format("  Flush latency (ms): last %d, mean %d, max %d",
+                queue.getLastFlushLatency(TimeUnit.MILLISECONDS),
+                queue.getMeanFlushLatency(TimeUnit.MILLISECONDS),
+                queue.getMaxFlushLatency(TimeUnit.MILLISECONDS)));
+    }
 }
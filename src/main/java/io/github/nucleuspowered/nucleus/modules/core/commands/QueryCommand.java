@@ -0,0 +1,149 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.commands;
+
+import io.github.nucleuspowered.nucleus.Nucleus;
+import io.github.nucleuspowered.nucleus.dataservices.UserQueryService;
+import io.github.nucleuspowered.nucleus.dataservices.modular.DataModule;
+import io.github.nucleuspowered.nucleus.dataservices.modular.ModularUserService;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.NoModifiers;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.Permissions;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCommand;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.Scan;
+import io.github.nucleuspowered.nucleus.internal.command.AbstractCommand;
+import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
+import io.github.nucleuspowered.nucleus.modules.home.datamodules.HomeUserDataModule;
+import io.github.nucleuspowered.nucleus.modules.mail.datamodules.MailUserDataModule;
+import io.github.nucleuspowered.nucleus.modules.warn.datamodules.WarnUserDataModule;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.args.CommandElement;
+import org.spongepowered.api.command.args.GenericArguments;
+import org.spongepowered.api.entity.living.player.User;
+import org.spongepowered.api.service.user.UserStorageService;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+import org.spongepowered.api.world.storage.WorldProperties;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Queries the data of every user, online or offline. Matches are sent as they are found, as a query over a large number
+ * of users can take some time.
+ */
+@Scan
+@Permissions(prefix = "nucleus", suggestedLevel = SuggestedLevel.NONE)
+@NoModifiers
+@RegisterCommand(value = "query", subcommandOf = NucleusCommand.class, hasExecutor = false)
+@NonnullByDefault
+public class QueryCommand extends AbstractCommand<CommandSource> {
+
+    @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+        return CommandResult.empty();
+    }
+
+    private static <M extends DataModule<ModularUserService>, R> CommandResult runQuery(CommandSource src, Class<M> module,
+            Predicate<M> predicate, Function<M, R> projection, String resultKey) {
+        Nucleus plugin = Nucleus.getNucleus();
+        UserStorageService uss = Sponge.getServiceManager().provideUnchecked(UserStorageService.class);
+        src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.query.start"));
+
+        // This has to be started on the server thread. The results and the summary are sent as the query runs, so the
+        // command does not wait for it.
+        long start = System.nanoTime();
+        UserQueryService.Query query = plugin.getUserQueryService().query(module, predicate, projection, (uuid, result) ->
+                src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat(resultKey,
+                        uss.get(uuid).map(User::getName).orElseGet(uuid::toString), String.valueOf(result))));
+
+        query.getCompletion().whenComplete((q, e) -> {
+            if (e != null) {
+                src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.query.error", e.getMessage()));
+            } else {
+                src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.query.complete",
+                        String.valueOf(q.getProcessed()), String.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)),
+                        String.valueOf(q.getMatched()), String.valueOf(q.getFailed())));
+            }
+        });
+
+        return CommandResult.success();
+    }
+
+    @Permissions(prefix = "nucleus.query", suggestedLevel = SuggestedLevel.NONE)
+    @NoModifiers
+    @RegisterCommand(value = "warnings", subcommandOf = QueryCommand.class)
+    public static class WarningsQueryCommand extends AbstractCommand<CommandSource> {
+
+        private final String minimumKey = "minimum";
+
+        @Override public CommandElement[] getArguments() {
+            return new CommandElement[] {
+                    GenericArguments.flags().flag("a", "-all").buildWith(
+                            GenericArguments.optional(GenericArguments.onlyOne(GenericArguments.integer(Text.of(minimumKey)))))
+            };
+        }
+
+        @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+            int minimum = Math.max(1, args.<Integer>getOne(minimumKey).orElse(1));
+            boolean all = args.hasAny("a");
+            Function<WarnUserDataModule, Long> count = x -> x.getWarnings().stream().filter(w -> all || !w.isExpired()).count();
+            return runQuery(src, WarnUserDataModule.class, x -> count.apply(x) >= minimum, count, "command.nucleus.query.warnings");
+        }
+    }
+
+    @Permissions(prefix = "nucleus.query", suggestedLevel = SuggestedLevel.NONE)
+    @NoModifiers
+    @RegisterCommand(value = "homes", subcommandOf = QueryCommand.class)
+    public static class HomesQueryCommand extends AbstractCommand<CommandSource> {
+
+        private final String worldKey = "world";
+
+        @Override public CommandElement[] getArguments() {
+            return new CommandElement[] {
+                    GenericArguments.onlyOne(GenericArguments.string(Text.of(worldKey)))
+            };
+        }
+
+        @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+            // The world may have been deleted, so its UUID can be given instead of its name.
+            String world = args.<String>getOne(worldKey).get();
+            Optional<UUID> worldId = parseUUID(world);
+            if (!worldId.isPresent()) {
+                worldId = Sponge.getServer().getWorldProperties(world).map(WorldProperties::getUniqueId);
+                if (!worldId.isPresent()) {
+                    src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.query.noworld", world));
+                    return CommandResult.empty();
+                }
+            }
+
+            UUID id = worldId.get();
+            return runQuery(src, HomeUserDataModule.class, x -> !x.getHomesInWorld(id).isEmpty(),
+                    x -> String.join(", ", x.getHomesInWorld(id)), "command.nucleus.query.homes");
+        }
+
+        private static Optional<UUID> parseUUID(String uuid) {
+            try {
+                return Optional.of(UUID.fromString(uuid));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    @Permissions(prefix = "nucleus.query", suggestedLevel = SuggestedLevel.NONE)
+    @NoModifiers
+    @RegisterCommand(value = "mail", subcommandOf = QueryCommand.class)
+    public static class MailQueryCommand extends AbstractCommand<CommandSource> {
+
+        @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+            return runQuery(src, MailUserDataModule.class, x -> !x.getMail().isEmpty(), x -> x.getMail().size(), "command.nucleus.query.mail");
+        }
+    }
+}
@@ -75,6 +75,7 @@ public class SetupPermissionsCommand extends AbstractCommand<CommandSource> {
         permissionRegistry.getPermissions().entrySet().stream()
                 .filter(x -> x.getValue().level == sl).forEach(x -> group.getSubjectData().setPermission(globalContext, x.getKey(), Tristate.TRUE));
 
+        plugin.getPermissionCache().invalidateAll();
         src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.permission.complete", sl.toString().toLowerCase(), group.getIdentifier()));
         return CommandResult.success();
     }
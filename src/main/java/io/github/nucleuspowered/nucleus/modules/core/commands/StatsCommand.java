@@ -0,0 +1,156 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.commands;
+
+import io.github.nucleuspowered.nucleus.Util;
+import io.github.nucleuspowered.nucleus.internal.annotations.RunAsync;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.NoModifiers;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.Permissions;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCommand;
+import io.github.nucleuspowered.nucleus.internal.annotations.command.Scan;
+import io.github.nucleuspowered.nucleus.internal.command.AbstractCommand;
+import io.github.nucleuspowered.nucleus.internal.command.AsyncCommandExecutor;
+import io.github.nucleuspowered.nucleus.internal.command.CommandMetrics;
+import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
+import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
+import io.github.nucleuspowered.nucleus.modules.core.CoreModule;
+import io.github.nucleuspowered.nucleus.modules.core.config.CommandStatisticsConfig;
+import io.github.nucleuspowered.nucleus.modules.core.config.CoreConfig;
+import io.github.nucleuspowered.nucleus.modules.core.config.CoreConfigAdapter;
+import io.github.nucleuspowered.nucleus.modules.core.config.PermissionCacheConfig;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.args.CommandElement;
+import org.spongepowered.api.command.args.GenericArguments;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.TextActions;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Scan
+@NonnullByDefault
+@Permissions(prefix = "nucleus", suggestedLevel = SuggestedLevel.NONE)
+@RegisterCommand(value = "stats", subcommandOf = NucleusCommand.class, hasExecutor = false)
+public class StatsCommand extends AbstractCommand<CommandSource> {
+
+    @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+        return CommandResult.empty();
+    }
+
+    /**
+     * Lists each command that has been run since the server started, with how often it has run and how long it took.
+     * Hovering over a command shows the time taken by each stage of running it.
+     */
+    @NoModifiers
+    @Permissions(prefix = "nucleus.stats", suggestedLevel = SuggestedLevel.NONE)
+    @RegisterCommand(value = "commands", subcommandOf = StatsCommand.class)
+    public static class CommandsCommand extends AbstractCommand<CommandSource> {
+
+        @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+            AsyncCommandExecutor executor = plugin.getAsyncCommandExecutor();
+            MessageProvider provider = plugin.getMessageProvider();
+            List<Text> contents = plugin.getCommandMetrics().getAll().entrySet().stream()
+                .filter(x -> x.getValue().get(CommandMetrics.Stage.PARSE).getCount() > 0 || x.getValue().getRejected() > 0)
+                .map(x -> getEntry(provider, x.getKey(), x.getValue()))
+                .collect(Collectors.toList());
+
+            if (contents.isEmpty()) {
+                src.sendMessage(provider.getTextMessageWithFormat("command.nucleus.stats.commands.none"));
+                return CommandResult.empty();
+            }
+
+            Util.getPaginationBuilder(src)
+                .title(provider.getTextMessageWithFormat("command.nucleus.stats.commands.title"))
+                .header(provider.getTextMessageWithFormat("command.nucleus.stats.commands.header",
+                    String.valueOf(executor.getActive()), String.valueOf(executor.getQueued())))
+                .contents(contents)
+                .sendTo(src);
+            return CommandResult.success();
+        }
+
+        private static Text getEntry(MessageProvider provider, String command, CommandMetrics.CommandStatistics statistics) {
+            CommandMetrics.Histogram execute = statistics.get(CommandMetrics.Stage.EXECUTE);
+            Text hover = Text.joinWith(Text.NEW_LINE, Arrays.stream(CommandMetrics.Stage.values())
+                .map(x -> {
+                    CommandMetrics.Histogram h = statistics.get(x);
+                    return provider.getTextMessageWithFormat("command.nucleus.stats.commands.stage", x.name().toLowerCase(),
+                        String.valueOf(h.getCount()), toMillis(h.getPercentile(0.5, TimeUnit.MICROSECONDS)),
+                        toMillis(h.getPercentile(0.95, TimeUnit.MICROSECONDS)), toMillis(h.getMax(TimeUnit.MICROSECONDS)));
+                })
+                .collect(Collectors.toList()));
+
+            return provider.getTextMessageWithFormat("command.nucleus.stats.commands.entry", command,
+                    String.valueOf(statistics.getRuns()), String.valueOf(statistics.getFailures()), String.valueOf(statistics.getRejected()),
+                    toMillis(execute.getMean(TimeUnit.MICROSECONDS)), toMillis(execute.getPercentile(0.95, TimeUnit.MICROSECONDS)),
+                    toMillis(execute.getMax(TimeUnit.MICROSECONDS)))
+                .toBuilder().onHover(TextActions.showText(hover)).build();
+        }
+
+        private static String toMillis(long micros) {
+            return String.format("%.2f", micros / 1000.0);
+        }
+    }
+
+    /**
+     * Writes the command statistics to a file in the command-stats folder.
+     */
+    @RunAsync
+    @NoModifiers
+    @Permissions(prefix = "nucleus.stats", suggestedLevel = SuggestedLevel.NONE)
+    @RegisterCommand(value = "export", subcommandOf = StatsCommand.class)
+    public static class ExportCommand extends AbstractCommand<CommandSource> {
+
+        private final String formatKey = "format";
+
+        @Override public CommandElement[] getArguments() {
+            return new CommandElement[] {
+                GenericArguments.optional(GenericArguments.onlyOne(GenericArguments.enumValue(Text.of(formatKey), CommandMetrics.Format.class)))
+            };
+        }
+
+        @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+            CommandStatisticsConfig csc = plugin.getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getCommandStatisticsConfig)
+                .orElseGet(CommandStatisticsConfig::new);
+            CommandMetrics.Format format = args.<CommandMetrics.Format>getOne(formatKey).orElseGet(csc::getExportFormat);
+            Path file = plugin.getCommandMetrics().export(plugin.getCommandStatisticsPath(), format, csc.getKeepExports());
+            src.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.nucleus.stats.export.done",
+                file.getFileName().toString()));
+            return CommandResult.success();
+        }
+    }
+
+    /**
+     * Shows how often permission and option checks were answered by the {@link SessionPermissionCache}.
+     */
+    @NoModifiers
+    @Permissions(prefix = "nucleus.stats", suggestedLevel = SuggestedLevel.NONE)
+    @RegisterCommand(value = "permissions", subcommandOf = StatsCommand.class)
+    public static class PermissionsCommand extends AbstractCommand<CommandSource> {
+
+        @Override protected CommandResult executeCommand(CommandSource src, CommandContext args) throws Exception {
+            MessageProvider provider = plugin.getMessageProvider();
+            if (!plugin.getConfigValue(CoreModule.ID, CoreConfigAdapter.class, CoreConfig::getPermissionCacheConfig)
+                    .map(PermissionCacheConfig::isEnabled).orElse(true)) {
+                src.sendMessage(provider.getTextMessageWithFormat("command.nucleus.stats.permissions.disabled"));
+            }
+
+            SessionPermissionCache cache = plugin.getPermissionCache();
+            long hits = cache.getHits();
+            long misses = cache.getMisses();
+            long total = hits + misses;
+            src.sendMessage(provider.getTextMessageWithFormat("command.nucleus.stats.permissions.info", String.valueOf(hits),
+                    String.valueOf(misses), String.format("%.1f", total == 0 ? 0 : hits * 100.0 / total),
+                    String.valueOf(cache.getSize()), String.valueOf(cache.getSessions())));
+            return CommandResult.success();
+        }
+    }
+}
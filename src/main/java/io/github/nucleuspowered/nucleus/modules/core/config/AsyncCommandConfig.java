@@ -0,0 +1,33 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class AsyncCommandConfig {
+
+    @Setting(value = "threads", comment = "config.core.asynccommands.threads")
+    private int threads = 2;
+
+    @Setting(value = "max-queued", comment = "config.core.asynccommands.maxqueued")
+    private int maxQueued = 200;
+
+    @Setting(value = "max-queued-per-player", comment = "config.core.asynccommands.maxqueuedperplayer")
+    private int maxQueuedPerPlayer = 5;
+
+    public int getThreads() {
+        return Math.max(1, threads);
+    }
+
+    public int getMaxQueued() {
+        return Math.max(1, maxQueued);
+    }
+
+    public int getMaxQueuedPerPlayer() {
+        return Math.max(1, maxQueuedPerPlayer);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.config;
+
+import io.github.nucleuspowered.nucleus.internal.command.CommandMetrics;
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class CommandStatisticsConfig {
+
+    @Setting(value = "export-interval-minutes", comment = "config.core.commandstats.interval")
+    private int exportIntervalMinutes = 0;
+
+    @Setting(value = "export-format", comment = "config.core.commandstats.format")
+    private CommandMetrics.Format exportFormat = CommandMetrics.Format.CSV;
+
+    @Setting(value = "keep-exports", comment = "config.core.commandstats.keep")
+    private int keepExports = 24;
+
+    public int getExportIntervalMinutes() {
+        return Math.max(0, exportIntervalMinutes);
+    }
+
+    public CommandMetrics.Format getExportFormat() {
+        return exportFormat;
+    }
+
+    public int getKeepExports() {
+        return Math.max(0, keepExports);
+    }
+}
@@ -40,6 +40,24 @@ public class CoreConfig {
     @Setting(value = "console-overrides-exemptions", comment = "config.core.consoleoverrides")
     private boolean consoleOverride = true;
 
+    @Setting(value = "data-saving", comment = "config.core.datasaving")
+    private DataSavingConfig dataSavingConfig = new DataSavingConfig();
+
+    @Setting(value = "user-data-cache", comment = "config.core.userdatacache")
+    private UserDataCacheConfig userDataCacheConfig = new UserDataCacheConfig();
+
+    @Setting(value = "persist-cooldowns", comment = "config.core.persistcooldowns")
+    private boolean persistCooldowns = false;
+
+    @Setting(value = "async-commands", comment = "config.core.asynccommands")
+    private AsyncCommandConfig asyncCommandConfig = new AsyncCommandConfig();
+
+    @Setting(value = "command-statistics", comment = "config.core.commandstats")
+    private CommandStatisticsConfig commandStatisticsConfig = new CommandStatisticsConfig();
+
+    @Setting(value = "permission-cache", comment = "config.core.permissioncache")
+    private PermissionCacheConfig permissionCacheConfig = new PermissionCacheConfig();
+
     @DoNotGenerate
     @Setting(value = "trace-user-creations-level")
     private int traceUserCreations = 0;
@@ -84,6 +102,30 @@ public class CoreConfig {
         return consoleOverride;
     }
 
+    public DataSavingConfig getDataSavingConfig() {
+        return dataSavingConfig;
+    }
+
+    public UserDataCacheConfig getUserDataCacheConfig() {
+        return userDataCacheConfig;
+    }
+
+    public boolean isPersistCooldowns() {
+        return persistCooldowns;
+    }
+
+    public AsyncCommandConfig getAsyncCommandConfig() {
+        return asyncCommandConfig;
+    }
+
+    public CommandStatisticsConfig getCommandStatisticsConfig() {
+        return commandStatisticsConfig;
+    }
+
+    public PermissionCacheConfig getPermissionCacheConfig() {
+        return permissionCacheConfig;
+    }
+
     /**
      * For debugging. 0 is off, 1 is abnormal players, such as "offline", 2 is everyone.
      * @return The level to debug.
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.config;
+
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.FsyncMode;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.StorageEngine;
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class DataSavingConfig {
+
+    @Setting(value = "write-behind", comment = "config.core.datasaving.writebehind")
+    private boolean writeBehind = true;
+
+    @Setting(value = "max-writes-per-second", comment = "config.core.datasaving.maxwrites")
+    private int maxWritesPerSecond = 100;
+
+    @Setting(value = "batch-size", comment = "config.core.datasaving.batchsize")
+    private int batchSize = 25;
+
+    @Setting(value = "storage-engine", comment = "config.core.datasaving.engine")
+    private StorageEngine storageEngine = StorageEngine.FILES;
+
+    @Setting(value = "atomic-writes", comment = "config.core.datasaving.atomic")
+    private boolean atomicWrites = true;
+
+    @Setting(value = "fsync", comment = "config.core.datasaving.fsync")
+    private FsyncMode fsync = FsyncMode.BATCHED;
+
+    @Setting(value = "backup-every-saves", comment = "config.core.datasaving.backupevery")
+    private int backupEvery = 10;
+
+    @Setting(value = "backup-interval-minutes", comment = "config.core.datasaving.backupinterval")
+    private int backupIntervalMinutes = 10;
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public int getMaxWritesPerSecond() {
+        return Math.max(0, maxWritesPerSecond);
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    public StorageEngine getStorageEngine() {
+        return storageEngine == null ? StorageEngine.FILES : storageEngine;
+    }
+
+    public boolean isAtomicWrites() {
+        return atomicWrites;
+    }
+
+    public FsyncMode getFsync() {
+        return fsync == null ? FsyncMode.BATCHED : fsync;
+    }
+
+    public int getBackupEvery() {
+        return Math.max(0, backupEvery);
+    }
+
+    public int getBackupIntervalMinutes() {
+        return Math.max(0, backupIntervalMinutes);
+    }
+}
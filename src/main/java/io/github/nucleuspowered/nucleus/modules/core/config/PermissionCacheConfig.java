@@ -0,0 +1,26 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class PermissionCacheConfig {
+
+    @Setting(value = "enabled", comment = "config.core.permissioncache.enabled")
+    private boolean enabled = true;
+
+    @Setting(value = "expiry-seconds", comment = "config.core.permissioncache.expiry")
+    private int expirySeconds = 30;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getExpirySeconds() {
+        return Math.max(0, expirySeconds);
+    }
+}
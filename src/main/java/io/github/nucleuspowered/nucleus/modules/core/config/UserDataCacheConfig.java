@@ -0,0 +1,40 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.modules.core.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class UserDataCacheConfig {
+
+    @Setting(value = "max-entries", comment = "config.core.userdatacache.maxentries")
+    private int maxEntries = 10000;
+
+    @Setting(value = "max-weight", comment = "config.core.userdatacache.maxweight")
+    private long maxWeight = 0;
+
+    @Setting(value = "offline-expiry-seconds", comment = "config.core.userdatacache.expiry")
+    private long offlineExpirySeconds = 120;
+
+    @Setting(value = "compact-user-cache", comment = "config.core.userdatacache.compact")
+    private boolean compactUserCache = false;
+
+    public int getMaxEntries() {
+        return Math.max(0, maxEntries);
+    }
+
+    public long getMaxWeight() {
+        return Math.max(0, maxWeight);
+    }
+
+    public long getOfflineExpirySeconds() {
+        return Math.max(0, offlineExpirySeconds);
+    }
+
+    public boolean isCompactUserCache() {
+        return compactUserCache;
+    }
+}
@@ -48,6 +48,15 @@ public class CoreListener extends ListenerBase {
     @Inject private UserDataManager loader;
     @Inject private CoreConfigAdapter cca;
 
+    /* (non-Javadoc)
+     * The Auth event is fired off the server thread, so we read the player's data from disk now, rather than when the
+     * player joins.
+     */
+    @Listener(order = Order.LATE)
+    public void onPlayerAuth(final ClientConnectionEvent.Auth event, @Getter("getProfile") GameProfile profile) {
+        loader.preload(profile.getUniqueId());
+    }
+
     @IsCancelled(Tristate.UNDEFINED)
     @Listener(order = Order.FIRST)
     public void onPlayerLoginFirst(final ClientConnectionEvent.Login event, @Getter("getTargetUser") User user) {
@@ -69,6 +78,7 @@ public class CoreListener extends ListenerBase {
     public void onPlayerLoginLast(final ClientConnectionEvent.Login event, @Getter("getProfile") GameProfile profile,
         @Getter("getTargetUser") User user) {
 
+        plugin.getUserNameIndex().updateProfile(profile);
         loader.get(profile.getUniqueId()).ifPresent(qsu -> {
             if (event.getFromTransform().equals(event.getToTransform())) {
                 CoreUserDataModule c = qsu.get(CoreUserDataModule.class);
@@ -97,6 +107,7 @@ public class CoreListener extends ListenerBase {
      */
     @Listener(order = Order.FIRST)
     public void onPlayerJoinFirst(final ClientConnectionEvent.Join event, @Getter("getTargetEntity") final Player player) {
+        plugin.getPermissionCache().startSession(player.getUniqueId());
         try {
             ModularUserService qsu = loader.get(player).get();
             CoreUserDataModule c = qsu.get(CoreUserDataModule.class);
@@ -111,6 +122,7 @@ public class CoreListener extends ListenerBase {
 
             c.setFirstJoin(player.getJoinData().firstPlayed().get());
             c.setLastIp(player.getConnection().getAddress().getAddress());
+            plugin.getUserCacheService().updateCacheForPlayer(qsu);
 
             // We'll do this bit shortly - after the login events have resolved.
             final String name = player.getName();
@@ -137,6 +149,8 @@ public class CoreListener extends ListenerBase {
     @Listener
     @SuppressWarnings("ConstantConditionalExpression")
     public void onPlayerQuit(final ClientConnectionEvent.Disconnect event, @Getter("getTargetEntity") final Player player) {
+        plugin.getPermissionCache().endSession(player.getUniqueId());
+
         // There is an issue in Sponge where the connection may not even exist, because they were disconnected before the connection was
         // completely established.
         //noinspection ConstantConditions
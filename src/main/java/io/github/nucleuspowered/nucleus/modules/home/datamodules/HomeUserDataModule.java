@@ -5,6 +5,7 @@
 package io.github.nucleuspowered.nucleus.modules.home.datamodules;
 
 import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.api.nucleusdata.Home;
@@ -16,6 +17,7 @@ import io.github.nucleuspowered.nucleus.internal.LocationData;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -55,6 +57,22 @@ public class HomeUserDataModule extends DataModule.ReferenceService<ModularUserS
                         x -> new HomeData(x.getKey(), x.getValue().getWorld(), x.getValue().getPosition(), x.getValue().getRotation())));
     }
 
+    /**
+     * Gets the names of the homes that are in the given world. As the world is not looked up, this works for worlds
+     * that no longer exist.
+     *
+     * @param world The {@link UUID} of the world.
+     * @return The names of the homes.
+     */
+    public List<String> getHomesInWorld(UUID world) {
+        if (homeData == null || homeData.isEmpty()) {
+            return Lists.newArrayList();
+        }
+
+        return homeData.entrySet().stream().filter(x -> world.equals(x.getValue().getWorld())).map(Map.Entry::getKey).sorted()
+                .collect(Collectors.toList());
+    }
+
     public boolean setHome(String home, Location<World> location, Vector3d rotation) {
         return setHome(home, location, rotation, false);
     }
@@ -74,6 +92,7 @@ public class HomeUserDataModule extends DataModule.ReferenceService<ModularUserS
         }
 
         homeData.put(home, new LocationNode(location, rotation));
+        markChanged();
         return true;
     }
 
@@ -85,6 +104,7 @@ public class HomeUserDataModule extends DataModule.ReferenceService<ModularUserS
         Optional<String> os = Util.getKeyIgnoreCase(homeData, home);
         if (os.isPresent()) {
             homeData.remove(os.get());
+            markChanged();
             return true;
         }
 
@@ -8,11 +8,12 @@ import com.flowpowered.math.vector.Vector3d;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import io.github.nucleuspowered.nucleus.NucleusPlugin;
-import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.api.exceptions.NucleusException;
 import io.github.nucleuspowered.nucleus.api.nucleusdata.Home;
 import io.github.nucleuspowered.nucleus.api.service.NucleusHomeService;
 import io.github.nucleuspowered.nucleus.dataservices.modular.ModularUserService;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.modules.home.commands.SetHomeCommand;
 import io.github.nucleuspowered.nucleus.modules.home.datamodules.HomeUserDataModule;
 import io.github.nucleuspowered.nucleus.modules.home.events.AbstractHomeEvent;
@@ -133,11 +134,12 @@ public class HomeHandler implements NucleusHomeService {
     }
 
     @Override public int getMaximumHomes(User src) {
-        if (src.hasPermission(this.unlimitedPermission)) {
+        SessionPermissionCache permissionCache = plugin.getPermissionCache();
+        if (permissionCache.hasPermission(src, this.unlimitedPermission)) {
             return Integer.MAX_VALUE;
         }
 
-        return Math.max(Util.getPositiveIntOptionFromSubject(src, "home-count", "homes").orElse(1), 1);
+        return Math.max(permissionCache.getOption(src, OptionParser.POSITIVE_INT, "home-count", "homes").orElse(1), 1);
     }
 
     private void postEvent(AbstractHomeEvent event) throws NucleusException {
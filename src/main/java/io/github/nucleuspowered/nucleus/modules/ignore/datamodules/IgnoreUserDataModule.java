@@ -25,6 +25,7 @@ public class IgnoreUserDataModule extends DataModule<ModularUserService> {
     public boolean addToIgnoreList(UUID uuid) {
         if (!ignoreList.contains(uuid)) {
             ignoreList.add(uuid);
+            markChanged();
             return true;
         }
 
@@ -32,7 +33,12 @@ public class IgnoreUserDataModule extends DataModule<ModularUserService> {
     }
 
     public boolean removeFromIgnoreList(UUID uuid) {
-        return ignoreList.remove(uuid);
+        if (ignoreList.remove(uuid)) {
+            markChanged();
+            return true;
+        }
+
+        return false;
     }
 
 }
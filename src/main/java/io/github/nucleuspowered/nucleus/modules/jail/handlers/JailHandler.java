@@ -166,6 +166,7 @@ public class JailHandler implements NucleusJailService, ContextCalculator<Subjec
         }
 
         jailDataCache.put(user.getUniqueId(), new Context("nucleus_jail", data.getJailName()));
+        plugin.getUserCacheService().updateCacheForPlayer(modularUserService);
         Sponge.getEventManager().post(new JailEvent.Jailed(
                 user,
                 Cause.of(NamedCause.owner(Util.getObjectFromUUID(data.getJailerInternal()))),
@@ -198,12 +199,14 @@ public class JailHandler implements NucleusJailService, ContextCalculator<Subjec
 
                 // Remove after the teleport for the back data.
                 jailUserDataModule.removeJailData();
+                plugin.getUserCacheService().updateCacheForPlayer(modularUserService);
             });
         } else {
             modularUserService.get(CoreUserDataModule.class).sendToLocationOnLogin(ow.isPresent() ? ow.get()
                     : new Location<>(Sponge.getServer().getWorld(Sponge.getServer().getDefaultWorld().get().getUniqueId()).get(),
                             Sponge.getServer().getDefaultWorld().get().getSpawnPosition()));
             jailUserDataModule.removeJailData();
+            plugin.getUserCacheService().updateCacheForPlayer(modularUserService);
         }
 
         Sponge.getEventManager().post(new JailEvent.Unjailed(user, cause));
@@ -129,7 +129,9 @@ public class JailListener extends ListenerBase.Reloadable {
             Optional<JailData> omd = qs.getJailData();
             if (omd.isPresent()) {
                 JailData md = omd.get();
-                md.nextLoginToTimestamp();
+                if (md.nextLoginToTimestamp()) {
+                    qs.setJailData(md);
+                }
 
                 omd = Util.testForEndTimestamp(qs.getJailData(), () -> handler.unjailPlayer(user));
                 if (omd.isPresent()) {
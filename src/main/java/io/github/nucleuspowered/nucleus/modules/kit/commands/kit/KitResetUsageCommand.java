@@ -13,6 +13,7 @@ import io.github.nucleuspowered.nucleus.internal.annotations.command.RegisterCom
 import io.github.nucleuspowered.nucleus.internal.command.AbstractCommand;
 import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
 import io.github.nucleuspowered.nucleus.modules.kit.datamodules.KitUserDataModule;
+import io.github.nucleuspowered.nucleus.modules.kit.handlers.KitHandler;
 import org.spongepowered.api.command.CommandResult;
 import org.spongepowered.api.command.CommandSource;
 import org.spongepowered.api.command.args.CommandContext;
@@ -58,6 +59,7 @@ public class KitResetUsageCommand extends AbstractCommand<CommandSource> {
         if (inu.getKitLastUsedTime().containsKey(kitInfo.name.toLowerCase())) {
             // Remove the key.
             inu.removeKitLastUsedTime(kitInfo.name.toLowerCase());
+            plugin.getCooldownService().removeCooldown(u.getUniqueId(), KitHandler.getCooldownKey(kitInfo.name));
 
             player.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.kit.resetuser.success", u.getName(), kitInfo.name));
             return CommandResult.success();
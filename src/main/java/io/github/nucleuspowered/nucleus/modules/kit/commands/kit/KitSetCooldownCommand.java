@@ -58,6 +58,9 @@ public class KitSetCooldownCommand extends AbstractCommand<CommandSource> {
 
         kitInfo.kit.setInterval(Duration.ofSeconds(seconds));
         kitHandler.saveKit(kitInfo.name, kitInfo.kit);
+
+        // The cooldowns that are held were worked out from the old interval.
+        plugin.getCooldownService().removeCooldowns(KitHandler.getCooldownKey(kitInfo.name));
         player.sendMessage(plugin.getMessageProvider().getTextMessageWithFormat("command.kit.setcooldown.success", kitInfo.name, Util.getTimeStringFromSeconds(seconds)));
         return CommandResult.success();
     }
@@ -25,9 +25,12 @@ public class KitUserDataModule extends DataModule<ModularUserService> {
 
     public void addKitLastUsedTime(String kitName, Instant lastTime) {
         kitLastUsedTime.put(kitName.toLowerCase(), lastTime.getEpochSecond());
+        markChanged();
     }
 
     public void removeKitLastUsedTime(String kitName) {
-        kitLastUsedTime.remove(kitName.toLowerCase());
+        if (kitLastUsedTime.remove(kitName.toLowerCase()) != null) {
+            markChanged();
+        }
     }
 }
@@ -20,6 +20,7 @@ import io.github.nucleuspowered.nucleus.dataservices.KitService;
 import io.github.nucleuspowered.nucleus.internal.CommandPermissionHandler;
 import io.github.nucleuspowered.nucleus.internal.command.ReturnMessageException;
 import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
+import io.github.nucleuspowered.nucleus.internal.services.CooldownService;
 import io.github.nucleuspowered.nucleus.modules.kit.KitModule;
 import io.github.nucleuspowered.nucleus.modules.kit.commands.kit.KitCommand;
 import io.github.nucleuspowered.nucleus.modules.kit.config.KitConfig;
@@ -46,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -182,9 +184,9 @@ public class KitHandler implements NucleusKitService {
                 if (!cph.testCooldownExempt(player) && kit.getInterval().getSeconds() > 0) {
 
                     // ...and we haven't reached the cooldown point yet...
-                    Instant timeForNextUse = oi.get().plus(kit.getInterval());
-                    if (timeForNextUse.isAfter(now)) {
-                        Duration d = Duration.between(now, timeForNextUse);
+                    Optional<Duration> remaining = getRemainingCooldown(player.getUniqueId(), kitName, kit, oi.get(), now);
+                    if (remaining.isPresent()) {
+                        Duration d = remaining.get();
 
                         // tell the user.
                         if (player == source) {
@@ -265,6 +267,7 @@ public class KitHandler implements NucleusKitService {
             // permissions or cooldowns change later
             if (performChecks) {
                 user.addKitLastUsedTime(kitName, now);
+                Nucleus.getNucleus().getCooldownService().setCooldown(player.getUniqueId(), getCooldownKey(kitName), kit.getInterval());
             }
 
             Sponge.getEventManager().post(new KitEvent.PostRedeem(cause, oi.orElse(null), kitName, kit, player));
@@ -285,6 +288,36 @@ public class KitHandler implements NucleusKitService {
         }
     }
 
+    /**
+     * Gets the key that the cooldowns of a kit are held under in the {@link CooldownService}.
+     *
+     * @param kitName The name of the kit.
+     * @return The key.
+     */
+    public static String getCooldownKey(String kitName) {
+        return "nucleus:kit." + kitName.toLowerCase();
+    }
+
+    private Optional<Duration> getRemainingCooldown(UUID uuid, String kitName, Kit kit, Instant lastUsed, Instant now) {
+        CooldownService cooldownService = Nucleus.getNucleus().getCooldownService();
+        String key = getCooldownKey(kitName);
+        Optional<Duration> remaining = cooldownService.getRemainingCooldown(uuid, key);
+        if (remaining.isPresent()) {
+            return remaining;
+        }
+
+        // The cooldown may not be held, such as after a restart when cooldowns are not kept, so work it out from the
+        // last time the kit was used, and hold it from now on.
+        Instant timeForNextUse = lastUsed.plus(kit.getInterval());
+        if (timeForNextUse.isAfter(now)) {
+            Duration d = Duration.between(now, timeForNextUse);
+            cooldownService.setCooldown(uuid, key, d);
+            return Optional.of(d);
+        }
+
+        return Optional.empty();
+    }
+
     public void reload() {
         Nucleus.getNucleus()
             .getConfigAdapter(KitModule.ID, KitConfigAdapter.class)
@@ -29,15 +29,22 @@ public class MailUserDataModule extends DataModule<ModularUserService> {
         }
 
         mailDataList.add(mailData);
+        markChanged();
     }
 
     public boolean removeMail(MailMessage mailData) {
-        return mailDataList.removeIf(x -> x.equals(mailData));
+        if (mailDataList.removeIf(x -> x.equals(mailData))) {
+            markChanged();
+            return true;
+        }
+
+        return false;
     }
 
     public boolean clearMail() {
         if (!mailDataList.isEmpty()) {
             mailDataList.clear();
+            markChanged();
             return true;
         } else {
             return false;
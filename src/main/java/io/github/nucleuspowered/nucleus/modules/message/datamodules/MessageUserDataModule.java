@@ -23,5 +23,6 @@ public class MessageUserDataModule extends DataModule.ReferenceService<ModularUs
 
     public void setSocialSpy(boolean socialSpy) {
         this.socialspy = socialSpy;
+        markChanged();
     }
 }
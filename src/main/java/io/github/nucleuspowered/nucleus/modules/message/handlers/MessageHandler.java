@@ -12,6 +12,7 @@ import io.github.nucleuspowered.nucleus.Util;
 import io.github.nucleuspowered.nucleus.api.service.NucleusPrivateMessagingService;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
 import io.github.nucleuspowered.nucleus.internal.CommandPermissionHandler;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
 import io.github.nucleuspowered.nucleus.internal.text.NucleusTextTemplateFactory;
 import io.github.nucleuspowered.nucleus.internal.text.NucleusTextTemplateImpl;
 import io.github.nucleuspowered.nucleus.internal.text.TextParsingUtils;
@@ -109,7 +110,7 @@ public class MessageHandler implements NucleusPrivateMessagingService {
     }
 
     @Override public int getSocialSpyLevel(User user) {
-        return useLevels ? Util.getPositiveIntOptionFromSubject(user, socialSpyOption).orElse(0) : 0;
+        return useLevels ? Nucleus.getNucleus().getPermissionCache().getOption(user, OptionParser.POSITIVE_INT, socialSpyOption).orElse(0) : 0;
     }
 
     @Override public Tristate forcedSocialSpyState(User user) {
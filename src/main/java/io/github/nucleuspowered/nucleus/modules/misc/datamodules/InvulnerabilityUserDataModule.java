@@ -27,6 +27,7 @@ public class InvulnerabilityUserDataModule extends DataModule.ReferenceService<M
 
     public void setInvulnerable(boolean invulnerable) {
         this.invulnerable = invulnerable;
+        markChanged();
 
         if (invulnerable) {
             getService().getPlayer().ifPresent(x -> previousHungerValue = x.get(Keys.FOOD_LEVEL).orElse(20));
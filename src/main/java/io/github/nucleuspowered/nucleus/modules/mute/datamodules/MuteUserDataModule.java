@@ -25,9 +25,11 @@ public class MuteUserDataModule extends DataModule<ModularUserService> {
 
     public void setMuteData(@Nullable MuteData mData) {
         this.muteData = mData;
+        markChanged();
     }
 
     public void removeMuteData() {
         this.muteData = null;
+        markChanged();
     }
 }
@@ -100,6 +100,7 @@ public class MuteHandler implements ContextCalculator<Subject>, NucleusMuteServi
 
         u.get(MuteUserDataModule.class).setMuteData(data);
         muteContextCache.put(u.getUniqueId(), true);
+        nucleus.getUserCacheService().updateCacheForPlayer(u);
         Sponge.getEventManager().post(new MuteEvent.Muted(
                 cause,
                 user,
@@ -122,6 +123,7 @@ public class MuteHandler implements ContextCalculator<Subject>, NucleusMuteServi
             if (o.isPresent()) {
                 o.get().get(MuteUserDataModule.class).removeMuteData();
                 muteContextCache.put(user.getUniqueId(), false);
+                nucleus.getUserCacheService().updateCacheForPlayer(o.get());
                 Sponge.getEventManager().post(new MuteEvent.Unmuted(
                         cause,
                         user,
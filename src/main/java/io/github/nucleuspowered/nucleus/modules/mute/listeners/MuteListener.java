@@ -16,6 +16,7 @@ import io.github.nucleuspowered.nucleus.modules.mute.commands.MuteCommand;
 import io.github.nucleuspowered.nucleus.modules.mute.commands.VoiceCommand;
 import io.github.nucleuspowered.nucleus.modules.mute.config.MuteConfigAdapter;
 import io.github.nucleuspowered.nucleus.modules.mute.data.MuteData;
+import io.github.nucleuspowered.nucleus.modules.mute.datamodules.MuteUserDataModule;
 import io.github.nucleuspowered.nucleus.modules.mute.handler.MuteHandler;
 import io.github.nucleuspowered.nucleus.util.PermissionMessageChannel;
 import org.spongepowered.api.Sponge;
@@ -62,7 +63,10 @@ public class MuteListener extends ListenerBase {
             Optional<MuteData> omd = handler.getPlayerMuteData(user);
             if (omd.isPresent()) {
                 MuteData md = omd.get();
-                md.nextLoginToTimestamp();
+                if (md.nextLoginToTimestamp()) {
+                    // The mute was changed in place, so the module has to be told.
+                    plugin.getUserDataManager().get(user).ifPresent(x -> x.set(x.get(MuteUserDataModule.class)));
+                }
 
                 omd = Util.testForEndTimestamp(handler.getPlayerMuteData(user), () -> handler.unmutePlayer(user));
                 if (omd.isPresent()) {
@@ -73,6 +73,7 @@ public class NicknameUserDataModule extends DataModule.ReferenceService<ModularU
     public void setNickname(String nickname) {
         this.nicknameStore = nickname;
         this.nickname = null;
+        markChanged();
 
         Optional<String> p = getNickPrefix();
         if (p.isPresent() && !p.get().isEmpty()) {
@@ -80,13 +81,20 @@ public class NicknameUserDataModule extends DataModule.ReferenceService<ModularU
         }
 
         Text nick = TextSerializers.FORMATTING_CODE.deserialize(nickname);
-        getService().getPlayer().ifPresent(x -> x.offer(Keys.DISPLAY_NAME, nick));
+        getService().getPlayer().ifPresent(x -> {
+            x.offer(Keys.DISPLAY_NAME, nick);
+            Nucleus.getNucleus().getUserNameIndex().setNickname(x.getUniqueId(), this.nicknameStore);
+        });
     }
 
     public void removeNickname() {
         nickname = null;
         nicknameStore = null;
-        getService().getPlayer().ifPresent(x -> x.remove(Keys.DISPLAY_NAME));
+        markChanged();
+        getService().getPlayer().ifPresent(x -> {
+            x.remove(Keys.DISPLAY_NAME);
+            Nucleus.getNucleus().getUserNameIndex().setNickname(x.getUniqueId(), null);
+        });
     }
 
     private static Optional<String> getNickPrefix() {
@@ -25,12 +25,20 @@ public class NicknameListener extends ListenerBase {
     @Listener
     public void onPlayerJoin(ClientConnectionEvent.Join event, @Root Player player) {
         ucl.get(player).ifPresent(x -> {
-            Optional<Text> d = x.get(NicknameUserDataModule.class).getNicknameAsText();
+            NicknameUserDataModule nicknameUserDataModule = x.get(NicknameUserDataModule.class);
+            Optional<Text> d = nicknameUserDataModule.getNicknameAsText();
             if (d.isPresent()) {
                 player.offer(Keys.DISPLAY_NAME, d.get());
             } else {
                 player.remove(Keys.DISPLAY_NAME);
             }
+
+            plugin.getUserNameIndex().setNickname(player.getUniqueId(), nicknameUserDataModule.getNicknameAsString().orElse(null));
         });
     }
+
+    @Listener
+    public void onPlayerQuit(ClientConnectionEvent.Disconnect event, @Root Player player) {
+        plugin.getUserNameIndex().setNickname(player.getUniqueId(), null);
+    }
 }
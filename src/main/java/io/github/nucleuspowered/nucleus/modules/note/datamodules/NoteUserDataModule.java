@@ -30,16 +30,23 @@ public class NoteUserDataModule extends DataModule<ModularUserService> {
         }
 
         notes.add(note);
+        markChanged();
     }
 
     public boolean removeNote(Note note) {
-        return notes.removeIf(x -> x.getNoterInternal().equals(note.getNoter().orElseGet(() -> Util.consoleFakeUUID))
-                && x.getNote().equals(note.getNote()));
+        if (notes.removeIf(x -> x.getNoterInternal().equals(note.getNoter().orElseGet(() -> Util.consoleFakeUUID))
+                && x.getNote().equals(note.getNote()))) {
+            markChanged();
+            return true;
+        }
+
+        return false;
     }
 
     public boolean clearNotes() {
         if (!notes.isEmpty()) {
             notes.clear();
+            markChanged();
             return true;
         } else {
             return false;
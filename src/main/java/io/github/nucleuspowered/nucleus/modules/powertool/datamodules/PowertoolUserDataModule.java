@@ -39,14 +39,19 @@ public class PowertoolUserDataModule extends DataModule<ModularUserService> {
 
     public void setPowertool(ItemType type, List<String> commands) {
         powertools.put(type.getId(), commands);
+        markChanged();
     }
 
     public void clearPowertool(ItemType type) {
-        powertools.remove(type.getId());
+        if (powertools.remove(type.getId()) != null) {
+            markChanged();
+        }
     }
 
     public void clearPowertool(String type) {
-        powertools.remove(type);
+        if (powertools.remove(type) != null) {
+            markChanged();
+        }
     }
 
     public boolean isPowertoolToggled() {
@@ -55,6 +60,7 @@ public class PowertoolUserDataModule extends DataModule<ModularUserService> {
 
     public void setPowertoolToggle(boolean set) {
         this.powertoolToggle = set;
+        markChanged();
     }
 
 }
@@ -25,5 +25,6 @@ public class SpawnWorldDataModule extends DataModule<ModularWorldService> {
 
     public void setSpawnRotation(@Nullable Vector3d spawnRotation) {
         this.spawnRotation = spawnRotation;
+        markChanged();
     }
 }
@@ -65,7 +65,8 @@ public class StaffChatMessageChannel implements NucleusChatChannel.StaffChat {
     @Override
     @Nonnull
     public Collection<MessageReceiver> getMembers() {
-        List<MessageReceiver> c = Sponge.getServer().getOnlinePlayers().stream().filter(x -> x.hasPermission(basePerm)).collect(Collectors.toList());
+        List<MessageReceiver> c = Sponge.getServer().getOnlinePlayers().stream()
+                .filter(x -> plugin.getPermissionCache().hasPermission(x, basePerm)).collect(Collectors.toList());
         c.add(Sponge.getServer().getConsole());
         return c;
     }
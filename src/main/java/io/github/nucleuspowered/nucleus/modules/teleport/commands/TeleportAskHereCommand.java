@@ -86,7 +86,7 @@ public class TeleportAskHereCommand extends StandardAbstractCommand<Player> {
                     event.getCancelMessage().orElseGet(() -> plugin.getMessageProvider().getTextMessageWithFormat("command.tpa.eventfailed")));
         }
 
-        SubjectPermissionCache<Player> targetCache = new SubjectPermissionCache<>(target);
+        SubjectPermissionCache<Player> targetCache = new SubjectPermissionCache<>(target, plugin.getPermissionCache());
         TeleportHandler.TeleportBuilder tb = tpHandler.getBuilder().setFrom(target).setTo(src).setSafe(!args.<Boolean>getOne("f").orElse(false));
         int warmup = getWarmup(targetCache);
         if (warmup > 0) {
@@ -19,5 +19,6 @@ public class VanishUserDataModule extends DataModule<ModularUserService> {
 
     public void setVanished(boolean vanished) {
         this.vanish = vanished;
+        markChanged();
     }
 }
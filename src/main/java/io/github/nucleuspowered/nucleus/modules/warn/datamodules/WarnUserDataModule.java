@@ -25,6 +25,7 @@ public class WarnUserDataModule extends DataModule<ModularUserService> {
 
     public void setWarnings(List<WarnData> warnings) {
         this.warnings = warnings;
+        markChanged();
     }
 
     public void addWarning(WarnData warning) {
@@ -34,15 +35,22 @@ public class WarnUserDataModule extends DataModule<ModularUserService> {
 
         warnings.add(warning);
         warnings.sort((x, y) -> Boolean.compare(x.isExpired(), y.isExpired()));
+        markChanged();
     }
 
     public boolean removeWarning(Warning warning) {
-        return warnings.removeIf(x -> x.equals(warning));
+        if (warnings.removeIf(x -> x.equals(warning))) {
+            markChanged();
+            return true;
+        }
+
+        return false;
     }
 
     public boolean clearWarnings() {
         if (!warnings.isEmpty()) {
             warnings.clear();
+            markChanged();
             return true;
         } else {
             return false;
@@ -150,13 +150,20 @@ public class WarnHandler implements NucleusWarningService {
             return false;
         }
 
+        boolean changed = false;
         for (WarnData warning : getWarningsInternal(user)) {
-            warning.nextLoginToTimestamp();
+            changed |= warning.nextLoginToTimestamp();
 
             if (warning.getEndTimestamp().isPresent() && warning.getEndTimestamp().get().isBefore(Instant.now())) {
                 removeWarning(user, warning);
             }
         }
+
+        if (changed) {
+            // The warnings were changed in place, so the module has to be told.
+            userService.get().set(userService.get().get(WarnUserDataModule.class));
+        }
+
         return true;
     }
 
@@ -12,6 +12,7 @@ import io.github.nucleuspowered.nucleus.internal.permissions.PermissionInformati
 import io.github.nucleuspowered.nucleus.internal.permissions.SuggestedLevel;
 import io.github.nucleuspowered.nucleus.modules.warn.config.WarnConfigAdapter;
 import io.github.nucleuspowered.nucleus.modules.warn.data.WarnData;
+import io.github.nucleuspowered.nucleus.modules.warn.datamodules.WarnUserDataModule;
 import io.github.nucleuspowered.nucleus.modules.warn.handlers.WarnHandler;
 import io.github.nucleuspowered.nucleus.util.PermissionMessageChannel;
 import org.spongepowered.api.Sponge;
@@ -48,8 +49,9 @@ public class WarnListener extends ListenerBase {
             Player player = event.getTargetEntity();
             List<WarnData> warnings = handler.getWarningsInternal(player, true, false);
             if (warnings != null && !warnings.isEmpty()) {
+                boolean changed = false;
                 for (WarnData warning : warnings) {
-                    warning.nextLoginToTimestamp();
+                    changed |= warning.nextLoginToTimestamp();
 
                     if (warning.getEndTimestamp().isPresent() && warning.getEndTimestamp().get().isBefore(Instant.now())) {
                         handler.removeWarning(player, warning);
@@ -65,6 +67,11 @@ public class WarnListener extends ListenerBase {
                     }
                 }
 
+                if (changed) {
+                    // The warnings were changed in place, so the module has to be told.
+                    plugin.getUserDataManager().get(player).ifPresent(x -> x.set(x.get(WarnUserDataModule.class)));
+                }
+
                 // Now, let's check again
                 if (wca.getNodeOrDefault().isShowOnLogin()) {
                     List<WarnData> lwd = warnings.stream().filter(x -> !x.isExpired()).collect(Collectors.toList());
@@ -56,6 +56,7 @@ public class WarpGeneralDataModule extends LocationDataModule<ModularGeneralServ
         }
 
         warps.put(name, new WarpNode(loc, rot));
+        markChanged();
         return true;
     }
 
@@ -63,8 +64,8 @@ public class WarpGeneralDataModule extends LocationDataModule<ModularGeneralServ
         Preconditions.checkArgument(cost >= -1);
         Optional<WarpNode> os = Util.getValueIgnoreCase(warps, name);
         if (os.isPresent()) {
-            // No need to put it back - it's saved automatically.
             os.get().setCost(cost);
+            markChanged();
             return true;
         }
 
@@ -74,12 +75,12 @@ public class WarpGeneralDataModule extends LocationDataModule<ModularGeneralServ
     public boolean setWarpsWarpCategory(String name, String category) {
         Optional<WarpNode> os = Util.getValueIgnoreCase(warps, name);
         if (os.isPresent()) {
-            // No need to put it back - it's saved automatically.
             os.get().setCategory(category);
             if (category != null) {
                 warpCategories.putIfAbsent(category.toLowerCase(), new WarpCategoryDataNode());
             }
 
+            markChanged();
             return true;
         }
 
@@ -89,8 +90,8 @@ public class WarpGeneralDataModule extends LocationDataModule<ModularGeneralServ
     public boolean setWarpDescription(String name, @Nullable Text description) {
         Optional<WarpNode> os = Util.getValueIgnoreCase(warps, name);
         if (os.isPresent()) {
-            // No need to put it back - it's saved automatically.
             os.get().setDescription(description);
+            markChanged();
             return true;
         }
 
@@ -101,6 +102,7 @@ public class WarpGeneralDataModule extends LocationDataModule<ModularGeneralServ
         Optional<String> os = Util.getKeyIgnoreCase(warps, name);
         if (os.isPresent()) {
             warps.remove(os.get());
+            markChanged();
             return true;
         }
 
@@ -142,6 +144,7 @@ public class WarpGeneralDataModule extends LocationDataModule<ModularGeneralServ
                 TextSerializers.JSON.serialize(displayName != null ? displayName : Text.of(category)),
                 description != null ? TextSerializers.JSON.serialize(description) : null
             ));
+        markChanged();
     }
 
     private static class WarpData extends LocationData implements Warp {
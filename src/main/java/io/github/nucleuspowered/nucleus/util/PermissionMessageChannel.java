@@ -4,6 +4,8 @@
  */
 package io.github.nucleuspowered.nucleus.util;
 
+import io.github.nucleuspowered.nucleus.Nucleus;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.text.channel.MessageChannel;
 import org.spongepowered.api.text.channel.MessageReceiver;
@@ -23,8 +25,9 @@ public class PermissionMessageChannel implements MessageChannel {
     }
 
     public Collection<MessageReceiver> getMembers() {
+        SessionPermissionCache permissionCache = Nucleus.getNucleus().getPermissionCache();
         List<MessageReceiver> lmr = Sponge.getServer().getOnlinePlayers()
-                .stream().filter(x -> x.hasPermission(this.permission)).collect(Collectors.toList());
+                .stream().filter(x -> permissionCache.hasPermission(x, this.permission)).collect(Collectors.toList());
         lmr.add(Sponge.getServer().getConsole());
         return lmr;
     }
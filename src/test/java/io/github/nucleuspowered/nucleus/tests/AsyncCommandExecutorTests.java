@@ -0,0 +1,80 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import io.github.nucleuspowered.nucleus.internal.command.AsyncCommandExecutor;
+import io.github.nucleuspowered.nucleus.internal.command.CommandMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncCommandExecutorTests {
+
+    private final CommandMetrics metrics = new CommandMetrics();
+    private final AsyncCommandExecutor executor = new AsyncCommandExecutor(4, 10, 3, metrics, Mockito.mock(Logger.class));
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCommandsFromOneSourceRunInOrder() throws Exception {
+        UUID source = UUID.randomUUID();
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            Assert.assertTrue(executor.submit(source, "test", () -> {
+                await(release);
+                ran.add(index);
+                done.countDown();
+            }));
+        }
+
+        release.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertArrayEquals(new Object[] { 0, 1, 2 }, ran.toArray());
+
+        Assert.assertEquals(3, metrics.get("test").get(CommandMetrics.Stage.QUEUE).getCount());
+    }
+
+    @Test
+    public void testCommandsOverTheLimitsAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        UUID source = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(executor.submit(source, "test", () -> await(release)));
+        }
+
+        Assert.assertFalse(executor.submit(source, "test", () -> {}));
+
+        // Other sources are only held back by the total.
+        for (int i = 0; i < 7; i++) {
+            Assert.assertTrue(executor.submit(UUID.randomUUID(), "test", () -> await(release)));
+        }
+
+        Assert.assertFalse(executor.submit(UUID.randomUUID(), "test", () -> {}));
+        Assert.assertEquals(2, metrics.get("test").getRejected());
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+import io.github.nucleuspowered.nucleus.dataservices.CompactUserCacheStore;
+import io.github.nucleuspowered.nucleus.dataservices.IndexedUserCacheStore;
+import io.github.nucleuspowered.nucleus.dataservices.UserCacheStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Checks that the {@link CompactUserCacheStore} gives back what it was given, and answers queries as the
+ * {@link IndexedUserCacheStore} does.
+ */
+public class CompactUserCacheStoreTests {
+
+    // Addresses that look like IPv4 addresses, but would not format back to the same string, must be stored as given.
+    private static final String[] ADDRESSES = { "127.0.0.1", "0.0.0.0", "255.255.255.255", "010.0.0.1", "10.0.0.01", "1.2.3",
+            "1.2.3.4.5", "256.0.0.1", "1..2.3", "::1", "2001:db8::ff00:42:8329", "" };
+
+    private static final String[] JAILS = { "jail", "JAIL", "Jail", "other" };
+
+    @Test
+    public void testIpv4AddressesRoundTrip() {
+        assertRoundTrip("127.0.0.1");
+        assertRoundTrip("255.255.255.255");
+        assertRoundTrip("0.0.0.0");
+        assertRoundTrip("1.0.0.0");
+    }
+
+    @Test
+    public void testAddressesWithLeadingZerosRoundTrip() {
+        assertRoundTrip("010.0.0.1");
+        assertRoundTrip("10.0.0.01");
+        assertRoundTrip("00.0.0.0");
+    }
+
+    @Test
+    public void testOtherAddressesRoundTrip() {
+        assertRoundTrip("::1");
+        assertRoundTrip("2001:db8::ff00:42:8329");
+        assertRoundTrip("1.2.3");
+        assertRoundTrip("1.2.3.4.5");
+        assertRoundTrip("256.0.0.1");
+        assertRoundTrip("");
+        assertRoundTrip(null);
+    }
+
+    @Test
+    public void testJailNamesAreKeptAsGiven() {
+        CompactUserCacheStore store = new CompactUserCacheStore();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        store.put(first, new UserCacheDataNode(null, "Jail", false));
+        store.put(second, new UserCacheDataNode(null, "jail", true));
+
+        Assert.assertEquals("Jail", store.get(first).getJailName().get());
+        Assert.assertEquals("jail", store.get(second).getJailName().get());
+        Assert.assertFalse(store.get(first).isMuted());
+        Assert.assertTrue(store.get(second).isMuted());
+        Assert.assertEquals(new HashSet<>(store.getJailedIn("JAIL")), set(first, second));
+    }
+
+    @Test
+    public void testLeadingZerosAreNotMatchedAsTheFormattedAddress() {
+        CompactUserCacheStore store = new CompactUserCacheStore();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        store.put(first, new UserCacheDataNode("010.0.0.1", null, false));
+        store.put(second, new UserCacheDataNode("10.0.0.1", null, false));
+
+        Assert.assertEquals(new HashSet<>(store.getForIp("010.0.0.1")), set(first));
+        Assert.assertEquals(new HashSet<>(store.getForIp("10.0.0.1")), set(second));
+        Assert.assertTrue(store.getForIp("0.0.0.0").isEmpty());
+    }
+
+    @Test
+    public void testReplacedEntriesLeaveNoResults() {
+        CompactUserCacheStore store = new CompactUserCacheStore();
+        UUID uuid = UUID.randomUUID();
+        store.put(uuid, new UserCacheDataNode("127.0.0.1", "jail", true));
+        store.put(uuid, new UserCacheDataNode("::1", null, false));
+
+        Assert.assertEquals(1, store.size());
+        Assert.assertTrue(store.getForIp("127.0.0.1").isEmpty());
+        Assert.assertEquals(new HashSet<>(store.getForIp("::1")), set(uuid));
+        Assert.assertTrue(store.getJailed().isEmpty());
+        Assert.assertTrue(store.getJailedIn("jail").isEmpty());
+        Assert.assertTrue(store.getMuted().isEmpty());
+    }
+
+    @Test
+    public void testQueriesMatchTheIndexedStore() {
+        Random random = new Random(1234);
+        CompactUserCacheStore compact = new CompactUserCacheStore();
+        IndexedUserCacheStore indexed = new IndexedUserCacheStore();
+        Map<UUID, UserCacheDataNode> expected = new HashMap<>();
+
+        // Enough users to grow the columns, with some replaced along the way.
+        UUID[] uuids = new UUID[5000];
+        for (int i = 0; i < 8000; i++) {
+            int index = random.nextInt(uuids.length);
+            if (uuids[index] == null) {
+                uuids[index] = new UUID(random.nextLong(), random.nextLong());
+            }
+
+            UserCacheDataNode node = new UserCacheDataNode(
+                    random.nextInt(10) == 0 ? null : random.nextBoolean() ? ADDRESSES[random.nextInt(ADDRESSES.length)] : "10.0.0." + random.nextInt(20),
+                    random.nextInt(4) == 0 ? JAILS[random.nextInt(JAILS.length)] : null,
+                    random.nextInt(5) == 0);
+            compact.put(uuids[index], node);
+            indexed.put(uuids[index], node);
+            expected.put(uuids[index], node);
+        }
+
+        Assert.assertEquals(expected.size(), compact.size());
+        Map<UUID, UserCacheDataNode> actual = new HashMap<>();
+        compact.forEach(actual::put);
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((uuid, node) -> assertSame(node, compact.get(uuid)));
+        actual.forEach((uuid, node) -> assertSame(expected.get(uuid), node));
+
+        for (String address : ADDRESSES) {
+            assertSameResults(indexed.getForIp(address), compact.getForIp(address));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertSameResults(indexed.getForIp("10.0.0." + i), compact.getForIp("10.0.0." + i));
+        }
+
+        for (String jail : JAILS) {
+            assertSameResults(indexed.getJailedIn(jail), compact.getJailedIn(jail));
+        }
+
+        assertSameResults(indexed.getJailedIn("missing"), compact.getJailedIn("missing"));
+        assertSameResults(indexed.getJailed(), compact.getJailed());
+        assertSameResults(indexed.getMuted(), compact.getMuted());
+        Assert.assertNull(compact.get(UUID.randomUUID()));
+    }
+
+    private static void assertRoundTrip(String ip) {
+        UserCacheStore store = new CompactUserCacheStore();
+        UUID uuid = UUID.randomUUID();
+        store.put(uuid, new UserCacheDataNode(ip, null, false));
+
+        UserCacheDataNode node = store.get(uuid);
+        Assert.assertEquals(ip, node.getIpAddress().orElse(null));
+        if (ip != null) {
+            Assert.assertEquals(new HashSet<>(store.getForIp(ip)), set(uuid));
+        }
+    }
+
+    private static void assertSame(UserCacheDataNode expected, UserCacheDataNode actual) {
+        Assert.assertEquals(expected.getIpAddress(), actual.getIpAddress());
+        Assert.assertEquals(expected.getJailName(), actual.getJailName());
+        Assert.assertEquals(expected.isMuted(), actual.isMuted());
+    }
+
+    private static void assertSameResults(List<UUID> expected, List<UUID> actual) {
+        // Neither store promises an order, but neither should list a user twice.
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    private static HashSet<UUID> set(UUID... uuids) {
+        HashSet<UUID> set = new HashSet<>();
+        for (UUID uuid : uuids) {
+            set.add(uuid);
+        }
+
+        return set;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import io.github.nucleuspowered.nucleus.internal.services.CooldownService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CooldownServiceTests {
+
+    private static final long START = 1_500_000_000_000L;
+
+    private final AtomicLong time = new AtomicLong(START);
+    private final CooldownService service = new CooldownService(null, Mockito.mock(Logger.class), time::get);
+    private final UUID user = UUID.randomUUID();
+
+    @Test
+    public void testCooldownLastsForItsDuration() {
+        service.setCooldown(user, "test:a", Duration.ofSeconds(10));
+        time.addAndGet(9500);
+        Assert.assertEquals(500, service.getRemainingCooldown(user, "test:a").get().toMillis());
+
+        time.addAndGet(500);
+        Assert.assertFalse(service.getRemainingCooldown(user, "test:a").isPresent());
+        Assert.assertFalse(service.getRemainingCooldown(UUID.randomUUID(), "test:a").isPresent());
+    }
+
+    @Test
+    public void testExpiredCooldownsAreRemovedAtEveryLevel() {
+        // From seconds to over a year, so that every level of the wheel is used.
+        long[] seconds = { 1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 300000, 16777215, 16777216, 40000000 };
+        for (int i = 0; i < seconds.length; i++) {
+            service.setCooldown(user, "test:" + i, Duration.ofSeconds(seconds[i]));
+        }
+
+        for (int i = 0; i < seconds.length; i++) {
+            time.set(START + TimeUnit.SECONDS.toMillis(seconds[i] - 1));
+            Assert.assertTrue("Cooldown " + i + " ended early", service.getRemainingCooldown(user, "test:" + i).isPresent());
+            Assert.assertEquals(seconds.length - i, service.size());
+
+            time.addAndGet(1000);
+            Assert.assertFalse("Cooldown " + i + " did not end", service.getRemainingCooldown(user, "test:" + i).isPresent());
+            Assert.assertEquals(seconds.length - i - 1, service.size());
+        }
+    }
+
+    @Test
+    public void testReplacingAndRemovingCooldowns() {
+        UUID other = UUID.randomUUID();
+        service.setCooldown(user, "test:a", Duration.ofSeconds(100));
+        service.setCooldown(user, "test:a", Duration.ofSeconds(5));
+        service.setCooldown(other, "test:a", Duration.ofSeconds(5));
+        service.setCooldown(user, "test:b", Duration.ofSeconds(5));
+        Assert.assertEquals(5, service.getRemainingCooldown(user, "test:a").get().getSeconds());
+
+        Assert.assertTrue(service.removeCooldown(user, "test:b"));
+        Assert.assertFalse(service.removeCooldown(user, "test:b"));
+
+        service.removeCooldowns("test:a");
+        Assert.assertEquals(0, service.size());
+    }
+}
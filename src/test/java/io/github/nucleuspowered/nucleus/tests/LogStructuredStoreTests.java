@@ -0,0 +1,180 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.LogStructuredStore;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class LogStructuredStoreTests {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    @Test
+    public void testWritesAreReadBack() throws Exception {
+        try (LogStructuredStore store = open(folder.getRoot().toPath().resolve("test.store"))) {
+            store.write(first, bytes("one"));
+            store.write(second, bytes("two"));
+            store.write(first, bytes("uno"));
+            store.delete(second);
+
+            Assert.assertEquals("uno", string(store.read(first).get()));
+            Assert.assertFalse(store.has(second));
+            Assert.assertFalse(store.read(second).isPresent());
+        }
+    }
+
+    @Test
+    public void testStoreIsRecoveredWhenReopened() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.store");
+        try (LogStructuredStore store = open(file)) {
+            store.write(first, bytes("one"));
+            store.write(second, bytes("two"));
+            store.delete(second);
+        }
+
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals(1, store.size());
+            Assert.assertEquals("one", string(store.read(first).get()));
+        }
+    }
+
+    @Test
+    public void testCompactionOnlyKeepsLatestRecords() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.store");
+        try (LogStructuredStore store = open(file)) {
+            for (int i = 0; i < 100; i++) {
+                store.write(first, bytes("value " + i));
+            }
+
+            store.write(second, bytes("two"));
+            long before = store.getFileSize();
+            store.compact();
+
+            Assert.assertTrue(store.getFileSize() < before);
+            Assert.assertEquals("value 99", string(store.read(first).get()));
+            Assert.assertEquals("two", string(store.read(second).get()));
+        }
+
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals(2, store.size());
+            Assert.assertEquals("value 99", string(store.read(first).get()));
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.store");
+        try (LogStructuredStore store = open(file)) {
+            store.write(first, bytes("one"));
+        }
+
+        // Simulate a crash part way through writing a record.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 50, 1, 2, 3 }), channel.size());
+        }
+
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals(1, store.size());
+            Assert.assertEquals("one", string(store.read(first).get()));
+
+            store.write(second, bytes("two"));
+        }
+
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals(2, store.size());
+            Assert.assertEquals("two", string(store.read(second).get()));
+        }
+    }
+
+    @Test
+    public void testCorruptRecordOnlyLosesThatRecord() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.store");
+        try (LogStructuredStore store = open(file)) {
+            store.write(first, bytes("one"));
+            store.write(second, bytes("two"));
+            store.write(first, bytes("uno"));
+        }
+
+        // Damage the payload of the second record, the header is 8 bytes and the first record is 28.
+        overwrite(file, 8 + 28 + 25, new byte[] { 'x' });
+
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals(1, store.size());
+            Assert.assertEquals("uno", string(store.read(first).get()));
+            Assert.assertFalse(store.has(second));
+        }
+
+        Assert.assertEquals(1, corruptCopies());
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals("uno", string(store.read(first).get()));
+        }
+
+        // The corrupt data was compacted away, so it is not found again.
+        Assert.assertEquals(1, corruptCopies());
+    }
+
+    @Test
+    public void testCorruptLengthDoesNotDiscardLaterRecords() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.store");
+        try (LogStructuredStore store = open(file)) {
+            store.write(first, bytes("one"));
+            store.write(second, bytes("two"));
+            store.write(second, bytes("dos"));
+        }
+
+        // A length that runs past the end of the file.
+        overwrite(file, 8, new byte[] { 0, 1, 0, 0 });
+
+        try (LogStructuredStore store = open(file)) {
+            Assert.assertEquals(1, store.size());
+            Assert.assertFalse(store.has(first));
+            Assert.assertEquals("dos", string(store.read(second).get()));
+        }
+
+        Assert.assertEquals(1, corruptCopies());
+    }
+
+    private void overwrite(Path file, long position, byte[] bytes) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private long corruptCopies() throws Exception {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            return files.filter(x -> x.getFileName().toString().startsWith("test.store.corrupt-")).count();
+        }
+    }
+
+    private static LogStructuredStore open(Path file) throws Exception {
+        return new LogStructuredStore(file, Mockito.mock(Logger.class));
+    }
+
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import com.google.common.collect.ImmutableList;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.PartialDocument;
+import ninja.leaping.configurate.gson.GsonConfigurationLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class PartialDocumentTests {
+
+    private static final String JSON = "{\n"
+            + "  \"lastIP\" : \"/127.0.0.1\",\n"
+            + "  \"homes\" : { \"home\" : { \"world\" : \"w\", \"tricky\" : \"}]\\\"\" } },\n"
+            + "  \"fly\" : true\n"
+            + "}";
+
+    @Test
+    public void testOnlyRequestedEntriesAreParsed() throws Exception {
+        PartialDocument document = PartialDocument.read(JSON, GsonConfigurationLoader::builder);
+        document.materialise(ImmutableList.of("homes", "notpresent"));
+
+        Assert.assertEquals("}]\"", document.getNode().getNode("homes", "home", "tricky").getString());
+        Assert.assertTrue(document.getNode().getNode("lastIP").isVirtual());
+        Assert.assertTrue(document.getNode().getNode("fly").isVirtual());
+        Assert.assertTrue(document.getRawLength() > 0);
+    }
+
+    @Test
+    public void testMaterialiseAllParsesEverything() throws Exception {
+        PartialDocument document = PartialDocument.read(JSON, GsonConfigurationLoader::builder);
+        document.materialise(ImmutableList.of("fly"));
+        document.materialiseAll();
+
+        Assert.assertEquals(0, document.getRawLength());
+        Assert.assertEquals("/127.0.0.1", document.getNode().getNode("lastIP").getString());
+        Assert.assertEquals("w", document.getNode().getNode("homes", "home", "world").getString());
+        Assert.assertTrue(document.getNode().getNode("fly").getBoolean());
+    }
+
+    @Test
+    public void testUnreadableEntriesAreRemovedAndTheRestKept() throws Exception {
+        String json = JSON.replace("\"fly\" : true", "\"broken\" : { \"a\" : [1, 2} ],\n  \"fly\" : true");
+        PartialDocument document = PartialDocument.read(json, GsonConfigurationLoader::builder);
+        Map<String, String> unreadable = document.removeUnreadable();
+
+        Assert.assertEquals(1, unreadable.size());
+        Assert.assertEquals("\"broken\" : { \"a\" : [1, 2} ]", unreadable.get("broken"));
+        Assert.assertEquals(0, document.getRawLength());
+        Assert.assertTrue(document.getNode().getNode("broken").isVirtual());
+        Assert.assertEquals("w", document.getNode().getNode("homes", "home", "world").getString());
+        Assert.assertTrue(document.getNode().getNode("fly").getBoolean());
+
+        // Nothing is left that would stop the document being saved.
+        document.materialiseAll();
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedDocumentIsRejected() throws Exception {
+        PartialDocument.read(JSON.substring(0, JSON.length() - 10), GsonConfigurationLoader::builder);
+    }
+}
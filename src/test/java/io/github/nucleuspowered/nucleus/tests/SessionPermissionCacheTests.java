@@ -0,0 +1,98 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import com.google.common.collect.ImmutableSet;
+import io.github.nucleuspowered.nucleus.internal.permissions.OptionParser;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.service.context.Context;
+import org.spongepowered.api.service.permission.Subject;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SessionPermissionCacheTests {
+
+    private static final String PERMISSION = "nucleus.test";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SessionPermissionCache cache = new SessionPermissionCache(clock::get);
+    private final Set<Context> contexts = ImmutableSet.of(new Context("world", "world"));
+    private Player player;
+
+    @Before
+    public void setup() {
+        cache.setExpiry(true, 30);
+        player = Mockito.mock(Player.class);
+        Mockito.when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        Mockito.when(player.getActiveContexts()).thenReturn(contexts);
+        Mockito.when(player.hasPermission(contexts, PERMISSION)).thenReturn(true);
+        cache.startSession(player.getUniqueId());
+    }
+
+    @Test
+    public void testPermissionIsOnlyCheckedOnceInASession() {
+        Assert.assertTrue(cache.hasPermission(player, PERMISSION));
+        Assert.assertTrue(cache.hasPermission(player, PERMISSION));
+        Mockito.verify(player, Mockito.times(1)).hasPermission(contexts, PERMISSION);
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPermissionIsCheckedAgainInOtherContexts() {
+        Set<Context> nether = ImmutableSet.of(new Context("world", "nether"));
+        Assert.assertTrue(cache.hasPermission(player, PERMISSION));
+        Assert.assertFalse(cache.hasPermission(player, nether, PERMISSION));
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testPermissionIsCheckedAgainAfterExpiryOrInvalidation() {
+        cache.hasPermission(player, PERMISSION);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        cache.hasPermission(player, PERMISSION);
+        cache.invalidateAll();
+        cache.hasPermission(player, PERMISSION);
+        Mockito.verify(player, Mockito.times(3)).hasPermission(contexts, PERMISSION);
+        Assert.assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testPermissionIsNotCachedOutsideOfASession() {
+        Subject subject = Mockito.mock(Subject.class);
+        Mockito.when(subject.getActiveContexts()).thenReturn(contexts);
+        cache.hasPermission(subject, PERMISSION);
+        cache.hasPermission(subject, PERMISSION);
+
+        cache.endSession(player.getUniqueId());
+        cache.hasPermission(player, PERMISSION);
+        cache.hasPermission(player, PERMISSION);
+
+        Mockito.verify(subject, Mockito.times(2)).hasPermission(contexts, PERMISSION);
+        Mockito.verify(player, Mockito.times(2)).hasPermission(contexts, PERMISSION);
+        Assert.assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void testOptionIsParsedOnceAndInvalidValuesAreSkipped() {
+        Mockito.when(player.getOption(contexts, "homes")).thenReturn(Optional.of("lots"));
+        Mockito.when(player.getOption(contexts, "home-count")).thenReturn(Optional.of("5"));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(Optional.of(5), cache.getOption(player, OptionParser.POSITIVE_INT, "homes", "home-count"));
+        }
+
+        Mockito.verify(player, Mockito.times(1)).getOption(contexts, "home-count");
+        Assert.assertEquals(Optional.of("lots"), cache.getOption(player, OptionParser.STRING, "homes"));
+    }
+}
@@ -9,10 +9,13 @@ import io.github.nucleuspowered.nucleus.NameUtil;
 import io.github.nucleuspowered.nucleus.Nucleus;
 import io.github.nucleuspowered.nucleus.api.service.NucleusMessageTokenService;
 import io.github.nucleuspowered.nucleus.config.CommandsConfig;
+import io.github.nucleuspowered.nucleus.dataservices.BackupService;
 import io.github.nucleuspowered.nucleus.dataservices.ItemDataService;
 import io.github.nucleuspowered.nucleus.dataservices.KitService;
 import io.github.nucleuspowered.nucleus.dataservices.NameBanService;
 import io.github.nucleuspowered.nucleus.dataservices.UserCacheService;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
+import io.github.nucleuspowered.nucleus.dataservices.UserQueryService;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.UserDataManager;
 import io.github.nucleuspowered.nucleus.dataservices.loaders.WorldDataManager;
 import io.github.nucleuspowered.nucleus.dataservices.modular.ModularGeneralService;
@@ -21,16 +24,21 @@ import io.github.nucleuspowered.nucleus.internal.InternalServiceManager;
 import io.github.nucleuspowered.nucleus.internal.MixinConfigProxy;
 import io.github.nucleuspowered.nucleus.internal.PermissionRegistry;
 import io.github.nucleuspowered.nucleus.internal.TextFileController;
+import io.github.nucleuspowered.nucleus.internal.command.AsyncCommandExecutor;
+import io.github.nucleuspowered.nucleus.internal.command.CommandMetrics;
 import io.github.nucleuspowered.nucleus.internal.docgen.DocGenCache;
 import io.github.nucleuspowered.nucleus.internal.messages.MessageProvider;
 import io.github.nucleuspowered.nucleus.internal.messages.ResourceMessageProvider;
+import io.github.nucleuspowered.nucleus.internal.permissions.SessionPermissionCache;
 import io.github.nucleuspowered.nucleus.internal.qsml.NucleusConfigAdapter;
+import io.github.nucleuspowered.nucleus.internal.services.CooldownService;
 import io.github.nucleuspowered.nucleus.internal.services.WarmupManager;
 import io.github.nucleuspowered.nucleus.internal.teleport.NucleusTeleportHandler;
 import io.github.nucleuspowered.nucleus.internal.text.TextParsingUtils;
 import io.github.nucleuspowered.nucleus.modules.core.config.WarmupConfig;
 import io.github.nucleuspowered.nucleus.util.ThrowableAction;
 import org.junit.BeforeClass;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.spongepowered.api.asset.Asset;
 import org.spongepowered.api.plugin.PluginContainer;
@@ -120,10 +128,30 @@ public abstract class TestBase {
         setFinalStaticFormatters(TextSerializers.class.getField("LEGACY_FORMATTING_CODE"));
     }
 
-    private static class NucleusTest extends Nucleus {
+    /**
+     * The {@link Nucleus} that tests run against. Most services are not available, but those that text parsing needs
+     * may be set by tests and benchmarks that need them.
+     */
+    public static class NucleusTest extends Nucleus {
 
         private final MessageProvider mp = new ResourceMessageProvider(ResourceMessageProvider.messagesBundle);
         private final PermissionRegistry permissionRegistry = new PermissionRegistry();
+        private final CooldownService cooldownService = new CooldownService(null, Mockito.mock(Logger.class));
+        private final CommandMetrics commandMetrics = new CommandMetrics();
+        private final SessionPermissionCache permissionCache = new SessionPermissionCache();
+        private TextParsingUtils textParsingUtils = null;
+        private NucleusMessageTokenService messageTokenService = null;
+
+        private NucleusTest() {
+        }
+
+        public void setTextParsingUtils(TextParsingUtils textParsingUtils) {
+            this.textParsingUtils = textParsingUtils;
+        }
+
+        public void setMessageTokenService(NucleusMessageTokenService messageTokenService) {
+            this.messageTokenService = messageTokenService;
+        }
 
         @Override
         public void saveData() {
@@ -161,6 +189,18 @@ public abstract class TestBase {
             return null;
         }
 
+        @Override public UserNameIndex getUserNameIndex() {
+            return null;
+        }
+
+        @Override public UserQueryService getUserQueryService() {
+            return null;
+        }
+
+        @Override public BackupService getBackupService() {
+            return null;
+        }
+
         @Override
         public void saveSystemConfig() throws IOException {
 
@@ -176,6 +216,22 @@ public abstract class TestBase {
             return null;
         }
 
+        @Override public CooldownService getCooldownService() {
+            return cooldownService;
+        }
+
+        @Override public AsyncCommandExecutor getAsyncCommandExecutor() {
+            return null;
+        }
+
+        @Override public CommandMetrics getCommandMetrics() {
+            return commandMetrics;
+        }
+
+        @Override public SessionPermissionCache getPermissionCache() {
+            return permissionCache;
+        }
+
         @Override public WarmupConfig getWarmupConfig() {
             return null;
         }
@@ -228,7 +284,7 @@ public abstract class TestBase {
         }
 
         public TextParsingUtils getTextParsingUtils() {
-            return null;
+            return textParsingUtils;
         }
 
         @Override
@@ -272,7 +328,7 @@ public abstract class TestBase {
         }
 
         @Override public NucleusMessageTokenService getMessageTokenService() {
-            return null;
+            return messageTokenService;
         }
 
         @Override public boolean isDebugMode() {
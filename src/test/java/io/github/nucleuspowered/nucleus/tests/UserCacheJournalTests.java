@@ -0,0 +1,108 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.nucleuspowered.nucleus.configurate.datatypes.UserCacheDataNode;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.FileSaveSettings;
+import io.github.nucleuspowered.nucleus.dataservices.dataproviders.UserCacheJournal;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class UserCacheJournalTests {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    @Test
+    public void testLatestEntriesAreReplayed() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.journal");
+        try (UserCacheJournal journal = open(file)) {
+            journal.append(ImmutableMap.of(first, new UserCacheDataNode("127.0.0.1", null, false)));
+            journal.append(ImmutableMap.of(second, new UserCacheDataNode(null, "jail", false),
+                    first, new UserCacheDataNode("127.0.0.2", null, true)));
+        }
+
+        Map<UUID, UserCacheDataNode> result = replay(file);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("127.0.0.2", result.get(first).getIpAddress().get());
+        Assert.assertTrue(result.get(first).isMuted());
+        Assert.assertEquals("jail", result.get(second).getJailName().get());
+        Assert.assertFalse(result.get(second).getIpAddress().isPresent());
+    }
+
+    @Test
+    public void testRotatedEntriesAreReplayedUntilDiscarded() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.journal");
+        try (UserCacheJournal journal = open(file)) {
+            journal.append(ImmutableMap.of(first, new UserCacheDataNode("127.0.0.1", null, false)));
+            journal.rotate();
+            journal.append(ImmutableMap.of(second, new UserCacheDataNode("127.0.0.2", null, false)));
+            Assert.assertEquals(1, journal.getRecordCount());
+        }
+
+        Assert.assertEquals(2, replay(file).size());
+
+        try (UserCacheJournal journal = open(file)) {
+            journal.replay((k, v) -> {});
+            journal.discardRotated();
+        }
+
+        Map<UUID, UserCacheDataNode> result = replay(file);
+        Assert.assertEquals(1, result.size());
+        Assert.assertTrue(result.containsKey(second));
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.journal");
+        try (UserCacheJournal journal = open(file)) {
+            journal.append(ImmutableMap.of(first, new UserCacheDataNode("127.0.0.1", null, false)));
+        }
+
+        // Simulate a crash part way through writing a record.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 50, 1, 2, 3 }), channel.size());
+        }
+
+        try (UserCacheJournal journal = open(file)) {
+            journal.replay((k, v) -> {});
+            journal.append(ImmutableMap.of(second, new UserCacheDataNode("127.0.0.2", null, false)));
+        }
+
+        Map<UUID, UserCacheDataNode> result = replay(file);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("127.0.0.2", result.get(second).getIpAddress().get());
+    }
+
+    private static Map<UUID, UserCacheDataNode> replay(Path file) throws Exception {
+        Map<UUID, UserCacheDataNode> result = new HashMap<>();
+        try (UserCacheJournal journal = open(file)) {
+            journal.replay(result::put);
+        }
+
+        return result;
+    }
+
+    private static UserCacheJournal open(Path file) {
+        Logger logger = Mockito.mock(Logger.class);
+        return new UserCacheJournal(file, new FileSaveSettings(logger), logger);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of Nucleus, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package io.github.nucleuspowered.nucleus.tests;
+
+import com.google.common.collect.Lists;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.spongepowered.api.profile.GameProfile;
+import org.spongepowered.api.service.user.UserStorageService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class UserNameIndexTests {
+
+    @Test
+    public void testProfilesAreFoundByTheStartOfTheirNameInOrder() {
+        UserNameIndex index = getIndex(profile("Bob"), profile("abigail"), profile("Abe"), profile("ben"));
+
+        Assert.assertEquals(Lists.newArrayList("Abe", "abigail"), names(index.getProfilesStartingWith("AB")));
+        Assert.assertEquals(Lists.newArrayList("ben", "Bob"), names(index.getProfilesStartingWith("b")));
+        Assert.assertEquals(4, index.getProfilesStartingWith("").size());
+        Assert.assertEquals(Lists.newArrayList("Bob"), names(index.getProfiles("bob")));
+        Assert.assertTrue(index.getProfiles("bo").isEmpty());
+    }
+
+    @Test
+    public void testAProfileIsMovedWhenItsNameChanges() {
+        GameProfile old = profile("Old");
+        UserNameIndex index = getIndex(old, profile("Other"));
+
+        GameProfile renamed = profile("New");
+        Mockito.when(renamed.getUniqueId()).thenReturn(old.getUniqueId());
+        index.updateProfile(renamed);
+
+        Assert.assertTrue(index.getProfiles("old").isEmpty());
+        Assert.assertEquals(Lists.newArrayList("Other"), names(index.getProfilesStartingWith("o")));
+        Assert.assertEquals(renamed, index.getProfile(old.getUniqueId()).get());
+    }
+
+    private static UserNameIndex getIndex(GameProfile... profiles) {
+        UserStorageService mockUss = Mockito.mock(UserStorageService.class);
+        Mockito.when(mockUss.getAll()).thenReturn(Lists.newArrayList(profiles));
+        return new UserNameIndex(() -> mockUss);
+    }
+
+    private static GameProfile profile(String name) {
+        GameProfile profile = Mockito.mock(GameProfile.class);
+        Mockito.when(profile.getName()).thenReturn(Optional.of(name));
+        Mockito.when(profile.getUniqueId()).thenReturn(UUID.randomUUID());
+        return profile;
+    }
+
+    private static List<String> names(List<GameProfile> profiles) {
+        return profiles.stream().map(x -> x.getName().get()).collect(Collectors.toList());
+    }
+}
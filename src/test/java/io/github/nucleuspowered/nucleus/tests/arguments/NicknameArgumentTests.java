@@ -6,6 +6,7 @@ package io.github.nucleuspowered.nucleus.tests.arguments;
 
 import com.google.common.collect.Lists;
 import io.github.nucleuspowered.nucleus.argumentparsers.NicknameArgument;
+import io.github.nucleuspowered.nucleus.dataservices.UserNameIndex;
 import io.github.nucleuspowered.nucleus.tests.TestBase;
 import org.junit.Assert;
 import org.junit.Test;
@@ -20,6 +21,7 @@ import org.spongepowered.api.service.user.UserStorageService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public class NicknameArgumentTests extends TestBase {
 
@@ -55,7 +57,8 @@ public class NicknameArgumentTests extends TestBase {
         UserStorageService mockUss = getMockUserStorageService();
 
         // We're testing the UserParser
-        return new NicknameArgument.UserParser(false, () -> mockUss);
+        UserNameIndex index = new UserNameIndex(() -> mockUss);
+        return new NicknameArgument.UserParser(false, () -> mockUss, () -> index);
     }
 
     private UserStorageService getMockUserStorageService() {
@@ -63,6 +66,8 @@ public class NicknameArgumentTests extends TestBase {
         GameProfile gp2 = Mockito.mock(GameProfile.class);
         Mockito.when(gp1.getName()).thenReturn(Optional.of("test"));
         Mockito.when(gp2.getName()).thenReturn(Optional.of("testtest"));
+        Mockito.when(gp1.getUniqueId()).thenReturn(UUID.randomUUID());
+        Mockito.when(gp2.getUniqueId()).thenReturn(UUID.randomUUID());
 
         UserStorageService mockUss = Mockito.mock(UserStorageService.class);
         Mockito.when(mockUss.getAll()).thenReturn(Lists.newArrayList(gp1, gp2));